@@ -0,0 +1,60 @@
+package TSPBenchmarks;
+
+import Graphs.Graph;
+import Graphs.GraphGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the graph input: parsing a text distance matrix and generating a random complete graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphBenchmark {
+    @Param({"100", "1000"})
+    public int numCities; // Number of cities of the graph
+
+    private File file; // Text file holding a seeded graph of numCities cities
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = File.createTempFile("graph", ".txt");
+        GraphGenerator.saveGraphToFile(Instances.completeGraph(numCities, 1), file.getPath());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (!file.delete()) {
+            System.err.println("Could not delete " + file);
+        }
+    }
+
+    @Benchmark
+    public Graph readGraphFromFile() {
+        return GraphGenerator.readGraphFromFile(file.getPath());
+    }
+
+    @Benchmark
+    public Graph generateCompleteGraph() {
+        return GraphGenerator.generateCompleteGraph(numCities);
+    }
+}
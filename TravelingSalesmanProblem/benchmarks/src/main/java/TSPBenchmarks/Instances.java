@@ -0,0 +1,33 @@
+package TSPBenchmarks;
+
+import Graphs.Graph;
+import Graphs.MatrixGraph;
+
+import java.util.Random;
+
+/**
+ * The Instances class builds the seeded benchmark graphs, so every run measures the same instances.
+ */
+final class Instances {
+    private Instances() {
+    }
+
+    /**
+     * Generates a complete graph with random distances between 1 and 100, like GraphGenerator.generateCompleteGraph,
+     * but from a fixed seed.
+     *
+     * @param numCities -> The number of cities in the graph
+     * @param seed -> The seed of the distances
+     * @return : The generated graph
+     */
+    static Graph completeGraph(int numCities, long seed) {
+        Random random = new Random(seed);
+        MatrixGraph graph = new MatrixGraph(numCities);
+        for (int i = 0; i < numCities; i++) {
+            for (int j = i + 1; j < numCities; j++) {
+                graph.addEdge(i, j, random.nextInt(100) + 1);
+            }
+        }
+        return graph;
+    }
+}
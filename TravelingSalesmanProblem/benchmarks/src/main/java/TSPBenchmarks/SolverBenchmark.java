@@ -0,0 +1,84 @@
+package TSPBenchmarks;
+
+import Graphs.Graph;
+import TSPAlgorithms.TSPAStar;
+import TSPAlgorithms.TSPDFS;
+import TSPAlgorithms.TSPUniformCost;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the exact solvers on seeded complete graphs: throughput, and latency percentiles (sample time).
+ * Every invocation solves the instance from scratch with a new solver.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+    @Param({"8", "10", "11"})
+    public int numCities; // Number of cities of the instance
+
+    @Param({"1", "2", "3"})
+    public long seed; // Seed of the instance
+
+    private Graph graph; // The instance
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = Instances.completeGraph(numCities, seed);
+    }
+
+    @Benchmark
+    public int dfs() {
+        TSPDFS dfs = new TSPDFS(graph);
+        dfs.search(0);
+        return dfs.getBestCost();
+    }
+
+    @Benchmark
+    public int parallelDfs() {
+        TSPDFS dfs = new TSPDFS(graph);
+        dfs.searchParallel(0);
+        return dfs.getBestCost();
+    }
+
+    @Benchmark
+    public TSPUniformCost.Path uniformCost() {
+        return new TSPUniformCost(graph).search(0);
+    }
+
+    @Benchmark
+    public TSPAStar.Path aStar() {
+        return new TSPAStar(graph).search(0);
+    }
+
+    @Benchmark
+    public int dfsHeldKarp() {
+        TSPDFS dfs = new TSPDFS(graph);
+        dfs.setHeldKarpBound(true);
+        dfs.search(0);
+        return dfs.getBestCost();
+    }
+
+    @Benchmark
+    public TSPAStar.Path aStarHeldKarp() {
+        TSPAStar aStar = new TSPAStar(graph);
+        aStar.setHeldKarpBound(true);
+        return aStar.search(0);
+    }
+}
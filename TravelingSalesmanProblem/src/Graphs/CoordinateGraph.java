@@ -0,0 +1,153 @@
+package Graphs;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The CoordinateGraph class represents a complete undirected graph whose cities are points in the plane
+ * (or on the earth sphere for GEO instances). Distances are computed on demand from the coordinates,
+ * so the graph only needs O(n) memory and can hold instances with hundreds of thousands of cities.
+ * An optional bounded LRU cache keeps the most recently scanned rows for getRow.
+ */
+public class CoordinateGraph implements Graph {
+    private final double[] x; // The x coordinate (latitude in radians for GEO) of every city
+    private final double[] y; // The y coordinate (longitude in radians for GEO) of every city
+    private final double[] rawX; // The x coordinates as given
+    private final double[] rawY; // The y coordinates as given
+    private final DistanceType type; // The distance function
+    private final Map<Integer, int[]> rowCache; // Most recently scanned rows (null if caching is disabled)
+
+    /**
+     * Constructor for a coordinate graph without row cache.
+     *
+     * @param x -> The x coordinate of every city
+     * @param y -> The y coordinate of every city
+     * @param type -> The distance function
+     */
+    public CoordinateGraph(double[] x, double[] y, DistanceType type) {
+        this(x, y, type, 0);
+    }
+
+    /**
+     * Constructor for a coordinate graph.
+     *
+     * @param x -> The x coordinate of every city
+     * @param y -> The y coordinate of every city
+     * @param type -> The distance function
+     * @param cachedRows -> The maximum number of rows kept by the row cache (0 disables the cache)
+     */
+    public CoordinateGraph(double[] x, double[] y, DistanceType type, int cachedRows) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("The x and y coordinate arrays must have the same length");
+        }
+        this.rawX = x;
+        this.rawY = y;
+        this.type = type;
+        this.x = new double[x.length];
+        this.y = new double[y.length];
+        for (int i = 0; i < x.length; i++) {
+            this.x[i] = type.convert(x[i]);
+            this.y[i] = type.convert(y[i]);
+        }
+        this.rowCache = cachedRows <= 0 ? null : new LinkedHashMap<Integer, int[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+                return size() > cachedRows; // Evict the least recently used row
+            }
+        };
+    }
+
+    /**
+     * Gets the distance between two cities, computed from their coordinates.
+     *
+     * @param from -> The starting city
+     * @param to -> The destination city
+     * @return The distance between the specified cities
+     */
+    @Override
+    public int getDistance(int from, int to) {
+        if (from == to) {
+            return 0;
+        }
+        return type.distance(x[from], y[from], x[to], y[to]);
+    }
+
+    /**
+     * Gets the number of cities in the graph.
+     */
+    @Override
+    public int getNumCities() {
+        return x.length;
+    }
+
+    /**
+     * Copies all the distances from a city into an array, using the row cache if it is enabled.
+     *
+     * @param from -> The city whose distances are copied
+     * @param row -> The array receiving the distances (at least numCities long)
+     */
+    @Override
+    public void getRow(int from, int[] row) {
+        int n = x.length;
+        if (rowCache == null) {
+            computeRow(from, row);
+            return;
+        }
+
+        int[] cached;
+        synchronized (rowCache) {
+            cached = rowCache.get(from);
+        }
+        if (cached == null) {
+            cached = new int[n];
+            computeRow(from, cached);
+            synchronized (rowCache) {
+                rowCache.put(from, cached);
+            }
+        }
+        System.arraycopy(cached, 0, row, 0, n);
+    }
+
+    /**
+     * Computes all the distances from a city.
+     *
+     * @param from -> The city whose distances are computed
+     * @param row -> The array receiving the distances
+     */
+    private void computeRow(int from, int[] row) {
+        double fx = x[from];
+        double fy = y[from];
+        for (int to = 0; to < x.length; to++) {
+            row[to] = to == from ? 0 : type.distance(fx, fy, x[to], y[to]);
+        }
+    }
+
+    /**
+     * Gets the x coordinate of a city, as given to the constructor.
+     *
+     * @param city -> The city
+     * @return : The x coordinate
+     */
+    public double getX(int city) {
+        return rawX[city];
+    }
+
+    /**
+     * Gets the y coordinate of a city, as given to the constructor.
+     *
+     * @param city -> The city
+     * @return : The y coordinate
+     */
+    public double getY(int city) {
+        return rawY[city];
+    }
+
+    /**
+     * Gets the distance function of the graph.
+     *
+     * @return : The distance type
+     */
+    public DistanceType getDistanceType() {
+        return type;
+    }
+}
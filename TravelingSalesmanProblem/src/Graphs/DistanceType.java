@@ -0,0 +1,62 @@
+package Graphs;
+
+/**
+ * The DistanceType enum lists the TSPLIB distance functions supported for coordinate based instances.
+ * All of them round the distance to an int, exactly as specified by TSPLIB, so the tour costs match the published ones.
+ */
+public enum DistanceType {
+    EUC_2D, // Euclidean distance rounded to the nearest int
+    CEIL_2D, // Euclidean distance rounded up
+    ATT, // Pseudo-Euclidean distance of the att48/att532 instances
+    GEO; // Geographical distance on the idealized earth sphere (coordinates are DDD.MM latitude/longitude)
+
+    private static final double PI = 3.141592; // Value of PI used by TSPLIB for GEO instances
+    private static final double EARTH_RADIUS = 6378.388; // Radius of the idealized earth sphere in km
+
+    /**
+     * Converts a TSPLIB coordinate to the form used by the distance function.
+     * GEO coordinates (degrees and minutes) are converted to radians, the others are kept as they are.
+     *
+     * @param coordinate -> The coordinate read from the instance
+     * @return : The coordinate used by distance()
+     */
+    public double convert(double coordinate) {
+        if (this != GEO) {
+            return coordinate;
+        }
+        int degrees = (int) coordinate;
+        double minutes = coordinate - degrees;
+        return PI * (degrees + 5.0 * minutes / 3.0) / 180.0;
+    }
+
+    /**
+     * Computes the distance between two points, whose coordinates were converted with convert().
+     *
+     * @param x1 -> The x coordinate (latitude for GEO) of the first point
+     * @param y1 -> The y coordinate (longitude for GEO) of the first point
+     * @param x2 -> The x coordinate (latitude for GEO) of the second point
+     * @param y2 -> The y coordinate (longitude for GEO) of the second point
+     * @return : The distance between the points
+     */
+    public int distance(double x1, double y1, double x2, double y2) {
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        switch (this) {
+            case EUC_2D:
+                return (int) (Math.sqrt(dx * dx + dy * dy) + 0.5);
+            case CEIL_2D:
+                return (int) Math.ceil(Math.sqrt(dx * dx + dy * dy));
+            case ATT: {
+                double r = Math.sqrt((dx * dx + dy * dy) / 10.0);
+                int t = (int) (r + 0.5);
+                return t < r ? t + 1 : t;
+            }
+            default: {
+                double q1 = Math.cos(y1 - y2);
+                double q2 = Math.cos(x1 - x2);
+                double q3 = Math.cos(x1 + x2);
+                return (int) (EARTH_RADIUS * Math.acos(0.5 * ((1.0 + q1) * q2 - (1.0 - q1) * q3)) + 1.0);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package Graphs;
+
+import java.io.File;
+
+/**
+ * The GraphConverter class converts graph files from the text format to the binary format.
+ * Every argument is either a text file or a directory; for a directory, all its ".txt" files are converted.
+ * Each converted file is written next to the original, with the ".bin" extension.
+ */
+public class GraphConverter {
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: java Graphs.GraphConverter <file.txt | directory>...");
+            return;
+        }
+
+        for (String arg : args) {
+            File file = new File(arg);
+            if (file.isDirectory()) {
+                File[] files = file.listFiles((dir, name) -> name.endsWith(".txt"));
+                if (files == null) {
+                    System.err.println("Cannot list directory: " + arg);
+                    continue;
+                }
+                for (File textFile : files) {
+                    convert(textFile);
+                }
+            } else {
+                convert(file);
+            }
+        }
+    }
+
+    /**
+     * Converts a single text file to a binary file with the same name and the ".bin" extension.
+     *
+     * @param textFile -> The text file to convert
+     */
+    private static void convert(File textFile) {
+        String textName = textFile.getPath();
+        String binaryName = (textName.endsWith(".txt") ? textName.substring(0, textName.length() - 4) : textName) + ".bin";
+        if (GraphGenerator.convertTextToBinary(textName, binaryName)) {
+            System.out.println("Converted " + textName + " -> " + binaryName);
+        }
+    }
+}
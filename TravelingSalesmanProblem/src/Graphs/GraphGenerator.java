@@ -1,42 +1,58 @@
 package Graphs;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Random;
+import java.util.StringTokenizer;
 
 /**
  * The GraphGenerator class is used to generate and save complete graphs.
+ * Graphs can be saved as text (one edge per line) or in a versioned binary format:
+ * a 16 byte header (magic "TSPG", version, number of cities, element width) followed by the packed upper triangle
+ * of the distance matrix, in little-endian order. Binary files are read by memory-mapping them.
+ * TSPLIB instances (coordinate based or with explicit weights) are parsed in a single streaming pass.
  */
 public class GraphGenerator {
+    static final int BINARY_MAGIC = 0x47505354; // "TSPG" read as a little-endian int
+    static final int BINARY_VERSION = 1; // Version of the binary format
+    static final int BINARY_HEADER_SIZE = 16; // Size of the binary header in bytes
+    private static final int WRITE_BUFFER_SIZE = 1 << 16; // Size of the buffer used to write binary files
 
     /**
-     * Generates a complete graph with a specified number of cities.
+     * Generates a complete graph with a specified number of cities, from a random seed.
      *
      * @param numCities -> The number of cities in the graph
      * @return -> A Graph object representing the complete graph generated
      */
-    public static Graph generateCompleteGraph(int numCities) {
+    public static MatrixGraph generateCompleteGraph(int numCities) {
+        return generateCompleteGraph(numCities, new Random().nextLong());
+    }
+
+    /**
+     * Generates a complete graph with a specified number of cities and random distances between 1 and 100.
+     * The same seed always gives the same graph; the rows are generated in parallel (see InstanceGenerator).
+     *
+     * @param numCities -> The number of cities in the graph
+     * @param seed -> The seed of the random distances
+     * @return -> A Graph object representing the complete graph generated
+     */
+    public static MatrixGraph generateCompleteGraph(int numCities, long seed) {
         // Check if the number of cities is positive
         if (numCities <= 0) {
             System.err.println("Number of cities must be positive.");
             return null;
         }
 
-        // Create a new Graph object with the specified number of cities
-        Graph graph = new Graph(numCities);
-        Random random = new Random();
-
-        // Iterate over each pair of cities and add an edge with a random distance
-        for (int i = 0; i < numCities; i++) {
-            for (int j = i + 1; j < numCities; j++) {
-                int distance = random.nextInt(100) + 1; // Generate a random distance between 1 and 100
-                graph.addEdge(i, j, distance); // Add the edge to the graph
-            }
-        }
-
-        return graph; // Return the generated graph
+        return new InstanceGenerator(InstanceGenerator.Family.UNIFORM, numCities, seed).generate();
     }
 
     /**
@@ -52,7 +68,7 @@ public class GraphGenerator {
             return;
         }
 
-        try (FileWriter writer = new FileWriter(filename)) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
             writer.write(+graph.getNumCities() + "\n"); // Write the number of cities to the file
 
             // Iterate over each pair of cities and write the edge information to the file
@@ -75,8 +91,8 @@ public class GraphGenerator {
      * @param filename -> The name of the file from which the graph will be read
      * @return -> A Graph object representing the graph read from the file
      */
-    public static Graph readGraphFromFile(String filename) {
-        Graph graph = null;
+    public static MatrixGraph readGraphFromFile(String filename) {
+        MatrixGraph graph = null;
 
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
             String line = reader.readLine();
@@ -87,7 +103,7 @@ public class GraphGenerator {
             }
 
             int numCities = Integer.parseInt(line.trim()); // Parse the number of cities
-            graph = new Graph(numCities); // Create a new Graph object
+            graph = new MatrixGraph(numCities); // Create a new Graph object
 
             // Read each subsequent line to get the edges and their distances
             while ((line = reader.readLine()) != null) {
@@ -119,5 +135,366 @@ public class GraphGenerator {
 
         return graph; // Return the graph read from the file
     }
-}
 
+    /**
+     * Saves the graph to a specified file in the binary format.
+     *
+     * @param graph -> The Graph object to be saved
+     * @param filename -> The name of the file where the graph will be saved
+     */
+    public static void saveGraphToBinaryFile(Graph graph, String filename) {
+        // Check if the graph object is null
+        if (graph == null) {
+            System.err.println("Graph is null. Cannot save to file.");
+            return;
+        }
+
+        int numCities = graph.getNumCities();
+        int width = elementWidth(graph);
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filename),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(BINARY_MAGIC).putInt(BINARY_VERSION).putInt(numCities).putInt(width); // Write the header
+
+            // Write the upper triangle row by row, in the same order as it is stored in the Graph
+            for (int i = 0; i < numCities; i++) {
+                for (int j = i + 1; j < numCities; j++) {
+                    if (buffer.remaining() < width) {
+                        writeFully(channel, buffer);
+                    }
+                    int distance = graph.getDistance(i, j);
+                    if (width == 1) {
+                        buffer.put((byte) distance);
+                    } else if (width == 2) {
+                        buffer.putShort((short) distance);
+                    } else {
+                        buffer.putInt(distance);
+                    }
+                }
+            }
+            writeFully(channel, buffer);
+        } catch (IOException e) {
+            System.err.println("Failed to save graph to file: " + filename); // Handling IO exception
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Gets the element width used to store the distances of a graph in the binary format.
+     * Matrix graphs already know it; for other graphs it is derived from the largest distance.
+     *
+     * @param graph -> The graph to be saved
+     * @return : The width of an element in bytes (1, 2 or 4)
+     */
+    private static int elementWidth(Graph graph) {
+        if (graph instanceof MatrixGraph) {
+            return ((MatrixGraph) graph).getElementWidth();
+        }
+        int min = 0;
+        int max = 0;
+        int[] row = new int[graph.getNumCities()];
+        for (int i = 0; i < graph.getNumCities(); i++) {
+            graph.getRow(i, row);
+            for (int j = i + 1; j < row.length; j++) {
+                min = Math.min(min, row[j]);
+                max = Math.max(max, row[j]);
+            }
+        }
+        if (min < 0 || max > 0xFFFF) {
+            return 4;
+        }
+        return max > 0xFF ? 2 : 1;
+    }
+
+    /**
+     * Writes the content of a buffer to a channel and clears the buffer.
+     *
+     * @param channel -> The channel to write to
+     * @param buffer -> The buffer to drain
+     * @throws IOException -> If the write fails
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Reads a graph from a specified file in the binary format.
+     * The file is memory-mapped read-only, and the returned Graph is backed directly by the mapped region,
+     * so no distance is copied or parsed. Adding an edge to the graph later copies the distances to the heap,
+     * the file itself is never modified.
+     *
+     * @param filename -> The name of the file from which the graph will be read
+     * @return -> A Graph object representing the graph read from the file, or null if the file is invalid
+     */
+    public static MatrixGraph readGraphFromBinaryFile(String filename) {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            if (channel.size() < BINARY_HEADER_SIZE) {
+                System.err.println("The file is too short to contain a graph header: " + filename);
+                return null;
+            }
+
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            int magic = mapped.getInt();
+            int version = mapped.getInt();
+            int numCities = mapped.getInt();
+            int width = mapped.getInt();
+            if (magic != BINARY_MAGIC) {
+                System.err.println("The file is not a binary graph file: " + filename);
+                return null;
+            }
+            if (version != BINARY_VERSION) {
+                System.err.println("Unsupported binary graph version " + version + ": " + filename);
+                return null;
+            }
+            if (numCities <= 0 || (width != 1 && width != 2 && width != 4)) {
+                System.err.println("Invalid binary graph header: " + filename);
+                return null;
+            }
+            long expected = BINARY_HEADER_SIZE + (long) numCities * (numCities - 1) / 2 * width;
+            if (channel.size() < expected) {
+                System.err.println("The file is truncated: " + filename);
+                return null;
+            }
+
+            return new MatrixGraph(numCities, width, mapped); // The graph reads directly from the mapped region
+        } catch (IOException e) {
+            System.err.println("Failed to read graph from file: " + filename); // Handling IO exception
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Converts a graph file from the text format to the binary format.
+     *
+     * @param textFilename -> The name of the text file to read
+     * @param binaryFilename -> The name of the binary file to write
+     * @return : True if the conversion succeeded, False otherwise
+     */
+    public static boolean convertTextToBinary(String textFilename, String binaryFilename) {
+        Graph graph = readGraphFromFile(textFilename);
+        if (graph == null) {
+            return false;
+        }
+        saveGraphToBinaryFile(graph, binaryFilename);
+        return true;
+    }
+
+    /**
+     * Reads a TSPLIB instance from a specified file, without row cache.
+     *
+     * @param filename -> The name of the TSPLIB file
+     * @return -> A Graph object representing the instance, or null if the file is invalid
+     */
+    public static Graph readTSPLIBFile(String filename) {
+        return readTSPLIBFile(filename, 0);
+    }
+
+    /**
+     * Reads a TSPLIB instance from a specified file, in a single streaming pass.
+     * Coordinate instances (EUC_2D, CEIL_2D, ATT, GEO) become a CoordinateGraph that computes the distances on demand,
+     * so only the coordinates are kept in memory. EXPLICIT instances (FULL_MATRIX, UPPER_ROW, LOWER_ROW,
+     * UPPER_DIAG_ROW, LOWER_DIAG_ROW) become a MatrixGraph.
+     *
+     * @param filename -> The name of the TSPLIB file
+     * @param cachedRows -> The number of rows kept by the row cache of a CoordinateGraph (0 disables the cache)
+     * @return -> A Graph object representing the instance, or null if the file is invalid
+     */
+    public static Graph readTSPLIBFile(String filename, int cachedRows) {
+        int dimension = -1; // Number of cities
+        String weightType = null; // EDGE_WEIGHT_TYPE
+        String weightFormat = "FULL_MATRIX"; // EDGE_WEIGHT_FORMAT (only used by EXPLICIT instances)
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue; // Skip empty lines
+                }
+                if (line.equals("EOF")) {
+                    break;
+                }
+
+                // Header lines have the form "KEY : VALUE"
+                int colon = line.indexOf(':');
+                String key = (colon >= 0 ? line.substring(0, colon) : line).trim();
+                String value = colon >= 0 ? line.substring(colon + 1).trim() : "";
+
+                switch (key) {
+                    case "DIMENSION":
+                        dimension = Integer.parseInt(value);
+                        break;
+                    case "EDGE_WEIGHT_TYPE":
+                        weightType = value;
+                        break;
+                    case "EDGE_WEIGHT_FORMAT":
+                        weightFormat = value;
+                        break;
+                    case "NODE_COORD_SECTION":
+                        if (dimension <= 0 || weightType == null) {
+                            System.err.println("DIMENSION and EDGE_WEIGHT_TYPE must precede NODE_COORD_SECTION: " + filename);
+                            return null;
+                        }
+                        if ("EXPLICIT".equals(weightType)) {
+                            skipLines(reader, dimension); // Coordinates are only for display, the weights follow
+                            break;
+                        }
+                        return readCoordinates(reader, dimension, weightType, cachedRows, filename);
+                    case "EDGE_WEIGHT_SECTION":
+                        if (dimension <= 0) {
+                            System.err.println("DIMENSION must precede EDGE_WEIGHT_SECTION: " + filename);
+                            return null;
+                        }
+                        return readExplicitWeights(reader, dimension, weightFormat, filename);
+                    case "DISPLAY_DATA_SECTION":
+                        skipLines(reader, dimension);
+                        break;
+                    default:
+                        break; // NAME, TYPE, COMMENT and other keys are not needed
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to read graph from file: " + filename); // Handling IO exception
+            e.printStackTrace();
+            return null;
+        } catch (NumberFormatException e) {
+            System.err.println("Failed to parse TSPLIB file: " + filename); // Handling parsing exception
+            e.printStackTrace();
+            return null;
+        }
+
+        System.err.println("The file does not contain a NODE_COORD_SECTION or EDGE_WEIGHT_SECTION: " + filename);
+        return null;
+    }
+
+    /**
+     * Reads the NODE_COORD_SECTION of a TSPLIB file ("id x y" per line, ids starting at 1).
+     *
+     * @param reader -> The reader positioned after the section keyword
+     * @param dimension -> The number of cities
+     * @param weightType -> The EDGE_WEIGHT_TYPE of the instance
+     * @param cachedRows -> The number of rows kept by the row cache
+     * @param filename -> The name of the file, for error messages
+     * @return -> The coordinate graph, or null if the section is invalid
+     * @throws IOException -> If reading fails
+     */
+    private static Graph readCoordinates(BufferedReader reader, int dimension, String weightType,
+                                         int cachedRows, String filename) throws IOException {
+        DistanceType type;
+        try {
+            type = DistanceType.valueOf(weightType);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unsupported EDGE_WEIGHT_TYPE " + weightType + ": " + filename);
+            return null;
+        }
+
+        double[] x = new double[dimension];
+        double[] y = new double[dimension];
+        int read = 0;
+        String line;
+        while (read < dimension && (line = reader.readLine()) != null) {
+            StringTokenizer tokens = new StringTokenizer(line);
+            if (tokens.countTokens() < 3) {
+                continue; // Skip empty or malformed lines
+            }
+            int id = Integer.parseInt(tokens.nextToken()) - 1; // TSPLIB ids start at 1
+            if (id < 0 || id >= dimension) {
+                System.err.println("Invalid node id in line: " + line);
+                return null;
+            }
+            x[id] = Double.parseDouble(tokens.nextToken());
+            y[id] = Double.parseDouble(tokens.nextToken());
+            read++;
+        }
+
+        if (read < dimension) {
+            System.err.println("The NODE_COORD_SECTION has only " + read + " of " + dimension + " cities: " + filename);
+            return null;
+        }
+        return new CoordinateGraph(x, y, type, cachedRows);
+    }
+
+    /**
+     * Reads the EDGE_WEIGHT_SECTION of a TSPLIB file. The weights are a stream of numbers, regardless of line breaks,
+     * laid out according to the EDGE_WEIGHT_FORMAT.
+     *
+     * @param reader -> The reader positioned after the section keyword
+     * @param dimension -> The number of cities
+     * @param format -> The EDGE_WEIGHT_FORMAT of the instance
+     * @param filename -> The name of the file, for error messages
+     * @return -> The matrix graph, or null if the section is invalid
+     * @throws IOException -> If reading fails
+     */
+    private static Graph readExplicitWeights(BufferedReader reader, int dimension, String format,
+                                             String filename) throws IOException {
+        boolean upper = format.startsWith("UPPER"); // Rows start at the diagonal (upper) or at column 0 (lower)
+        boolean diagonal = format.endsWith("DIAG_ROW"); // The diagonal is included in the stream
+        boolean full = format.equals("FULL_MATRIX");
+        if (!full && !format.equals("UPPER_ROW") && !format.equals("LOWER_ROW") && !diagonal) {
+            System.err.println("Unsupported EDGE_WEIGHT_FORMAT " + format + ": " + filename);
+            return null;
+        }
+
+        MatrixGraph graph = new MatrixGraph(dimension);
+        // (i, j) is the entry the next number belongs to
+        int i = 0;
+        int j = full ? 0 : (upper ? (diagonal ? 0 : 1) : 0);
+        if (!full && !upper && !diagonal) {
+            i = 1; // LOWER_ROW starts with row 1
+        }
+
+        String line;
+        while (i < dimension && (line = reader.readLine()) != null) {
+            StringTokenizer tokens = new StringTokenizer(line);
+            while (tokens.hasMoreTokens() && i < dimension) {
+                int distance = (int) Double.parseDouble(tokens.nextToken());
+                if (i != j) {
+                    graph.addEdge(i, j, distance); // The graph is undirected, both triangles hold the same value
+                }
+
+                // Advance to the next entry of the layout
+                j++;
+                if (full) {
+                    if (j == dimension) {
+                        i++;
+                        j = 0;
+                    }
+                } else if (upper) {
+                    if (j == dimension) {
+                        i++;
+                        j = diagonal ? i : i + 1;
+                    }
+                } else if (j > (diagonal ? i : i - 1)) {
+                    i++;
+                    j = 0;
+                }
+            }
+            if (upper && !diagonal && i == dimension - 1) {
+                break; // UPPER_ROW has no entries in the last row
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Skips a number of lines of a reader.
+     *
+     * @param reader -> The reader
+     * @param count -> The number of lines to skip
+     * @throws IOException -> If reading fails
+     */
+    private static void skipLines(BufferedReader reader, int count) throws IOException {
+        for (int k = 0; k < count && reader.readLine() != null; k++) {
+            // Nothing to do, the line is discarded
+        }
+    }
+}
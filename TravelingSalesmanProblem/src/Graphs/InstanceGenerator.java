@@ -0,0 +1,535 @@
+package Graphs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The InstanceGenerator class generates reproducible benchmark instances: the same family, size and seed always
+ * give the same distances, whatever the number of threads. The upper triangle of the distance matrix is generated in
+ * blocks of rows, in parallel; every block has its own SplittableRandom, split from the seed in block order.
+ * An instance can be built in memory (generate) or streamed to a binary graph file (writeBinary): then only a few
+ * blocks per thread are held in memory, so instances far larger than the heap can be written.
+ * Families:
+ * UNIFORM -> independent random distances between 1 and maxDistance (like generateCompleteGraph, not metric);
+ * EUCLIDEAN -> cities uniform in a square, rounded Euclidean distances (TSPLIB EUC_2D);
+ * CLUSTERED -> cities normally distributed around random cluster centers, rounded Euclidean distances;
+ * METRIC_CLOSURE -> shortest-path distances of a random sparse graph (a random ring plus a few random edges per city,
+ * weights between 1 and maxDistance), so the distances are metric but not geometric. Every row is a Dijkstra run.
+ * Distances are at least 1, since 0 means a missing edge for the exact solvers.
+ */
+public class InstanceGenerator {
+    /**
+     * Families of instances.
+     */
+    public enum Family {
+        UNIFORM,
+        EUCLIDEAN,
+        CLUSTERED,
+        METRIC_CLOSURE
+    }
+
+    private static final int BLOCK_BYTES = 1 << 20; // Approximate size of a block of rows
+    private static final int SPARSE_DEGREE = 3; // Random edges per city of the METRIC_CLOSURE base graph
+
+    private final Family family; // Family of the instance
+    private final int numCities; // Number of cities
+    private final long seed; // Seed of the instance
+    private int maxDistance = 100; // Largest random weight (UNIFORM and METRIC_CLOSURE)
+    private double range = 10000; // Side of the square of the cities (EUCLIDEAN and CLUSTERED)
+    private int numClusters; // Number of clusters (CLUSTERED), 0 for numCities / 100
+    private int parallelism = Runtime.getRuntime().availableProcessors(); // Number of worker threads
+
+    private double[] x; // Coordinates of the cities (EUCLIDEAN and CLUSTERED)
+    private double[] y;
+    private int[] adjacencyStart; // Base graph of METRIC_CLOSURE: edges of city c are adjacencyStart[c] .. [c + 1] - 1
+    private int[] adjacencyCity; // Other city of every edge
+    private int[] adjacencyWeight; // Weight of every edge
+
+    /**
+     * Constructor for InstanceGenerator.
+     *
+     * @param family -> The family of the instance
+     * @param numCities -> The number of cities
+     * @param seed -> The seed of the instance
+     */
+    public InstanceGenerator(Family family, int numCities, long seed) {
+        if (family == null || numCities <= 0) {
+            throw new IllegalArgumentException("The family must be set and the number of cities must be positive");
+        }
+        this.family = family;
+        this.numCities = numCities;
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the largest random weight of UNIFORM and METRIC_CLOSURE instances.
+     *
+     * @param maxDistance -> The largest weight (at least 1)
+     */
+    public void setMaxDistance(int maxDistance) {
+        if (maxDistance <= 0) {
+            System.err.println("The maximum distance must be positive");
+            return;
+        }
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Sets the side of the square in which the cities of EUCLIDEAN and CLUSTERED instances are placed.
+     *
+     * @param range -> The side of the square
+     */
+    public void setRange(double range) {
+        if (range <= 0) {
+            System.err.println("The range must be positive");
+            return;
+        }
+        this.range = range;
+    }
+
+    /**
+     * Sets the number of clusters of CLUSTERED instances.
+     *
+     * @param numClusters -> The number of clusters (0 for one cluster per 100 cities)
+     */
+    public void setNumClusters(int numClusters) {
+        if (numClusters < 0) {
+            System.err.println("The number of clusters cannot be negative");
+            return;
+        }
+        this.numClusters = numClusters;
+    }
+
+    /**
+     * Sets the number of worker threads. The instance does not depend on it.
+     *
+     * @param parallelism -> The number of worker threads
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            System.err.println("Parallelism must be positive");
+            return;
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Generates the instance in memory.
+     *
+     * @return : The generated graph
+     */
+    public MatrixGraph generate() {
+        prepare();
+        int width = MatrixGraph.widthFor(maxPossibleDistance());
+        long bytes = (long) numCities * (numCities - 1) / 2 * width;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Graph with " + numCities + " cities does not fit in memory, use writeBinary");
+        }
+        ByteBuffer distances = ByteBuffer.allocate((int) bytes).order(ByteOrder.nativeOrder());
+
+        int rowsPerBlock = rowsPerBlock(width);
+        int numBlocks = (numCities + rowsPerBlock - 1) / rowsPerBlock;
+        SplittableRandom[] randoms = blockRandoms(numBlocks);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            Future<?>[] futures = new Future<?>[numBlocks];
+            for (int b = 0; b < numBlocks; b++) {
+                int block = b;
+                int first = block * rowsPerBlock;
+                int last = Math.min(numCities, first + rowsPerBlock);
+                // Every block writes its own slice of the shared buffer
+                ByteBuffer slice = distances.duplicate().order(distances.order());
+                slice.position((int) (elementIndex(first) * width)).limit((int) (elementIndex(last) * width));
+                ByteBuffer out = slice.slice().order(distances.order());
+                futures[b] = executor.submit(() -> fillRows(first, last, width, randoms[block], out));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to generate the instance", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        return new MatrixGraph(numCities, width, distances);
+    }
+
+    /**
+     * Streams the instance to a file in the binary graph format (readable with
+     * GraphGenerator.readGraphFromBinaryFile), without building the graph in memory.
+     * The blocks are generated in parallel and written in order; at most two blocks per thread are in memory.
+     *
+     * @param filename -> The name of the file to write
+     * @return : True if the file was written, False otherwise
+     */
+    public boolean writeBinary(String filename) {
+        prepare();
+        int width = MatrixGraph.widthFor(maxPossibleDistance());
+        int rowsPerBlock = rowsPerBlock(width);
+        int numBlocks = (numCities + rowsPerBlock - 1) / rowsPerBlock;
+        SplittableRandom[] randoms = blockRandoms(numBlocks);
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try (FileChannel channel = FileChannel.open(Paths.get(filename),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(GraphGenerator.BINARY_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(GraphGenerator.BINARY_MAGIC).putInt(GraphGenerator.BINARY_VERSION).putInt(numCities).putInt(width);
+            header.flip();
+            write(channel, header);
+
+            ArrayDeque<Future<ByteBuffer>> pending = new ArrayDeque<>();
+            int next = 0;
+            while (next < numBlocks || !pending.isEmpty()) {
+                while (next < numBlocks && pending.size() < 2 * parallelism) {
+                    int block = next++;
+                    int first = block * rowsPerBlock;
+                    int last = Math.min(numCities, first + rowsPerBlock);
+                    pending.add(executor.submit(() -> {
+                        ByteBuffer out = ByteBuffer.allocate((int) ((elementIndex(last) - elementIndex(first)) * width))
+                                .order(ByteOrder.LITTLE_ENDIAN);
+                        fillRows(first, last, width, randoms[block], out);
+                        return out;
+                    }));
+                }
+                write(channel, pending.poll().get()); // Blocks are written in order
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to write the instance to file: " + filename);
+            e.printStackTrace();
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            System.err.println("Failed to generate the instance: " + e.getCause());
+            return false;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Generates the parts of the instance shared by all the rows: the coordinates, or the sparse base graph.
+     */
+    private void prepare() {
+        SplittableRandom random = new SplittableRandom(seed ^ 0x5DEECE66DL); // Independent of the block streams
+        switch (family) {
+            case EUCLIDEAN:
+                x = new double[numCities];
+                y = new double[numCities];
+                for (int i = 0; i < numCities; i++) {
+                    x[i] = random.nextDouble() * range;
+                    y[i] = random.nextDouble() * range;
+                }
+                break;
+            case CLUSTERED:
+                int clusters = numClusters > 0 ? numClusters : Math.max(1, numCities / 100);
+                double[] centerX = new double[clusters];
+                double[] centerY = new double[clusters];
+                for (int c = 0; c < clusters; c++) {
+                    centerX[c] = random.nextDouble() * range;
+                    centerY[c] = random.nextDouble() * range;
+                }
+                double sigma = range / (4 * Math.sqrt(clusters)); // Clusters are small compared to their spacing
+                x = new double[numCities];
+                y = new double[numCities];
+                for (int i = 0; i < numCities; i++) {
+                    int c = random.nextInt(clusters);
+                    x[i] = Math.min(range, Math.max(0, centerX[c] + gaussian(random) * sigma));
+                    y[i] = Math.min(range, Math.max(0, centerY[c] + gaussian(random) * sigma));
+                }
+                break;
+            case METRIC_CLOSURE:
+                buildSparseGraph(random);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Builds the base graph of METRIC_CLOSURE: a ring over a random permutation of the cities (so the graph is
+     * connected) plus SPARSE_DEGREE random edges per city, stored as adjacency arrays.
+     *
+     * @param random -> The random generator
+     */
+    private void buildSparseGraph(SplittableRandom random) {
+        int[] permutation = new int[numCities];
+        for (int i = 0; i < numCities; i++) {
+            permutation[i] = i;
+        }
+        for (int i = numCities - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = tmp;
+        }
+
+        int numEdges = numCities > 1 ? numCities + numCities * SPARSE_DEGREE : 0;
+        int[] from = new int[numEdges];
+        int[] to = new int[numEdges];
+        int[] weight = new int[numEdges];
+        int count = 0;
+        for (int i = 0; i < numCities && numCities > 1; i++) {
+            from[count] = permutation[i];
+            to[count] = permutation[(i + 1) % numCities];
+            weight[count++] = 1 + random.nextInt(maxDistance);
+            for (int e = 0; e < SPARSE_DEGREE; e++) {
+                int other = random.nextInt(numCities - 1);
+                from[count] = i;
+                to[count] = other >= i ? other + 1 : other;
+                weight[count++] = 1 + random.nextInt(maxDistance);
+            }
+        }
+
+        // Undirected adjacency arrays (every edge stored in both directions)
+        adjacencyStart = new int[numCities + 1];
+        for (int e = 0; e < count; e++) {
+            adjacencyStart[from[e] + 1]++;
+            adjacencyStart[to[e] + 1]++;
+        }
+        for (int c = 0; c < numCities; c++) {
+            adjacencyStart[c + 1] += adjacencyStart[c];
+        }
+        adjacencyCity = new int[2 * count];
+        adjacencyWeight = new int[2 * count];
+        int[] fill = Arrays.copyOf(adjacencyStart, numCities);
+        for (int e = 0; e < count; e++) {
+            adjacencyCity[fill[from[e]]] = to[e];
+            adjacencyWeight[fill[from[e]]++] = weight[e];
+            adjacencyCity[fill[to[e]]] = from[e];
+            adjacencyWeight[fill[to[e]]++] = weight[e];
+        }
+    }
+
+    /**
+     * Writes the distances of the rows first .. last - 1 (columns above the diagonal) to a buffer.
+     *
+     * @param first -> The first row
+     * @param last -> The row after the last one
+     * @param width -> The width of an element in bytes
+     * @param random -> The random generator of the block (UNIFORM)
+     * @param out -> The buffer receiving the elements, in row order
+     */
+    private void fillRows(int first, int last, int width, SplittableRandom random, ByteBuffer out) {
+        int[] row = new int[numCities];
+        long[] heap = family == Family.METRIC_CLOSURE ? new long[adjacencyCity.length + 1] : null;
+        for (int i = first; i < last; i++) {
+            switch (family) {
+                case UNIFORM:
+                    for (int j = i + 1; j < numCities; j++) {
+                        row[j] = 1 + random.nextInt(maxDistance);
+                    }
+                    break;
+                case METRIC_CLOSURE:
+                    shortestPaths(i, row, heap);
+                    break;
+                default:
+                    for (int j = i + 1; j < numCities; j++) {
+                        row[j] = Math.max(1, DistanceType.EUC_2D.distance(x[i], y[i], x[j], y[j]));
+                    }
+            }
+            for (int j = i + 1; j < numCities; j++) {
+                if (width == 1) {
+                    out.put((byte) row[j]);
+                } else if (width == 2) {
+                    out.putShort((short) row[j]);
+                } else {
+                    out.putInt(row[j]);
+                }
+            }
+        }
+        out.flip();
+    }
+
+    /**
+     * Dijkstra from a city over the sparse base graph, with a binary heap of (distance << 32 | city) entries.
+     *
+     * @param source -> The source city
+     * @param dist -> Receives the shortest distance to every city
+     * @param heap -> Scratch heap (one entry per directed edge, plus one)
+     */
+    private void shortestPaths(int source, int[] dist, long[] heap) {
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        dist[source] = 0;
+        int size = 0;
+        heap[size++] = source;
+        while (size > 0) {
+            long top = heap[0];
+            long last = heap[--size];
+            // Sift the last entry down from the root
+            int hole = 0;
+            while (true) {
+                int child = 2 * hole + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= last) {
+                    break;
+                }
+                heap[hole] = heap[child];
+                hole = child;
+            }
+            if (size > 0) {
+                heap[hole] = last;
+            }
+
+            int city = (int) top;
+            int d = (int) (top >>> 32);
+            if (d > dist[city]) {
+                continue; // Stale entry
+            }
+            for (int e = adjacencyStart[city]; e < adjacencyStart[city + 1]; e++) {
+                int other = adjacencyCity[e];
+                int candidate = d + adjacencyWeight[e];
+                if (candidate < dist[other]) {
+                    dist[other] = candidate;
+                    // Sift the new entry up
+                    long entry = (long) candidate << 32 | other;
+                    int slot = size++;
+                    while (slot > 0 && heap[(slot - 1) / 2] > entry) {
+                        heap[slot] = heap[(slot - 1) / 2];
+                        slot = (slot - 1) / 2;
+                    }
+                    heap[slot] = entry;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets an upper bound on the distances of the instance, used to pick the element width.
+     *
+     * @return : The largest distance the instance can have
+     */
+    private int maxPossibleDistance() {
+        switch (family) {
+            case UNIFORM:
+                return maxDistance;
+            case METRIC_CLOSURE:
+                return (int) Math.min(Integer.MAX_VALUE, (long) maxDistance * Math.max(1, numCities - 1));
+            default:
+                return Math.max(1, DistanceType.EUC_2D.distance(0, 0, range, range));
+        }
+    }
+
+    /**
+     * Gets the number of rows of a block, so a block holds about BLOCK_BYTES bytes.
+     *
+     * @param width -> The width of an element in bytes
+     * @return : The number of rows per block
+     */
+    private int rowsPerBlock(int width) {
+        return Math.max(1, BLOCK_BYTES / Math.max(1, numCities * width));
+    }
+
+    /**
+     * Splits one random generator per block from the seed, in block order, so the instance does not depend on the
+     * number of threads.
+     *
+     * @param numBlocks -> The number of blocks
+     * @return : The generator of every block
+     */
+    private SplittableRandom[] blockRandoms(int numBlocks) {
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[numBlocks];
+        for (int b = 0; b < numBlocks; b++) {
+            randoms[b] = root.split();
+        }
+        return randoms;
+    }
+
+    /**
+     * Gets the element index of the first edge of a row in the packed upper triangle.
+     *
+     * @param row -> The row (numCities for the end of the triangle)
+     * @return : The number of elements of the rows before it
+     */
+    private long elementIndex(int row) {
+        return (long) row * numCities - (long) row * (row + 1) / 2;
+    }
+
+    /**
+     * Draws a standard normal value (Box-Muller).
+     *
+     * @param random -> The random generator
+     * @return : The normal value
+     */
+    private static double gaussian(SplittableRandom random) {
+        double u = 1.0 - random.nextDouble(); // In (0, 1], so the logarithm is finite
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    /**
+     * Writes a whole buffer to a channel.
+     *
+     * @param channel -> The channel to write to
+     * @param buffer -> The buffer, ready to be read
+     * @throws IOException -> If the write fails
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Streams an instance to a binary graph file from the command line.
+     *
+     * @param args -> family (uniform, euclidean, clustered or metric), number of cities, seed, file, [threads]
+     */
+    public static void main(String[] args) {
+        if (args.length < 4) {
+            System.err.println("Usage: java Graphs.InstanceGenerator <uniform|euclidean|clustered|metric> <numCities> <seed> <file.bin> [threads]");
+            return;
+        }
+        Family family;
+        switch (args[0]) {
+            case "uniform":
+                family = Family.UNIFORM;
+                break;
+            case "euclidean":
+                family = Family.EUCLIDEAN;
+                break;
+            case "clustered":
+                family = Family.CLUSTERED;
+                break;
+            case "metric":
+                family = Family.METRIC_CLOSURE;
+                break;
+            default:
+                System.err.println("Unknown family: " + args[0]);
+                return;
+        }
+        try {
+            InstanceGenerator generator = new InstanceGenerator(family, Integer.parseInt(args[1]), Long.parseLong(args[2]));
+            if (args.length > 4) {
+                generator.setParallelism(Integer.parseInt(args[4]));
+            }
+            long startTime = System.currentTimeMillis();
+            if (generator.writeBinary(args[3])) {
+                System.out.println("Wrote " + args[3] + " in " + (System.currentTimeMillis() - startTime) + " ms");
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid number: " + e.getMessage());
+        }
+    }
+}
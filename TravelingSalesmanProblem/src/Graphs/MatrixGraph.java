@@ -0,0 +1,370 @@
+package Graphs;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The MatrixGraph class represents an undirected graph used for the Traveling Salesman Problem (TSP).
+ * The graph is represented by a distance matrix between cities, filled through addEdge.
+ * Since the graph is undirected, only the upper triangle of the matrix (without the diagonal) is stored,
+ * packed row by row in a single flat buffer. The width of the elements (1, 2 or 4 bytes) is the narrowest one
+ * that fits the largest distance, and it is widened automatically when a larger distance is added.
+ * The buffer can live on the heap or off-heap (direct ByteBuffer).
+ * When change tracking is on, addEdge also records every distance it changes, so an incremental solver can repair
+ * its tour around the changed edges instead of solving the whole graph again.
+ */
+public class MatrixGraph implements Graph {
+    private static final int MAX_BYTE = 0xFF; // Largest distance stored with 1 byte elements
+    private static final int MAX_SHORT = 0xFFFF; // Largest distance stored with 2 byte elements
+
+    private ByteBuffer distances; // The packed upper triangle of the distance matrix
+    private int width; // The width of an element in bytes (1, 2 or 4)
+    private final boolean offHeap; // True if the buffer is allocated outside of the Java heap
+    private final int numCities; // The number of cities in the graph
+    private final int[] rowOffset; // Element index of edge (i, j), for i < j, is rowOffset[i] + j
+    private boolean trackChanges; // True if addEdge records the changed edges
+    private List<EdgeChange> changes = new ArrayList<>(); // Edges changed since the last drain, in order
+
+    /**
+     * Constructor to initialize the graph with a specified number of cities.
+     *
+     * @param numCities -> The number of cities in the graph
+     */
+    public MatrixGraph(int numCities) {
+        this(numCities, 0, false);
+    }
+
+    /**
+     * Constructor to initialize the graph with a specified number of cities and a known largest distance.
+     *
+     * @param numCities -> The number of cities in the graph
+     * @param maxDistance -> The largest distance that will be added, used to pick the element width
+     * @param offHeap -> True to store the distances in a direct (off-heap) buffer
+     */
+    public MatrixGraph(int numCities, int maxDistance, boolean offHeap) {
+        this.numCities = numCities; // Set the number of cities
+        this.offHeap = offHeap;
+        this.width = widthFor(maxDistance);
+        this.distances = allocate(width); // Initially, all distances are 0
+        this.rowOffset = rowOffsets(numCities);
+    }
+
+    /**
+     * Constructor to wrap an existing buffer holding the packed upper triangle (for example a memory-mapped file).
+     * The buffer is used directly, without copying the distances. If the buffer is read-only, it is copied
+     * the first time an edge is added.
+     *
+     * @param numCities -> The number of cities in the graph
+     * @param width -> The width of an element in bytes (1, 2 or 4)
+     * @param distances -> The buffer holding the packed upper triangle, positioned at the first element
+     */
+    MatrixGraph(int numCities, int width, ByteBuffer distances) {
+        this.numCities = numCities;
+        this.offHeap = distances.isDirect();
+        this.width = width;
+        this.distances = distances.slice().order(distances.order());
+        this.rowOffset = rowOffsets(numCities);
+    }
+
+    /**
+     * Adds an edge between two cities with a specified distance.
+     * Since the graph is undirected, the distance is set in both directions.
+     *
+     * @param from -> The starting city
+     * @param to The -> destination city
+     * @param distance  -> The distance between the two cities
+     */
+    public void addEdge(int from, int to, int distance) {
+        if (from == to) {
+            return; // The diagonal is always 0 and is not stored
+        }
+        if (trackChanges) {
+            int previous = getDistance(from, to);
+            if (previous == distance) {
+                return; // Nothing changes
+            }
+            changes.add(new EdgeChange(Math.min(from, to), Math.max(from, to), previous, distance));
+        }
+        if (widthFor(distance) > width || distances.isReadOnly()) {
+            repack(Math.max(width, widthFor(distance))); // Re-pack with wider elements, or copy a read-only mapping
+        }
+        int index = index(from, to);
+        switch (width) {
+            case 1:
+                distances.put(index, (byte) distance);
+                break;
+            case 2:
+                distances.putShort(index << 1, (short) distance);
+                break;
+            default:
+                distances.putInt(index << 2, distance);
+        }
+    }
+
+    /**
+     * Gets the distance between two cities.
+     *
+     * @param from -> The starting city
+     * @param to -> The destination city
+     * @return The distance between the specified cities
+     */
+    @Override
+    public int getDistance(int from, int to) {
+        if (from == to) {
+            return 0;
+        }
+        int index = index(from, to);
+        switch (width) {
+            case 1:
+                return distances.get(index) & MAX_BYTE;
+            case 2:
+                return distances.getShort(index << 1) & MAX_SHORT;
+            default:
+                return distances.getInt(index << 2);
+        }
+    }
+
+    /**
+     * Copies all the distances from a city into an array (row scan).
+     * The part of the row above the diagonal is contiguous in the buffer, so this is much more cache friendly
+     * than calling getDistance for every city.
+     *
+     * @param from -> The city whose distances are copied
+     * @param row -> The array receiving the distances (at least numCities long)
+     */
+    @Override
+    public void getRow(int from, int[] row) {
+        // Column 'from' of the rows above: one element per row
+        for (int to = 0; to < from; to++) {
+            row[to] = getDistance(to, from);
+        }
+        row[from] = 0;
+        // Row 'from' itself: contiguous elements
+        int base = from + 1 < numCities ? index(from, from + 1) : 0;
+        for (int to = from + 1, index = base; to < numCities; to++, index++) {
+            switch (width) {
+                case 1:
+                    row[to] = distances.get(index) & MAX_BYTE;
+                    break;
+                case 2:
+                    row[to] = distances.getShort(index << 1) & MAX_SHORT;
+                    break;
+                default:
+                    row[to] = distances.getInt(index << 2);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of cities in the graph.
+     */
+    @Override
+    public int getNumCities() {
+        return numCities; // Return the total number of cities in the graph
+    }
+
+    /**
+     * Turns the recording of changed edges on or off. The changes recorded so far are discarded.
+     *
+     * @param trackChanges -> True to record every distance changed by addEdge
+     */
+    public void setTrackChanges(boolean trackChanges) {
+        this.trackChanges = trackChanges;
+        this.changes = new ArrayList<>();
+    }
+
+    /**
+     * Checks if addEdge records the changed edges.
+     *
+     * @return : True if the changes are tracked, False otherwise
+     */
+    public boolean isTrackingChanges() {
+        return trackChanges;
+    }
+
+    /**
+     * Gets the edges changed since the last call and starts a new record.
+     * An edge changed several times appears once per change, in order.
+     *
+     * @return : The changes, oldest first (empty if there are none or tracking is off)
+     */
+    public List<EdgeChange> drainChangedEdges() {
+        List<EdgeChange> drained = changes;
+        changes = new ArrayList<>();
+        return drained;
+    }
+
+    /**
+     * Gets the width of the stored elements.
+     *
+     * @return : The number of bytes used per distance (1, 2 or 4)
+     */
+    public int getElementWidth() {
+        return width;
+    }
+
+    /**
+     * Checks if the distances are stored outside of the Java heap.
+     *
+     * @return : True if the buffer is direct, False otherwise
+     */
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    /**
+     * Gets the number of bytes used by the packed upper triangle.
+     *
+     * @return : The size of the distance buffer in bytes
+     */
+    public long getSizeInBytes() {
+        return numEdges() * width;
+    }
+
+    /**
+     * Computes the position of an edge in the packed upper triangle.
+     *
+     * @param from -> One city of the edge
+     * @param to -> The other city of the edge (different from 'from')
+     * @return : The element index of the edge
+     */
+    private int index(int from, int to) {
+        return from < to ? rowOffset[from] + to : rowOffset[to] + from;
+    }
+
+    /**
+     * Computes the row offsets of the packed upper triangle.
+     *
+     * @param numCities -> The number of cities in the graph
+     * @return : The offsets, such that edge (i, j) with i < j is stored at element rowOffset[i] + j
+     */
+    private static int[] rowOffsets(int numCities) {
+        int[] offsets = new int[Math.max(numCities, 0)];
+        for (int i = 0; i < numCities; i++) {
+            offsets[i] = (int) ((long) i * numCities - (long) i * (i + 1) / 2 - i - 1);
+        }
+        return offsets;
+    }
+
+    /**
+     * Gets the number of edges stored in the packed upper triangle.
+     *
+     * @return : The number of elements
+     */
+    private long numEdges() {
+        return (long) numCities * (numCities - 1) / 2;
+    }
+
+    /**
+     * Allocates an empty buffer for the packed upper triangle.
+     *
+     * @param elementWidth -> The width of an element in bytes
+     * @return : The allocated buffer
+     */
+    private ByteBuffer allocate(int elementWidth) {
+        long bytes = numEdges() * elementWidth;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Graph with " + numCities + " cities does not fit in a single buffer");
+        }
+        ByteBuffer buffer = offHeap ? ByteBuffer.allocateDirect((int) bytes) : ByteBuffer.allocate((int) bytes);
+        return buffer.order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Re-packs the distances into a new writable buffer, with elements at least as wide as the current ones.
+     *
+     * @param newWidth -> The new width of an element in bytes
+     */
+    private void repack(int newWidth) {
+        ByteBuffer packed = allocate(newWidth);
+        int edges = (int) numEdges();
+        for (int index = 0; index < edges; index++) {
+            int distance;
+            switch (width) {
+                case 1:
+                    distance = distances.get(index) & MAX_BYTE;
+                    break;
+                case 2:
+                    distance = distances.getShort(index << 1) & MAX_SHORT;
+                    break;
+                default:
+                    distance = distances.getInt(index << 2);
+            }
+            switch (newWidth) {
+                case 1:
+                    packed.put(index, (byte) distance);
+                    break;
+                case 2:
+                    packed.putShort(index << 1, (short) distance);
+                    break;
+                default:
+                    packed.putInt(index << 2, distance);
+            }
+        }
+        distances = packed;
+        width = newWidth;
+    }
+
+    /**
+     * Gets the narrowest element width that can store a distance.
+     *
+     * @param distance -> The distance
+     * @return : The width in bytes (1, 2 or 4)
+     */
+    static int widthFor(int distance) {
+        if (distance >= 0 && distance <= MAX_BYTE) {
+            return 1;
+        }
+        if (distance >= 0 && distance <= MAX_SHORT) {
+            return 2;
+        }
+        return 4;
+    }
+
+    /**
+     * A distance changed by addEdge.
+     */
+    public static final class EdgeChange {
+        private final int from; // The smaller city of the edge
+        private final int to; // The larger city of the edge
+        private final int previousDistance; // The distance before the change
+        private final int distance; // The distance after the change
+
+        private EdgeChange(int from, int to, int previousDistance, int distance) {
+            this.from = from;
+            this.to = to;
+            this.previousDistance = previousDistance;
+            this.distance = distance;
+        }
+
+        /**
+         * @return : The smaller city of the edge
+         */
+        public int getFrom() {
+            return from;
+        }
+
+        /**
+         * @return : The larger city of the edge
+         */
+        public int getTo() {
+            return to;
+        }
+
+        /**
+         * @return : The distance before the change
+         */
+        public int getPreviousDistance() {
+            return previousDistance;
+        }
+
+        /**
+         * @return : The distance after the change
+         */
+        public int getDistance() {
+            return distance;
+        }
+    }
+}
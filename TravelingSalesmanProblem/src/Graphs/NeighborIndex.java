@@ -0,0 +1,407 @@
+package Graphs;
+
+import java.util.stream.IntStream;
+
+/**
+ * The NeighborIndex class is a candidate-neighbour index: for every city, its k nearest cities, nearest first.
+ * The neighbours are stored in a single primitive array, the neighbours of city c being at positions c*k .. c*k+k-1.
+ * The index is built once per graph, in parallel: with a k-d tree for planar coordinate graphs, and with a partial
+ * selection over every row of the distance matrix for the other graphs. Solvers can then expand the children of a
+ * node in nearest-first order, and heuristics can restrict their moves to the candidates, in O(k) instead of O(n).
+ * Missing edges (distance 0) are never selected ahead of an existing edge: they only fill the last slots of a city
+ * that has fewer than k edges, so the users of the index must still skip the candidates at distance 0.
+ */
+public class NeighborIndex {
+    private final int numCities; // The number of cities in the graph
+    private final int k; // The number of neighbours per city
+    private final int[] neighbors; // The neighbours of every city, nearest first
+
+    /**
+     * Constructor for NeighborIndex.
+     *
+     * @param numCities -> The number of cities in the graph
+     * @param k -> The number of neighbours per city
+     * @param neighbors -> The neighbours of every city, nearest first
+     */
+    private NeighborIndex(int numCities, int k, int[] neighbors) {
+        this.numCities = numCities;
+        this.k = k;
+        this.neighbors = neighbors;
+    }
+
+    /**
+     * Builds the index of the k nearest neighbours of every city of a graph.
+     *
+     * @param graph -> The graph
+     * @param k -> The number of neighbours per city (limited to numCities - 1)
+     * @return : The neighbour index, or null if the graph is null
+     */
+    public static NeighborIndex build(Graph graph, int k) {
+        if (graph == null) {
+            System.err.println("Graph cannot be null");
+            return null;
+        }
+        int n = graph.getNumCities();
+        int size = Math.max(0, Math.min(k, n - 1));
+        int[] neighbors = new int[n * size];
+
+        if (size > 0) {
+            if (graph instanceof CoordinateGraph && ((CoordinateGraph) graph).getDistanceType() != DistanceType.GEO) {
+                buildWithKdTree((CoordinateGraph) graph, size, neighbors);
+            } else {
+                buildWithSelection(graph, size, neighbors);
+            }
+        }
+        return new NeighborIndex(n, size, neighbors);
+    }
+
+    /**
+     * Gets the number of neighbours per city.
+     *
+     * @return : The number of neighbours per city
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Gets the number of cities of the indexed graph.
+     *
+     * @return : The number of cities
+     */
+    public int getNumCities() {
+        return numCities;
+    }
+
+    /**
+     * Gets a neighbour of a city.
+     *
+     * @param city -> The city
+     * @param rank -> The rank of the neighbour (0 is the nearest)
+     * @return : The neighbour of the specified rank
+     */
+    public int getNeighbor(int city, int rank) {
+        return neighbors[city * k + rank];
+    }
+
+    /**
+     * Gets the raw neighbour array: the neighbours of city c are at positions c*k .. c*k+k-1, nearest first.
+     * The array is shared and must not be modified.
+     *
+     * @return : The neighbour array
+     */
+    public int[] getNeighbors() {
+        return neighbors;
+    }
+
+    /**
+     * Builds the index by selecting the k smallest distances of every row, in parallel over the rows.
+     *
+     * @param graph -> The graph
+     * @param k -> The number of neighbours per city
+     * @param neighbors -> The array receiving the neighbours
+     */
+    private static void buildWithSelection(Graph graph, int k, int[] neighbors) {
+        int n = graph.getNumCities();
+        ThreadLocal<int[]> rows = ThreadLocal.withInitial(() -> new int[n]);
+        ThreadLocal<double[]> keys = ThreadLocal.withInitial(() -> new double[k]);
+
+        IntStream.range(0, n).parallel().forEach(city -> selectRow(graph, k, neighbors, city, rows.get(), keys.get()));
+    }
+
+    /**
+     * Recomputes the neighbours of a city after some of its distances changed (for example through
+     * MatrixGraph.addEdge). Only the distances of the city's own row are read, in O(n log k).
+     * An edge (a, b) appears in the rows of a and b only, so updating both endpoints keeps the index exact.
+     *
+     * @param graph -> The graph the index was built for
+     * @param city -> The city whose neighbours are recomputed
+     */
+    public void update(Graph graph, int city) {
+        if (k == 0) {
+            return;
+        }
+        selectRow(graph, k, neighbors, city, new int[numCities], new double[k]);
+    }
+
+    /**
+     * Selects the k smallest distances of one row, nearest first. Missing edges rank after every existing edge.
+     *
+     * @param graph -> The graph
+     * @param k -> The number of neighbours per city
+     * @param neighbors -> The array receiving the neighbours
+     * @param city -> The city whose row is scanned
+     * @param row -> Scratch array for the row (at least numCities long)
+     * @param heapKeys -> Scratch array for the heap keys (at least k long)
+     */
+    private static void selectRow(Graph graph, int k, int[] neighbors, int city, int[] row, double[] heapKeys) {
+        int n = graph.getNumCities();
+        graph.getRow(city, row);
+
+        // Max-heap of the k nearest cities seen so far, stored in the city's slice of the result
+        int base = city * k;
+        int size = 0;
+        for (int other = 0; other < n; other++) {
+            if (other == city) {
+                continue;
+            }
+            double key = row[other] > 0 ? row[other] : Double.POSITIVE_INFINITY; // Distance 0: no edge
+            size = offer(heapKeys, neighbors, base, size, k, key, other);
+        }
+        sortHeap(heapKeys, neighbors, base, size);
+    }
+
+    /**
+     * Builds the index with a k-d tree over the coordinates, querying every city in parallel.
+     *
+     * @param graph -> The coordinate graph
+     * @param k -> The number of neighbours per city
+     * @param neighbors -> The array receiving the neighbours
+     */
+    private static void buildWithKdTree(CoordinateGraph graph, int k, int[] neighbors) {
+        int n = graph.getNumCities();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = graph.getX(i);
+            y[i] = graph.getY(i);
+        }
+
+        KdTree tree = new KdTree(x, y);
+        ThreadLocal<double[]> keys = ThreadLocal.withInitial(() -> new double[k]);
+        IntStream.range(0, n).parallel().forEach(city -> {
+            double[] heapKeys = keys.get();
+            int size = tree.nearest(city, k, heapKeys, neighbors, city * k);
+            sortHeap(heapKeys, neighbors, city * k, size);
+        });
+    }
+
+    /**
+     * Offers a candidate to a bounded max-heap of (key, city) pairs.
+     *
+     * @param keys -> The keys of the heap
+     * @param cities -> The array holding the cities of the heap, starting at base
+     * @param base -> The position of the heap in the cities array
+     * @param size -> The current size of the heap
+     * @param capacity -> The maximum size of the heap
+     * @param key -> The key of the candidate
+     * @param city -> The candidate city
+     * @return : The new size of the heap
+     */
+    static int offer(double[] keys, int[] cities, int base, int size, int capacity, double key, int city) {
+        if (size < capacity) {
+            // Sift up
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] >= key) {
+                    break;
+                }
+                keys[i] = keys[parent];
+                cities[base + i] = cities[base + parent];
+                i = parent;
+            }
+            keys[i] = key;
+            cities[base + i] = city;
+        } else if (key < keys[0]) {
+            siftDown(keys, cities, base, size, key, city); // Replace the farthest candidate
+        }
+        return size;
+    }
+
+    /**
+     * Sorts a max-heap in place into ascending order (heap sort).
+     *
+     * @param keys -> The keys of the heap
+     * @param cities -> The array holding the cities of the heap, starting at base
+     * @param base -> The position of the heap in the cities array
+     * @param size -> The size of the heap
+     */
+    static void sortHeap(double[] keys, int[] cities, int base, int size) {
+        for (int end = size - 1; end > 0; end--) {
+            double topKey = keys[0];
+            int topCity = cities[base];
+            siftDown(keys, cities, base, end, keys[end], cities[base + end]);
+            keys[end] = topKey;
+            cities[base + end] = topCity;
+        }
+    }
+
+    /**
+     * Places a (key, city) pair at the root of a max-heap and sifts it down.
+     *
+     * @param keys -> The keys of the heap
+     * @param cities -> The array holding the cities of the heap, starting at base
+     * @param base -> The position of the heap in the cities array
+     * @param size -> The size of the heap
+     * @param key -> The key to place
+     * @param city -> The city to place
+     */
+    private static void siftDown(double[] keys, int[] cities, int base, int size, double key, int city) {
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && keys[child + 1] > keys[child]) {
+                child++;
+            }
+            if (key >= keys[child]) {
+                break;
+            }
+            keys[i] = keys[child];
+            cities[base + i] = cities[base + child];
+            i = child;
+        }
+        keys[i] = key;
+        cities[base + i] = city;
+    }
+
+    /**
+     * Static 2-d tree over the cities, stored implicitly in a permutation of the city indices:
+     * the median of every range is the node, the left and right halves are its subtrees.
+     */
+    private static final class KdTree {
+        private final double[] x; // The x coordinate of every city
+        private final double[] y; // The y coordinate of every city
+        private final int[] order; // The cities, permuted into tree order
+
+        /**
+         * Constructor for KdTree.
+         *
+         * @param x -> The x coordinate of every city
+         * @param y -> The y coordinate of every city
+         */
+        private KdTree(double[] x, double[] y) {
+            this.x = x;
+            this.y = y;
+            this.order = new int[x.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            build(0, order.length, 0);
+        }
+
+        /**
+         * Arranges a range of cities into a subtree.
+         *
+         * @param lo -> The first position of the range
+         * @param hi -> The position after the last one of the range
+         * @param depth -> The depth of the subtree (even: split on x, odd: split on y)
+         */
+        private void build(int lo, int hi, int depth) {
+            while (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                select(lo, hi - 1, mid, depth & 1);
+                build(lo, mid, depth + 1);
+                lo = mid + 1; // Continue with the right subtree without recursion
+                depth++;
+            }
+        }
+
+        /**
+         * Quickselect: moves the city of the given rank (by one coordinate) to position 'rank' of a range.
+         *
+         * @param lo -> The first position of the range
+         * @param hi -> The last position of the range
+         * @param rank -> The position to fill
+         * @param axis -> 0 to compare x, 1 to compare y
+         */
+        private void select(int lo, int hi, int rank, int axis) {
+            while (lo < hi) {
+                double pivot = coordinate(order[(lo + hi) >>> 1], axis);
+                int i = lo;
+                int j = hi;
+                while (i <= j) {
+                    while (coordinate(order[i], axis) < pivot) {
+                        i++;
+                    }
+                    while (coordinate(order[j], axis) > pivot) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        int t = order[i];
+                        order[i] = order[j];
+                        order[j] = t;
+                        i++;
+                        j--;
+                    }
+                }
+                if (rank <= j) {
+                    hi = j;
+                } else if (rank >= i) {
+                    lo = i;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Finds the k nearest cities of a city.
+         *
+         * @param city -> The query city (excluded from the result)
+         * @param k -> The number of neighbours
+         * @param keys -> Scratch keys of the result heap (squared distances)
+         * @param result -> The array receiving the result heap, starting at base
+         * @param base -> The position of the result heap
+         * @return : The number of neighbours found
+         */
+        private int nearest(int city, int k, double[] keys, int[] result, int base) {
+            return search(0, order.length, 0, city, k, keys, result, base, 0);
+        }
+
+        /**
+         * Recursive k nearest neighbours search in a subtree.
+         *
+         * @param lo -> The first position of the subtree
+         * @param hi -> The position after the last one of the subtree
+         * @param depth -> The depth of the subtree
+         * @param city -> The query city
+         * @param k -> The number of neighbours
+         * @param keys -> Scratch keys of the result heap
+         * @param result -> The array receiving the result heap, starting at base
+         * @param base -> The position of the result heap
+         * @param size -> The current size of the result heap
+         * @return : The new size of the result heap
+         */
+        private int search(int lo, int hi, int depth, int city, int k, double[] keys, int[] result, int base, int size) {
+            if (lo >= hi) {
+                return size;
+            }
+            int mid = (lo + hi) >>> 1;
+            int node = order[mid];
+            if (node != city) {
+                double dx = x[node] - x[city];
+                double dy = y[node] - y[city];
+                size = offer(keys, result, base, size, k, dx * dx + dy * dy, node);
+            }
+
+            int axis = depth & 1;
+            double diff = coordinate(city, axis) - coordinate(node, axis);
+            // Search the half containing the query first, then the other half only if it can hold a closer city
+            if (diff < 0) {
+                size = search(lo, mid, depth + 1, city, k, keys, result, base, size);
+                if (size < k || diff * diff < keys[0]) {
+                    size = search(mid + 1, hi, depth + 1, city, k, keys, result, base, size);
+                }
+            } else {
+                size = search(mid + 1, hi, depth + 1, city, k, keys, result, base, size);
+                if (size < k || diff * diff < keys[0]) {
+                    size = search(lo, mid, depth + 1, city, k, keys, result, base, size);
+                }
+            }
+            return size;
+        }
+
+        /**
+         * Gets one coordinate of a city.
+         *
+         * @param city -> The city
+         * @param axis -> 0 for x, 1 for y
+         * @return : The coordinate
+         */
+        private double coordinate(int city, int axis) {
+            return axis == 0 ? x[city] : y[city];
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package TSPAlgorithms;
+
+import Graphs.Graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The ArrayTour class is the tour representation used by the local search heuristics.
+ * The cities are kept in an array in tour order, together with the position of every city, so the successor and
+ * predecessor of a city are found in O(1). A 2-opt move reverses the shorter of the two paths it separates,
+ * which gives the same cycle (possibly in the opposite direction) at half the worst-case cost.
+ */
+final class ArrayTour {
+    private final int[] tour; // The cities in tour order
+    private final int[] pos; // The position of every city in the tour array
+    private final int n; // The number of cities
+
+    /**
+     * Constructor for ArrayTour.
+     *
+     * @param order -> The cities in tour order (each city exactly once)
+     */
+    ArrayTour(int[] order) {
+        this.n = order.length;
+        this.tour = order.clone();
+        this.pos = new int[n];
+        for (int i = 0; i < n; i++) {
+            pos[tour[i]] = i;
+        }
+    }
+
+    /**
+     * Gets the number of cities of the tour.
+     *
+     * @return : The number of cities
+     */
+    int size() {
+        return n;
+    }
+
+    /**
+     * Gets the city following a city in the tour.
+     *
+     * @param city -> The city
+     * @return : The successor of the city
+     */
+    int next(int city) {
+        int p = pos[city] + 1;
+        return tour[p == n ? 0 : p];
+    }
+
+    /**
+     * Gets the city preceding a city in the tour.
+     *
+     * @param city -> The city
+     * @return : The predecessor of the city
+     */
+    int prev(int city) {
+        int p = pos[city] - 1;
+        return tour[p < 0 ? n - 1 : p];
+    }
+
+    /**
+     * Gets the city at a position of the tour array.
+     *
+     * @param index -> The position
+     * @return : The city at that position
+     */
+    int cityAt(int index) {
+        return tour[index];
+    }
+
+    /**
+     * Gets the position of a city in the tour array.
+     *
+     * @param city -> The city
+     * @return : The position of the city
+     */
+    int positionOf(int city) {
+        return pos[city];
+    }
+
+    /**
+     * Checks if city b lies on the path from a to c, following the tour direction.
+     *
+     * @param a -> The first city of the path
+     * @param b -> The city to check
+     * @param c -> The last city of the path
+     * @return : True if b is on the path a..c, False otherwise
+     */
+    boolean between(int a, int b, int c) {
+        int pa = pos[a];
+        int pb = pos[b];
+        int pc = pos[c];
+        if (pa <= pc) {
+            return pa <= pb && pb <= pc;
+        }
+        return pb >= pa || pb <= pc;
+    }
+
+    /**
+     * Applies a 2-opt move: removes the edges (a, b) and (c, d) and adds the edges (a, c) and (b, d).
+     * The edges must be given in a common direction of the tour: either b = next(a) and d = next(c),
+     * or b = prev(a) and d = prev(c).
+     *
+     * @param a -> The first city of the first removed edge
+     * @param b -> The second city of the first removed edge
+     * @param c -> The first city of the second removed edge
+     * @param d -> The second city of the second removed edge
+     */
+    void move2opt(int a, int b, int c, int d) {
+        if (next(a) != b) {
+            // The edges are given against the array direction: swap the roles so that b = next(a) and d = next(c)
+            int t = a;
+            a = b;
+            b = t;
+            t = c;
+            c = d;
+            d = t;
+        }
+        reverse(b, c);
+    }
+
+    /**
+     * Reverses the path from city 'from' to city 'to' (following the tour direction).
+     * If the path is longer than half the tour, the complementary path is reversed instead, which gives the same cycle.
+     *
+     * @param from -> The first city of the path
+     * @param to -> The last city of the path
+     */
+    void reverse(int from, int to) {
+        int i = pos[from];
+        int j = pos[to];
+        int length = j - i;
+        if (length < 0) {
+            length += n;
+        }
+        length++; // Number of cities of the path
+
+        if (2 * length > n) {
+            // Reverse the complementary path next(to)..prev(from) instead
+            int t = i;
+            i = j + 1 == n ? 0 : j + 1;
+            j = t == 0 ? n - 1 : t - 1;
+            length = n - length;
+        }
+
+        for (int swaps = length / 2; swaps > 0; swaps--) {
+            int ci = tour[i];
+            int cj = tour[j];
+            tour[i] = cj;
+            pos[cj] = i;
+            tour[j] = ci;
+            pos[ci] = j;
+            i = i + 1 == n ? 0 : i + 1;
+            j = j == 0 ? n - 1 : j - 1;
+        }
+    }
+
+    /**
+     * Swaps two adjacent segments of the tour array: the cities at positions i+1..j and j+1..k trade places.
+     * This is a double-bridge move (a 4-opt move that 2-opt and 3-opt moves cannot undo), done in O(k - i).
+     *
+     * @param i -> The position before the first segment
+     * @param j -> The last position of the first segment
+     * @param k -> The last position of the second segment
+     */
+    void swapAdjacentSegments(int i, int j, int k) {
+        int[] first = Arrays.copyOfRange(tour, i + 1, j + 1);
+        int lengthSecond = k - j;
+        System.arraycopy(tour, j + 1, tour, i + 1, lengthSecond);
+        System.arraycopy(first, 0, tour, i + 1 + lengthSecond, first.length);
+        for (int p = i + 1; p <= k; p++) {
+            pos[tour[p]] = p;
+        }
+    }
+
+    /**
+     * Calculates the total cost of the tour, including the return to the first city.
+     * A missing edge counts as TSPLocalSearch.MISSING_EDGE, so a tour using one never looks shorter than a real tour.
+     *
+     * @param graph -> The graph representing the cities and distances
+     * @return : The cost of the tour
+     */
+    long cost(Graph graph) {
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            total += TSPLocalSearch.edgeCost(graph, tour[i], tour[i + 1 == n ? 0 : i + 1]);
+        }
+        return total;
+    }
+
+    /**
+     * Copies the cities in tour order into an array.
+     *
+     * @return : The cities in tour order
+     */
+    int[] toArray() {
+        return tour.clone();
+    }
+
+    /**
+     * Builds the closed path of the tour, starting and ending at a given city, in the tour direction.
+     *
+     * @param start -> The city the path starts and ends at
+     * @return : The list of cities of the closed path
+     */
+    List<Integer> toPath(int start) {
+        List<Integer> path = new ArrayList<>(n + 1);
+        int p = pos[start];
+        for (int k = 0; k < n; k++) {
+            path.add(tour[p]);
+            p = p + 1 == n ? 0 : p + 1;
+        }
+        path.add(start); // Add the start city to the end to complete the cycle
+        return path;
+    }
+}
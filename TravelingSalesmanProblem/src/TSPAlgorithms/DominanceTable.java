@@ -0,0 +1,136 @@
+package TSPAlgorithms;
+
+import java.util.Arrays;
+
+/**
+ * The DominanceTable class is the closed set of the best-first searches.
+ * Two partial paths with the same set of visited cities and the same last city have exactly the same completions,
+ * so only the one with the smallest g-cost needs to be expanded. The table keeps, for every (visited mask, last city)
+ * state, the cheapest g-cost seen so far, in a growing open-addressing table of primitive arrays.
+ */
+final class DominanceTable {
+    private static final int NO_CITY = -1; // Marker for a free slot
+    private static final int MAX_LOAD_PERCENT = 50; // The table grows above this load factor
+
+    private long[] masks; // Visited bitmask of every state
+    private int[] cities; // Last city of every state
+    private int[] costs; // Cheapest g-cost of every state
+    private int size; // Number of states in the table
+
+    /**
+     * Constructor for DominanceTable.
+     *
+     * @param initialCapacity -> The expected number of states
+     */
+    DominanceTable(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(16, initialCapacity * 2 - 1)) << 1; // Round up to a power of two
+        allocate(capacity);
+    }
+
+    /**
+     * Records a path reaching a state, if it is cheaper than every path seen before for the same state.
+     *
+     * @param visited -> The bitmask of the visited cities
+     * @param city -> The last city of the path
+     * @param gCost -> The actual cost of the path
+     * @return : True if the path is the cheapest so far (and should be explored), False if it is dominated or a duplicate
+     */
+    boolean offer(long visited, int city, int gCost) {
+        int slot = find(visited, city);
+        if (cities[slot] != NO_CITY) {
+            if (costs[slot] <= gCost) {
+                return false; // Dominated by (or equal to) a path already seen
+            }
+            costs[slot] = gCost;
+            return true;
+        }
+
+        masks[slot] = visited;
+        cities[slot] = city;
+        costs[slot] = gCost;
+        if (++size * 100 > masks.length * MAX_LOAD_PERCENT) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a path was superseded by a cheaper path to the same state after it was queued.
+     *
+     * @param visited -> The bitmask of the visited cities
+     * @param city -> The last city of the path
+     * @param gCost -> The actual cost of the path
+     * @return : True if a cheaper path to the same state is known, False otherwise
+     */
+    boolean isDominated(long visited, int city, int gCost) {
+        int slot = find(visited, city);
+        return cities[slot] != NO_CITY && costs[slot] < gCost;
+    }
+
+    /**
+     * Gets the number of states in the table.
+     *
+     * @return : The number of states
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Finds the slot of a state, or the free slot where it would be inserted (linear probing).
+     *
+     * @param visited -> The bitmask of the visited cities
+     * @param city -> The last city
+     * @return : The slot index
+     */
+    private int find(long visited, int city) {
+        int mask = masks.length - 1;
+        int slot = hash(visited, city) & mask;
+        while (cities[slot] != NO_CITY && (masks[slot] != visited || cities[slot] != city)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the capacity of the table and re-inserts every state.
+     */
+    private void grow() {
+        long[] oldMasks = masks;
+        int[] oldCities = cities;
+        int[] oldCosts = costs;
+        allocate(oldMasks.length * 2);
+        for (int i = 0; i < oldMasks.length; i++) {
+            if (oldCities[i] != NO_CITY) {
+                int slot = find(oldMasks[i], oldCities[i]);
+                masks[slot] = oldMasks[i];
+                cities[slot] = oldCities[i];
+                costs[slot] = oldCosts[i];
+            }
+        }
+    }
+
+    /**
+     * Allocates empty arrays of the specified capacity.
+     *
+     * @param capacity -> The number of slots (a power of two)
+     */
+    private void allocate(int capacity) {
+        masks = new long[capacity];
+        cities = new int[capacity];
+        costs = new int[capacity];
+        Arrays.fill(cities, NO_CITY);
+    }
+
+    /**
+     * Mixes a state into a table hash.
+     *
+     * @param visited -> The bitmask of the visited cities
+     * @param city -> The last city
+     * @return : The hash of the state
+     */
+    private static int hash(long visited, int city) {
+        long h = (visited ^ ((long) city << 58) ^ city) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 29));
+    }
+}
@@ -0,0 +1,299 @@
+package TSPAlgorithms;
+
+import Graphs.Graph;
+
+/**
+ * The HeldKarpBound class computes the Held-Karp lower bound on the cost of completing a partial tour: from the
+ * current city, through every unvisited city, back to the start city. Such a completion is a spanning tree of those
+ * cities in which the current and start cities have degree 1 and the others degree 2 (a Hamiltonian path), so the
+ * cheapest spanning tree is a lower bound. Node penalties pi are added to the edge costs (d(i, j) + pi(i) + pi(j))
+ * and optimized by subgradient steps, pushing the tree towards the target degrees: every tree gives the Lagrangian
+ * bound tree cost - sum(pi(i) * target(i)), which is much tighter than a plain MST. At the root (current city = start
+ * city), the bound is the classic 1-tree: an MST of the unvisited cities plus the two cheapest edges of the start.
+ * The trees are computed with an O(k^2) array Prim, and all the work arrays are allocated once, so a bound costs no
+ * allocation. The final penalties of a node are kept per depth and are the starting penalties of its children,
+ * so a child only needs a few subgradient steps. The subgradient stops as soon as the bound reaches the cutoff
+ * given by the caller (the node is pruned anyway). Distances of 0 between different cities are missing edges.
+ * The class is not thread-safe: every search (or worker thread) should use its own instance.
+ */
+public class HeldKarpBound {
+    public static final int INFEASIBLE = Integer.MAX_VALUE / 2; // Bound of a partial tour that cannot be completed
+    private static final int ROOT_ITERATIONS = 60; // Subgradient steps without warm start
+    private static final int WARM_ITERATIONS = 12; // Subgradient steps from the penalties of the parent
+    private static final long MISSING = Long.MAX_VALUE / 4; // Cost of a missing edge
+
+    private final int n; // Number of cities
+    private final int[] dist; // Distance matrix (n * n), 0 for a missing edge
+    private final int[][] penalties; // Final penalties of the last node bounded at every depth, by city
+    private final int[] nodes; // Scratch: cities of the tree
+    private final int[] target; // Scratch: target degree of every tree node
+    private final int[] pi; // Scratch: current penalty of every tree node
+    private final int[] degree; // Scratch: degree of every tree node in the current tree
+    private final long[] key; // Scratch: cheapest connection of every node to the growing tree (Prim)
+    private final int[] parent; // Scratch: tree node of that cheapest connection (Prim)
+    private final boolean[] inTree; // Scratch: nodes already added to the tree (Prim)
+    private long evaluations; // Number of bounds computed
+    private long iterations; // Number of subgradient steps
+
+    /**
+     * Constructor for HeldKarpBound.
+     *
+     * @param graph -> The graph representing the cities and distances (at most MSTCache.MAX_CITIES cities)
+     */
+    public HeldKarpBound(Graph graph) {
+        if (graph == null || graph.getNumCities() > MSTCache.MAX_CITIES) {
+            throw new IllegalArgumentException("The Held-Karp bound needs a graph of at most " + MSTCache.MAX_CITIES + " cities");
+        }
+        this.n = graph.getNumCities();
+        this.dist = new int[n * n];
+        int[] row = new int[n];
+        for (int i = 0; i < n; i++) {
+            graph.getRow(i, row);
+            System.arraycopy(row, 0, dist, i * n, n);
+        }
+        this.penalties = new int[n + 1][n];
+        this.nodes = new int[n];
+        this.target = new int[n];
+        this.pi = new int[n];
+        this.degree = new int[n];
+        this.key = new long[n];
+        this.parent = new int[n];
+        this.inTree = new boolean[n];
+    }
+
+    /**
+     * Computes a lower bound on the cost of completing a partial tour.
+     *
+     * @param current -> The last city of the partial tour
+     * @param start -> The start city the tour returns to
+     * @param visited -> The bitmask of the visited cities (including current and start)
+     * @param depth -> The number of visited cities; the penalties of depth - 1 are the warm start
+     * @param cutoff -> The bound at which the node is pruned (INFEASIBLE or more if none): the subgradient stops there
+     * @return : The lower bound, or INFEASIBLE if the missing edges make the completion impossible
+     */
+    public int lowerBound(int current, int start, long visited, int depth, int cutoff) {
+        evaluations++;
+        long all = n == 64 ? -1L : (1L << n) - 1;
+        long unvisited = all & ~visited;
+        if (unvisited == 0) {
+            int back = dist[current * n + start];
+            return back > 0 || current == start ? back : INFEASIBLE;
+        }
+
+        // Tree nodes: the unvisited cities, then the current city and the start city (once if they are the same)
+        boolean oneTree = current == start;
+        int k = 0;
+        for (long rest = unvisited; rest != 0; rest &= rest - 1) {
+            nodes[k] = Long.numberOfTrailingZeros(rest);
+            target[k++] = 2;
+        }
+        int unvisitedCount = k;
+        nodes[k] = current;
+        target[k++] = oneTree ? 2 : 1;
+        if (!oneTree) {
+            nodes[k] = start;
+            target[k++] = 1;
+        }
+        if (oneTree && unvisitedCount == 1) {
+            int d = dist[start * n + nodes[0]];
+            return d > 0 ? 2 * d : INFEASIBLE; // Out and back
+        }
+
+        int slot = Math.min(depth, n);
+        int[] warm = penalties[Math.max(slot - 1, 0)];
+        int[] result = penalties[slot];
+        for (int i = 0; i < k; i++) {
+            pi[i] = warm[nodes[i]];
+        }
+
+        int maxIterations = slot <= 1 ? ROOT_ITERATIONS : WARM_ITERATIONS;
+        long best = Long.MIN_VALUE;
+        double lambda = 2.0; // Step scale, halved when the bound stops improving
+        int sinceImprovement = 0;
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            iterations++;
+            long treeCost = oneTree ? oneTree(k, unvisitedCount) : pathTree(k);
+            if (treeCost >= MISSING) {
+                return INFEASIBLE; // The cities cannot be connected
+            }
+            long bound = treeCost;
+            long norm = 0;
+            for (int i = 0; i < k; i++) {
+                bound -= (long) pi[i] * target[i];
+                int g = degree[i] - target[i];
+                norm += (long) g * g;
+            }
+            if (bound > best) {
+                best = bound;
+                sinceImprovement = 0;
+                for (int i = 0; i < k; i++) {
+                    result[nodes[i]] = pi[i];
+                }
+            } else if (++sinceImprovement >= 3) {
+                lambda /= 2;
+                sinceImprovement = 0;
+            }
+            if (best >= cutoff || norm == 0) {
+                break; // Pruned anyway, or the tree is a tour completion: the bound is exact for these penalties
+            }
+
+            // Subgradient step towards a target a little above the bound (or the cutoff)
+            long goal = cutoff >= INFEASIBLE ? bound + Math.max(1, Math.abs(bound) / 20) : cutoff;
+            int step = (int) Math.max(1, lambda * (goal - bound) / norm);
+            for (int i = 0; i < k; i++) {
+                pi[i] += step * (degree[i] - target[i]);
+            }
+        }
+        return (int) Math.max(0, Math.min(best, INFEASIBLE));
+    }
+
+    /**
+     * Computes the cheapest spanning tree of the tree nodes with penalized costs, without the direct edge between
+     * the current and start cities (a completion through unvisited cities never uses it).
+     *
+     * @param k -> The number of tree nodes (the last two are the current and start cities)
+     * @return : The penalized cost of the tree, or MISSING if the nodes cannot be connected; degree is filled
+     */
+    private long pathTree(int k) {
+        int currentIndex = k - 2;
+        int startIndex = k - 1;
+        for (int i = 0; i < k; i++) {
+            key[i] = MISSING;
+            inTree[i] = false;
+            degree[i] = 0;
+        }
+        key[0] = 0;
+        parent[0] = -1;
+        long total = 0;
+        for (int added = 0; added < k; added++) {
+            int u = -1;
+            for (int i = 0; i < k; i++) {
+                if (!inTree[i] && (u == -1 || key[i] < key[u])) {
+                    u = i;
+                }
+            }
+            if (key[u] >= MISSING) {
+                return MISSING;
+            }
+            inTree[u] = true;
+            total += key[u];
+            if (parent[u] >= 0) {
+                degree[u]++;
+                degree[parent[u]]++;
+            }
+            int row = nodes[u] * n;
+            for (int v = 0; v < k; v++) {
+                if (inTree[v] || (u == currentIndex && v == startIndex) || (u == startIndex && v == currentIndex)) {
+                    continue;
+                }
+                int d = dist[row + nodes[v]];
+                if (d <= 0) {
+                    continue; // Missing edge
+                }
+                long w = (long) d + pi[u] + pi[v];
+                if (w < key[v]) {
+                    key[v] = w;
+                    parent[v] = u;
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Computes the penalized 1-tree of the tree nodes: the cheapest spanning tree of the unvisited cities plus
+     * the two cheapest edges of the start city.
+     *
+     * @param k -> The number of tree nodes (the last one is the start city)
+     * @param unvisitedCount -> The number of unvisited cities (the first tree nodes)
+     * @return : The penalized cost of the 1-tree, or MISSING if it does not exist; degree is filled
+     */
+    private long oneTree(int k, int unvisitedCount) {
+        for (int i = 0; i < k; i++) {
+            key[i] = MISSING;
+            inTree[i] = false;
+            degree[i] = 0;
+        }
+        key[0] = 0;
+        parent[0] = -1;
+        long total = 0;
+        for (int added = 0; added < unvisitedCount; added++) {
+            int u = -1;
+            for (int i = 0; i < unvisitedCount; i++) {
+                if (!inTree[i] && (u == -1 || key[i] < key[u])) {
+                    u = i;
+                }
+            }
+            if (key[u] >= MISSING) {
+                return MISSING;
+            }
+            inTree[u] = true;
+            total += key[u];
+            if (parent[u] >= 0) {
+                degree[u]++;
+                degree[parent[u]]++;
+            }
+            int row = nodes[u] * n;
+            for (int v = 0; v < unvisitedCount; v++) {
+                int d = dist[row + nodes[v]];
+                if (inTree[v] || d <= 0) {
+                    continue;
+                }
+                long w = (long) d + pi[u] + pi[v];
+                if (w < key[v]) {
+                    key[v] = w;
+                    parent[v] = u;
+                }
+            }
+        }
+
+        // The two cheapest edges of the start city
+        int startIndex = k - 1;
+        int row = nodes[startIndex] * n;
+        long first = MISSING;
+        long second = MISSING;
+        int firstNode = -1;
+        int secondNode = -1;
+        for (int v = 0; v < unvisitedCount; v++) {
+            int d = dist[row + nodes[v]];
+            if (d <= 0) {
+                continue;
+            }
+            long w = (long) d + pi[startIndex] + pi[v];
+            if (w < first) {
+                second = first;
+                secondNode = firstNode;
+                first = w;
+                firstNode = v;
+            } else if (w < second) {
+                second = w;
+                secondNode = v;
+            }
+        }
+        if (secondNode < 0) {
+            return MISSING;
+        }
+        degree[firstNode]++;
+        degree[secondNode]++;
+        degree[startIndex] = 2;
+        return total + first + second;
+    }
+
+    /**
+     * Gets the number of bounds computed.
+     *
+     * @return : The number of evaluations
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Gets the number of subgradient steps (spanning trees) computed.
+     *
+     * @return : The number of iterations
+     */
+    public long getIterations() {
+        return iterations;
+    }
+}
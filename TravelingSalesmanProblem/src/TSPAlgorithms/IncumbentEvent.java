@@ -0,0 +1,21 @@
+package TSPAlgorithms;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event of an improved tour found by an exact solver.
+ */
+@Name("tsp.Incumbent")
+@Label("TSP Incumbent")
+@Category("TSP")
+@Description("An improved tour found during a search")
+final class IncumbentEvent extends jdk.jfr.Event {
+    @Label("Solver")
+    String solver;
+
+    @Label("Cost")
+    long cost;
+}
@@ -0,0 +1,191 @@
+package TSPAlgorithms;
+
+import Graphs.Graph;
+
+import java.util.Arrays;
+
+/**
+ * The MSTCache class memoizes the cost of the Minimum Spanning Tree (MST) over a set of cities.
+ * Sets are encoded as a long bitmask (so the graph can have at most 64 cities) and stored in a bounded
+ * open-addressing table of primitive arrays. When all the probe slots of a key are taken, the entry in the
+ * home slot is evicted. MSTs that are not cached are computed with an allocation-free O(k^2) array Prim.
+ * The class is not thread-safe: every search should use its own instance.
+ */
+public class MSTCache {
+    public static final int DEFAULT_CAPACITY = 1 << 20; // Default number of cached sets
+    public static final int MAX_CITIES = 64; // Maximum number of cities that fit in a long bitmask
+    private static final int MAX_PROBES = 8; // Number of slots inspected before evicting
+    private static final long EMPTY = 0L; // Marker for a free slot (the empty set is never stored)
+
+    private final Graph graph; // The graph representing the cities and distances
+    private final long[] keys; // Cached sets of cities
+    private final int[] values; // MST cost of every cached set
+    private final int mask; // Capacity - 1, used to map hashes to slots
+    private int size; // Number of cached sets
+    private long hits; // Number of lookups answered from the table
+    private long misses; // Number of lookups that had to compute the MST
+    private long evictions; // Number of entries replaced because the probe sequence was full
+
+    private final int[] nodes; // Scratch: cities of the set being computed
+    private final int[] key; // Scratch: cheapest connection of every city to the growing tree
+    private final boolean[] inTree; // Scratch: cities already added to the tree
+
+    /**
+     * Constructor for MSTCache.
+     *
+     * @param graph -> The graph representing the cities and distances
+     * @param capacity -> The maximum number of cached sets (rounded up to a power of two, and limited to the
+     *                    2^(n-1) unvisited sets a search over n cities can ask for)
+     */
+    public MSTCache(Graph graph, int capacity) {
+        this.graph = graph;
+        int numCities = graph == null ? 0 : graph.getNumCities();
+        if (numCities - 1 < Integer.SIZE - 2) {
+            capacity = Math.min(capacity, 1 << Math.max(0, numCities - 1));
+        }
+        int tableSize = Integer.highestOneBit(Math.max(MAX_PROBES, capacity - 1)) << 1; // Round up to a power of two
+        this.keys = new long[tableSize];
+        this.values = new int[tableSize];
+        this.mask = tableSize - 1;
+
+        this.nodes = new int[numCities];
+        this.key = new int[numCities];
+        this.inTree = new boolean[numCities];
+    }
+
+    /**
+     * Gets the cost of the MST spanning the specified set of cities.
+     *
+     * @param set -> The bitmask of the cities
+     * @return : The cost of the MST
+     */
+    public int mstCost(long set) {
+        if (set == EMPTY || (set & (set - 1)) == 0) {
+            return 0; // Zero or one city: the tree has no edges
+        }
+
+        int home = hash(set) & mask;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int slot = (home + probe) & mask;
+            if (keys[slot] == set) {
+                hits++;
+                return values[slot];
+            }
+            if (keys[slot] == EMPTY) {
+                misses++;
+                int cost = computeMST(set);
+                keys[slot] = set;
+                values[slot] = cost;
+                size++;
+                return cost;
+            }
+        }
+
+        // The probe sequence is full: evict the entry in the home slot
+        misses++;
+        evictions++;
+        int cost = computeMST(set);
+        keys[home] = set;
+        values[home] = cost;
+        return cost;
+    }
+
+    /**
+     * Calculates the cost of the MST using an array based Prim's algorithm, in O(k^2) for k cities and without allocations.
+     *
+     * @param set -> The bitmask of the cities
+     * @return : The cost of the MST
+     */
+    private int computeMST(long set) {
+        int k = 0;
+        for (long rest = set; rest != 0; rest &= rest - 1) {
+            nodes[k++] = Long.numberOfTrailingZeros(rest);
+        }
+
+        for (int i = 0; i < k; i++) {
+            key[i] = Integer.MAX_VALUE;
+            inTree[i] = false;
+        }
+
+        int totalCost = 0;
+        int last = 0; // The first city starts the tree
+        inTree[0] = true;
+        for (int added = 1; added < k; added++) {
+            int next = -1;
+            int nextKey = Integer.MAX_VALUE;
+            for (int i = 0; i < k; i++) {
+                if (inTree[i]) {
+                    continue;
+                }
+                int d = graph.getDistance(nodes[last], nodes[i]);
+                if (d < key[i]) {
+                    key[i] = d; // Cheaper connection through the city added last
+                }
+                if (key[i] < nextKey || next == -1) {
+                    nextKey = key[i];
+                    next = i;
+                }
+            }
+            inTree[next] = true;
+            totalCost += nextKey;
+            last = next;
+        }
+
+        return totalCost;
+    }
+
+    /**
+     * Mixes the bits of a set into a table hash.
+     *
+     * @param set -> The bitmask of the cities
+     * @return : The hash of the set
+     */
+    private static int hash(long set) {
+        long h = set * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Removes every cached set. The counters are kept.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * Gets the number of lookups answered from the table.
+     *
+     * @return : The number of cache hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that had to compute the MST.
+     *
+     * @return : The number of cache misses
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of entries replaced because their probe sequence was full.
+     *
+     * @return : The number of evictions
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Gets the number of cached sets.
+     *
+     * @return : The number of cached sets
+     */
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,116 @@
+package TSPAlgorithms;
+
+import java.util.Arrays;
+
+/**
+ * The NodeHeap class is a binary min-heap of search nodes keyed by a primitive int priority.
+ * The keys are kept in their own int array, so sifting compares primitives without a Comparator
+ * or any dereference of the nodes.
+ */
+final class NodeHeap {
+    private int[] keys; // Priorities of the nodes, in heap order
+    private SearchNode[] nodes; // Nodes, in the same order as their keys
+    private int size; // Number of nodes in the heap
+
+    /**
+     * Constructor for NodeHeap.
+     *
+     * @param initialCapacity -> The initial number of slots
+     */
+    NodeHeap(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        this.keys = new int[capacity];
+        this.nodes = new SearchNode[capacity];
+    }
+
+    /**
+     * Adds a node to the heap.
+     *
+     * @param key -> The priority of the node
+     * @param node -> The node to add
+     */
+    void push(int key, SearchNode node) {
+        if (size == keys.length) {
+            int capacity = keys.length + (keys.length >> 1); // Grow by 50%
+            keys = Arrays.copyOf(keys, capacity);
+            nodes = Arrays.copyOf(nodes, capacity);
+        }
+
+        // Sift up: move the parents down until the slot for the new key is found
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            keys[i] = keys[parent];
+            nodes[i] = nodes[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        nodes[i] = node;
+    }
+
+    /**
+     * Removes and returns the node with the smallest key.
+     *
+     * @return : The node with the smallest key, or null if the heap is empty
+     */
+    SearchNode pop() {
+        if (size == 0) {
+            return null;
+        }
+        SearchNode top = nodes[0];
+        int key = keys[--size];
+        SearchNode node = nodes[size];
+        nodes[size] = null; // Let the removed node be collected
+
+        // Sift down: move the smaller children up until the slot for the last key is found
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            keys[i] = keys[child];
+            nodes[i] = nodes[child];
+            i = child;
+        }
+        if (size > 0) {
+            keys[i] = key;
+            nodes[i] = node;
+        }
+        return top;
+    }
+
+    /**
+     * Gets the smallest key in the heap.
+     *
+     * @return : The smallest key, or Integer.MAX_VALUE if the heap is empty
+     */
+    int peekKey() {
+        return size == 0 ? Integer.MAX_VALUE : keys[0];
+    }
+
+    /**
+     * Checks if the heap is empty.
+     *
+     * @return : True if the heap has no nodes, False otherwise
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the number of nodes in the heap.
+     *
+     * @return : The number of nodes
+     */
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,47 @@
+package TSPAlgorithms;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder event of one search of an exact solver, with the totals of its SearchMetrics.
+ */
+@Name("tsp.Search")
+@Label("TSP Search")
+@Category("TSP")
+@Description("One search of an exact TSP solver")
+final class SearchEvent extends jdk.jfr.Event {
+    @Label("Solver")
+    String solver;
+
+    @Label("Cities")
+    int numCities;
+
+    @Label("Expanded Nodes")
+    long expandedNodes;
+
+    @Label("Generated Nodes")
+    long generatedNodes;
+
+    @Label("Pruned Nodes")
+    long prunedNodes;
+
+    @Label("Peak Frontier")
+    long peakFrontier;
+
+    @Label("Heuristic Calls")
+    long heuristicCalls;
+
+    @Label("Heuristic Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long heuristicNanos;
+
+    @Label("Best Cost")
+    long bestCost;
+
+    @Label("Completed")
+    boolean completed;
+}
@@ -0,0 +1,264 @@
+package TSPAlgorithms;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The SearchMetrics class is the metrics surface of the exact solvers: expanded, generated and pruned node counters,
+ * a peak-frontier gauge, and the time spent in the heuristic, split from the time of the main loop.
+ * The counters are striped (LongAdder), so the parallel workers never contend on them, and the solvers count in local
+ * variables and flush them every SolveControl.CHECK_MASK + 1 nodes, so the hot loops only pay a local increment.
+ * The heuristic timer samples one call out of HEURISTIC_SAMPLE_MASK + 1 and extrapolates, to keep System.nanoTime()
+ * out of most calls. Every search is also recorded as a SearchEvent (and every improved tour as an IncumbentEvent)
+ * for Java Flight Recorder, so production runs can be diagnosed from a recording, without a profiler attached.
+ * The metrics can be read at any time, also while a search is running, with snapshot().
+ */
+public class SearchMetrics {
+    static final int HEURISTIC_SAMPLE_MASK = 63; // One heuristic call out of 64 is timed
+
+    private final String solver; // Name of the solver, as recorded in the events
+    private final LongAdder expanded = new LongAdder(); // Nodes expanded (children generated from them)
+    private final LongAdder generated = new LongAdder(); // Child nodes generated
+    private final LongAdder pruned = new LongAdder(); // Child nodes cut by a bound or by dominance
+    private final LongAdder heuristicCalls = new LongAdder(); // Heuristic evaluations
+    private final LongAdder heuristicNanos = new LongAdder(); // Estimated time spent in the heuristic
+    private final AtomicLong peakFrontier = new AtomicLong(); // Largest frontier seen (queue size, or DFS depth)
+    private final LongAdder incumbents = new LongAdder(); // Improved tours found
+    private volatile long startNanos; // System.nanoTime() at the start of the search
+    private volatile long endNanos; // System.nanoTime() at the end of the search (0 while it runs)
+    private SearchEvent event; // JFR event of the current search
+
+    /**
+     * Constructor for SearchMetrics.
+     *
+     * @param solver -> The name of the solver
+     */
+    SearchMetrics(String solver) {
+        this.solver = solver;
+    }
+
+    /**
+     * Resets the metrics at the start of a search and begins its JFR event.
+     */
+    void start() {
+        expanded.reset();
+        generated.reset();
+        pruned.reset();
+        heuristicCalls.reset();
+        heuristicNanos.reset();
+        peakFrontier.set(0);
+        incumbents.reset();
+        endNanos = 0;
+        startNanos = System.nanoTime();
+        event = new SearchEvent();
+        event.begin();
+    }
+
+    /**
+     * Adds node counts from a solver's local counters.
+     *
+     * @param expandedNodes -> Nodes expanded since the last flush
+     * @param generatedNodes -> Child nodes generated since the last flush
+     * @param prunedNodes -> Child nodes pruned since the last flush
+     */
+    void addNodes(long expandedNodes, long generatedNodes, long prunedNodes) {
+        expanded.add(expandedNodes);
+        generated.add(generatedNodes);
+        pruned.add(prunedNodes);
+    }
+
+    /**
+     * Adds heuristic evaluations.
+     *
+     * @param calls -> Heuristic calls since the last flush
+     * @param sampledNanos -> Time measured on the sampled calls since the last flush
+     */
+    void addHeuristic(long calls, long sampledNanos) {
+        heuristicCalls.add(calls);
+        heuristicNanos.add(sampledNanos * (HEURISTIC_SAMPLE_MASK + 1));
+    }
+
+    /**
+     * Raises the peak-frontier gauge.
+     *
+     * @param size -> The current frontier size
+     */
+    void updatePeakFrontier(long size) {
+        long peak = peakFrontier.get();
+        while (size > peak && !peakFrontier.compareAndSet(peak, size)) {
+            peak = peakFrontier.get();
+        }
+    }
+
+    /**
+     * Records an improved tour (and its JFR event).
+     *
+     * @param cost -> The cost of the tour
+     */
+    void recordIncumbent(long cost) {
+        incumbents.increment();
+        IncumbentEvent incumbentEvent = new IncumbentEvent();
+        if (incumbentEvent.isEnabled()) {
+            incumbentEvent.solver = solver;
+            incumbentEvent.cost = cost;
+            incumbentEvent.commit();
+        }
+    }
+
+    /**
+     * Ends the search and commits its JFR event.
+     *
+     * @param numCities -> The number of cities of the graph
+     * @param bestCost -> The cost of the best tour found (Long.MAX_VALUE if none)
+     * @param completed -> True if the search ran to completion
+     */
+    void finish(int numCities, long bestCost, boolean completed) {
+        endNanos = System.nanoTime();
+        SearchEvent searchEvent = event;
+        event = null;
+        if (searchEvent != null && searchEvent.shouldCommit()) {
+            searchEvent.solver = solver;
+            searchEvent.numCities = numCities;
+            searchEvent.expandedNodes = expanded.sum();
+            searchEvent.generatedNodes = generated.sum();
+            searchEvent.prunedNodes = pruned.sum();
+            searchEvent.peakFrontier = peakFrontier.get();
+            searchEvent.heuristicCalls = heuristicCalls.sum();
+            searchEvent.heuristicNanos = heuristicNanos.sum();
+            searchEvent.bestCost = bestCost;
+            searchEvent.completed = completed;
+            searchEvent.commit();
+        }
+    }
+
+    /**
+     * Takes a consistent-enough copy of the metrics (the counters of a running search are read one after the other).
+     *
+     * @return : The snapshot
+     */
+    public Snapshot snapshot() {
+        long end = endNanos;
+        long start = startNanos;
+        long elapsed = start == 0 ? 0 : (end == 0 ? System.nanoTime() : end) - start;
+        return new Snapshot(solver, expanded.sum(), generated.sum(), pruned.sum(), peakFrontier.get(),
+                heuristicCalls.sum(), heuristicNanos.sum(), incumbents.sum(), elapsed, start != 0 && end == 0);
+    }
+
+    /**
+     * Immutable copy of the metrics of a search.
+     */
+    public static final class Snapshot {
+        private final String solver; // Name of the solver
+        private final long expandedNodes; // Nodes expanded
+        private final long generatedNodes; // Child nodes generated
+        private final long prunedNodes; // Child nodes pruned
+        private final long peakFrontier; // Largest frontier seen
+        private final long heuristicCalls; // Heuristic evaluations
+        private final long heuristicNanos; // Estimated time spent in the heuristic
+        private final long incumbents; // Improved tours found
+        private final long elapsedNanos; // Duration of the search (so far, if it is running)
+        private final boolean running; // True if the search was running when the snapshot was taken
+
+        private Snapshot(String solver, long expandedNodes, long generatedNodes, long prunedNodes, long peakFrontier,
+                         long heuristicCalls, long heuristicNanos, long incumbents, long elapsedNanos, boolean running) {
+            this.solver = solver;
+            this.expandedNodes = expandedNodes;
+            this.generatedNodes = generatedNodes;
+            this.prunedNodes = prunedNodes;
+            this.peakFrontier = peakFrontier;
+            this.heuristicCalls = heuristicCalls;
+            this.heuristicNanos = heuristicNanos;
+            this.incumbents = incumbents;
+            this.elapsedNanos = elapsedNanos;
+            this.running = running;
+        }
+
+        /**
+         * @return : The name of the solver
+         */
+        public String getSolver() {
+            return solver;
+        }
+
+        /**
+         * @return : The number of nodes taken from the frontier and expanded
+         */
+        public long getExpandedNodes() {
+            return expandedNodes;
+        }
+
+        /**
+         * @return : The number of child nodes generated
+         */
+        public long getGeneratedNodes() {
+            return generatedNodes;
+        }
+
+        /**
+         * @return : The number of child nodes cut by a bound or a dominance check
+         */
+        public long getPrunedNodes() {
+            return prunedNodes;
+        }
+
+        /**
+         * @return : The largest frontier (queue size, or depth for the depth-first searches)
+         */
+        public long getPeakFrontier() {
+            return peakFrontier;
+        }
+
+        /**
+         * @return : The number of heuristic evaluations
+         */
+        public long getHeuristicCalls() {
+            return heuristicCalls;
+        }
+
+        /**
+         * @return : The estimated heuristic time in nanoseconds
+         */
+        public long getHeuristicNanos() {
+            return heuristicNanos;
+        }
+
+        /**
+         * @return : The number of improved tours found
+         */
+        public long getIncumbents() {
+            return incumbents;
+        }
+
+        /**
+         * @return : The time since the search started (until it finished) in nanoseconds
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Gets the time spent outside the heuristic: queue operations, dominance checks and expansion.
+         *
+         * @return : The estimated main loop time in nanoseconds
+         */
+        public long getMainLoopNanos() {
+            return Math.max(0, elapsedNanos - heuristicNanos);
+        }
+
+        /**
+         * @return : True if the search had not finished when the snapshot was taken
+         */
+        public boolean isRunning() {
+            return running;
+        }
+
+        @Override
+        public String toString() {
+            return solver + ": expanded=" + expandedNodes + ", generated=" + generatedNodes + ", pruned=" + prunedNodes
+                    + ", peakFrontier=" + peakFrontier + ", heuristicCalls=" + heuristicCalls
+                    + ", heuristicMs=" + heuristicNanos / 1_000_000 + ", mainLoopMs=" + getMainLoopNanos() / 1_000_000
+                    + ", incumbents=" + incumbents + ", elapsedMs=" + elapsedNanos / 1_000_000
+                    + (running ? " (running)" : "");
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package TSPAlgorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The SearchNode class is the compact frontier node used by the best-first searches (Uniform Cost Search and A*).
+ * Instead of copying the whole path for every child, a node only stores its last city, its costs, the bitmask of the
+ * visited cities and a pointer to its parent node, which is shared with all its siblings.
+ * The full path is only rebuilt (by following the parent pointers) for the node that wins the search.
+ */
+final class SearchNode {
+    final SearchNode parent; // The node this node was expanded from (null for the start node)
+    final int city; // The last city of the path
+    final int depth; // Number of cities in the path
+    final int gCost; // Actual cost (g) of the path
+    final int fCost; // Priority of the node (g for UCS, g + h for A*)
+    final long visited; // Bitmask of the visited cities
+
+    /**
+     * Constructor for a start node.
+     *
+     * @param start -> The starting city index
+     * @param fCost -> The priority of the node
+     */
+    SearchNode(int start, int fCost) {
+        this.parent = null;
+        this.city = start;
+        this.depth = 1;
+        this.gCost = 0;
+        this.fCost = fCost;
+        this.visited = 1L << start;
+    }
+
+    /**
+     * Constructor for a child node.
+     *
+     * @param parent -> The node the child is expanded from
+     * @param city -> The city added to the path
+     * @param gCost -> The actual cost of the extended path
+     * @param fCost -> The priority of the child
+     */
+    SearchNode(SearchNode parent, int city, int gCost, int fCost) {
+        this.parent = parent;
+        this.city = city;
+        this.depth = parent.depth + 1;
+        this.gCost = gCost;
+        this.fCost = fCost;
+        this.visited = parent.visited | (1L << city);
+    }
+
+    /**
+     * Checks if a city is in the path.
+     *
+     * @param node -> The city to check
+     * @return : True if the city is in the path, False otherwise
+     */
+    boolean contains(int node) {
+        return (visited & (1L << node)) != 0;
+    }
+
+    /**
+     * Rebuilds the list of cities of the path by following the parent pointers.
+     *
+     * @return : The cities of the path, from the start city to the last city
+     */
+    List<Integer> toList() {
+        Integer[] cities = new Integer[depth];
+        for (SearchNode node = this; node != null; node = node.parent) {
+            cities[node.depth - 1] = node.city;
+        }
+        List<Integer> result = new ArrayList<>(depth);
+        for (Integer c : cities) {
+            result.add(c);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,579 @@
+package TSPAlgorithms;
+
+import Graphs.Graph;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * The SolutionCache class remembers the tours found by the solvers, so a graph that was already solved is answered
+ * without searching again. An entry is keyed on a canonical hash of the distance matrix (SHA-256 of the number of
+ * cities and every row) plus the solver id and its parameters, so a different graph, solver or setting is a miss.
+ * The most recently used tours are kept in memory under a bounded LRU; with a file, every entry is also appended to
+ * it and only its offset is kept in memory, so evicted entries are read back from disk and survive restarts.
+ * A lost or torn line at the end of the file (a crash while appending) is skipped when the file is loaded.
+ * On a miss, a cached tour of a near-duplicate graph (same size, almost the same sampled distances) is offered to
+ * the control as a warm start: the exact solvers prune with it from the first node. An optimal tour of the same
+ * graph is returned directly, whatever solver found it. The class is thread-safe.
+ */
+public class SolutionCache implements Closeable {
+    private static final int SKETCH_SIZE = 32; // Number of sampled distances used to compare graphs of the same size
+    private static final double NEAR_DUPLICATE_TOLERANCE = 0.1; // Maximum relative difference of two sketches
+
+    private final int maxEntries; // Maximum number of tours kept in memory
+    private final LinkedHashMap<String, Tour> memory; // Tours in memory, in access order (LRU first)
+    private final Map<String, Entry> index = new HashMap<>(); // Every known entry (in memory or on disk)
+    private final Map<Integer, List<Entry>> bySize = new HashMap<>(); // Entries grouped by number of cities
+    private final File file; // Append-only file of the entries (null for a memory-only cache)
+    private RandomAccessFile store; // Open handle on the file (null for a memory-only cache)
+    private long hits; // Lookups answered from memory
+    private long diskHits; // Lookups answered from the file
+    private long warmStarts; // Misses that got a tour of a near-duplicate graph
+
+    /**
+     * Constructor for a memory-only cache.
+     *
+     * @param maxEntries -> The maximum number of tours kept in memory
+     */
+    public SolutionCache(int maxEntries) {
+        this(maxEntries, null);
+    }
+
+    /**
+     * Constructor for a cache persisted to a file. The file is created if it does not exist, otherwise its
+     * entries are indexed (their tours stay on disk until they are used).
+     *
+     * @param maxEntries -> The maximum number of tours kept in memory
+     * @param filename -> The append-only file of the entries (null for a memory-only cache)
+     */
+    public SolutionCache(int maxEntries, String filename) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("The cache must hold at least one entry");
+        }
+        this.maxEntries = maxEntries;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true);
+        this.file = filename == null ? null : new File(filename);
+        if (file != null) {
+            try {
+                load();
+                store = new RandomAccessFile(file, "rw");
+                // Start the next entry on a new line if the last append was torn
+                if (store.length() > 0) {
+                    store.seek(store.length() - 1);
+                    if (store.read() != '\n') {
+                        store.write('\n');
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to open the solution cache: " + filename + ", using memory only");
+                store = null;
+            }
+        }
+    }
+
+    /**
+     * Solves a graph through the cache. An exact repeat (same graph, solver and parameters), or an optimal tour
+     * of the same graph, is returned without running the solver. Otherwise the tour of a near-duplicate graph,
+     * if any, is offered to the control as a warm start, and the solver's result is cached.
+     *
+     * @param graph -> The graph the solver runs on
+     * @param solver -> The solver
+     * @param parameters -> The settings of the solver that change its result (e.g. its time limit)
+     * @param start -> The starting city index
+     * @param control -> The limits of the solve and its incumbent
+     * @return : The tour of the graph, or null if the solver found none
+     */
+    public Tour solve(Graph graph, TSPSolver solver, String parameters, int start, SolveControl control) {
+        String matrixHash = hash(graph);
+        String key = key(matrixHash, solver.getName(), parameters);
+        Tour cached = get(key);
+        if (cached != null) {
+            return cached.startingAt(start);
+        }
+
+        int[] sketch = sketch(graph);
+        Tour warm = findWarmStart(graph, matrixHash, sketch);
+        if (warm != null) {
+            if (warm.isOptimal()) {
+                return warm.startingAt(start);
+            }
+            control.offer(warm);
+        }
+
+        Tour tour = solver.solve(start, control);
+        if (tour != null) {
+            put(key, matrixHash, sketch, tour);
+        }
+        return tour;
+    }
+
+    /**
+     * Gets the cached tour of a graph solved by a solver with given parameters.
+     *
+     * @param graph -> The graph
+     * @param solverName -> The name of the solver (TSPSolver.getName())
+     * @param parameters -> The settings of the solver
+     * @return : The cached tour, or null if there is none
+     */
+    public Tour get(Graph graph, String solverName, String parameters) {
+        return get(key(hash(graph), solverName, parameters));
+    }
+
+    /**
+     * Caches the tour of a graph solved by a solver with given parameters.
+     * A tour already cached under the same key is kept if it is optimal or not longer.
+     *
+     * @param graph -> The graph
+     * @param solverName -> The name of the solver (TSPSolver.getName())
+     * @param parameters -> The settings of the solver
+     * @param tour -> The tour found by the solver
+     */
+    public void put(Graph graph, String solverName, String parameters, Tour tour) {
+        String matrixHash = hash(graph);
+        put(key(matrixHash, solverName, parameters), matrixHash, sketch(graph), tour);
+    }
+
+    /**
+     * Finds a warm-start tour for a graph among the cached tours of graphs with the same number of cities.
+     *
+     * @param graph -> The graph
+     * @return : The cached tour of the nearest graph, with its cost on this graph, or null if none is near enough
+     */
+    public Tour findWarmStart(Graph graph) {
+        return findWarmStart(graph, hash(graph), sketch(graph));
+    }
+
+    /**
+     * Gets the number of lookups answered from memory.
+     *
+     * @return : The number of memory hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups answered from the file.
+     *
+     * @return : The number of disk hits
+     */
+    public synchronized long getDiskHits() {
+        return diskHits;
+    }
+
+    /**
+     * Gets the number of misses that were given the tour of a near-duplicate graph.
+     *
+     * @return : The number of warm starts
+     */
+    public synchronized long getWarmStarts() {
+        return warmStarts;
+    }
+
+    /**
+     * Gets the number of entries known to the cache, in memory or on disk.
+     *
+     * @return : The number of entries
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Closes the file of the cache. The entries already appended stay in it.
+     */
+    @Override
+    public synchronized void close() {
+        if (store != null) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close the solution cache: " + file);
+            }
+            store = null;
+        }
+    }
+
+    /**
+     * Looks up a key in memory, then on disk.
+     *
+     * @param key -> The key of the entry
+     * @return : The cached tour, or null if there is none
+     */
+    private synchronized Tour get(String key) {
+        Tour tour = memory.get(key);
+        if (tour != null) {
+            hits++;
+            return tour;
+        }
+        Entry entry = index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        tour = read(entry);
+        if (tour != null) {
+            diskHits++;
+            remember(key, tour);
+        }
+        return tour;
+    }
+
+    /**
+     * Adds an entry to memory and appends it to the file.
+     *
+     * @param key -> The key of the entry
+     * @param matrixHash -> The hash of the distance matrix
+     * @param sketch -> The sampled distances of the graph
+     * @param tour -> The tour to cache
+     */
+    private synchronized void put(String key, String matrixHash, int[] sketch, Tour tour) {
+        Entry existing = index.get(key);
+        if (existing != null && (existing.optimal || existing.cost <= tour.getCost())) {
+            return; // Keep the better tour
+        }
+
+        Entry entry = new Entry(key, matrixHash, tour.getPath().size() - 1, tour.getCost(), tour.isOptimal(), sketch);
+        if (store != null) {
+            try {
+                String line = format(entry, tour) + "\n";
+                byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+                entry.offset = store.length();
+                entry.length = bytes.length - 1;
+                store.seek(entry.offset);
+                store.write(bytes);
+            } catch (IOException e) {
+                System.err.println("Failed to append to the solution cache: " + file);
+                entry.offset = -1;
+            }
+        }
+        if (existing != null) {
+            bySize.get(existing.numCities).remove(existing);
+        }
+        index.put(key, entry);
+        bySize.computeIfAbsent(entry.numCities, k -> new ArrayList<>()).add(entry);
+        remember(key, tour);
+    }
+
+    /**
+     * Puts a tour in memory and evicts the least recently used tours beyond the limit.
+     * Evicted entries that are not on disk are forgotten.
+     *
+     * @param key -> The key of the entry
+     * @param tour -> The tour
+     */
+    private void remember(String key, Tour tour) {
+        memory.put(key, tour);
+        while (memory.size() > maxEntries) {
+            Map.Entry<String, Tour> eldest = memory.entrySet().iterator().next();
+            memory.remove(eldest.getKey());
+            Entry entry = index.get(eldest.getKey());
+            if (entry != null && entry.offset < 0) {
+                index.remove(entry.key);
+                bySize.get(entry.numCities).remove(entry);
+            }
+        }
+    }
+
+    /**
+     * Finds the cached tour of the nearest graph of the same size.
+     *
+     * @param graph -> The graph
+     * @param matrixHash -> The hash of its distance matrix
+     * @param sketch -> Its sampled distances
+     * @return : The tour with its cost on this graph (optimal only if cached as optimal for this very graph),
+     *           or null if no graph is near enough
+     */
+    private synchronized Tour findWarmStart(Graph graph, String matrixHash, int[] sketch) {
+        List<Entry> candidates = bySize.get(graph.getNumCities());
+        if (candidates == null) {
+            return null;
+        }
+        long total = 0;
+        for (int d : sketch) {
+            total += Math.abs((long) d);
+        }
+
+        Entry best = null;
+        long bestDifference = Long.MAX_VALUE;
+        for (Entry entry : candidates) {
+            if (entry.matrixHash.equals(matrixHash) && entry.optimal) {
+                best = entry; // Optimal for this very graph: nothing is nearer
+                break;
+            }
+            long difference = 0;
+            for (int i = 0; i < sketch.length; i++) {
+                difference += Math.abs((long) sketch[i] - entry.sketch[i]);
+            }
+            if (difference < bestDifference) {
+                best = entry;
+                bestDifference = difference;
+            }
+        }
+        if (best == null || (!best.matrixHash.equals(matrixHash) && bestDifference > NEAR_DUPLICATE_TOLERANCE * total)) {
+            return null;
+        }
+
+        Tour tour = memory.get(best.key);
+        if (tour == null) {
+            tour = read(best);
+        }
+        if (tour == null || !TSPConstruction.isTour(graph, tour.getPath(), tour.getPath().get(0))) {
+            return null; // Not a tour of this graph (an edge is missing)
+        }
+        warmStarts++;
+        if (best.matrixHash.equals(matrixHash)) {
+            return tour;
+        }
+        return new Tour(tour.getPath(), TSPConstruction.cost(graph, tour.getPath()), false);
+    }
+
+    /**
+     * Reads the tour of an entry from the file.
+     *
+     * @param entry -> The entry
+     * @return : The tour, or null if it is not on disk or cannot be read
+     */
+    private Tour read(Entry entry) {
+        if (store == null || entry.offset < 0) {
+            return null;
+        }
+        try {
+            byte[] bytes = new byte[entry.length];
+            store.seek(entry.offset);
+            store.readFully(bytes);
+            Entry parsed = parse(new String(bytes, StandardCharsets.US_ASCII));
+            return parsed == null ? null : parsed.tour;
+        } catch (IOException e) {
+            System.err.println("Failed to read from the solution cache: " + file);
+            return null;
+        }
+    }
+
+    /**
+     * Indexes the entries of the file. A later line with the same key replaces an earlier one.
+     *
+     * @throws IOException if the file cannot be read
+     */
+    private void load() throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+                StandardCharsets.US_ASCII))) {
+            long offset = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Entry entry = parse(line);
+                if (entry != null) {
+                    entry.offset = offset;
+                    entry.length = line.length();
+                    entry.tour = null; // Tours stay on disk until they are used
+                    Entry previous = index.put(entry.key, entry);
+                    if (previous != null) {
+                        bySize.get(previous.numCities).remove(previous);
+                    }
+                    bySize.computeIfAbsent(entry.numCities, k -> new ArrayList<>()).add(entry);
+                }
+                offset += line.length() + 1;
+            }
+        }
+    }
+
+    /**
+     * Formats an entry as one line of the file:
+     * key, matrix hash, number of cities, cost, optimal flag, sketch and tour, separated by spaces.
+     *
+     * @param entry -> The entry
+     * @param tour -> Its tour
+     * @return : The line, without the line break
+     */
+    private static String format(Entry entry, Tour tour) {
+        StringBuilder line = new StringBuilder();
+        line.append(entry.key).append(' ').append(entry.matrixHash).append(' ').append(entry.numCities).append(' ')
+                .append(entry.cost).append(' ').append(entry.optimal ? 1 : 0).append(' ');
+        join(line, entry.sketch.length, i -> entry.sketch[i]);
+        line.append(' ');
+        join(line, tour.getPath().size(), i -> tour.getPath().get(i));
+        return line.toString();
+    }
+
+    /**
+     * Parses one line of the file.
+     *
+     * @param line -> The line
+     * @return : The entry with its tour, or null if the line is torn or invalid
+     */
+    private static Entry parse(String line) {
+        String[] parts = line.split(" ");
+        if (parts.length != 7) {
+            return null;
+        }
+        try {
+            int numCities = Integer.parseInt(parts[2]);
+            long cost = Long.parseLong(parts[3]);
+            boolean optimal = parts[4].equals("1");
+            int[] sketch = new int[SKETCH_SIZE];
+            String[] sketchParts = parts[5].split(",");
+            String[] tourParts = parts[6].split(",");
+            if (sketchParts.length != SKETCH_SIZE || tourParts.length != numCities + 1) {
+                return null;
+            }
+            for (int i = 0; i < SKETCH_SIZE; i++) {
+                sketch[i] = Integer.parseInt(sketchParts[i]);
+            }
+            List<Integer> path = new ArrayList<>(numCities + 1);
+            for (String city : tourParts) {
+                path.add(Integer.parseInt(city));
+            }
+            Entry entry = new Entry(parts[0], parts[1], numCities, cost, optimal, sketch);
+            entry.tour = new Tour(path, cost, optimal);
+            return entry;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Appends comma-separated integers to a line.
+     *
+     * @param line -> The line being built
+     * @param count -> The number of integers
+     * @param values -> The integer at every index
+     */
+    private static void join(StringBuilder line, int count, IntUnaryOperator values) {
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append(values.applyAsInt(i));
+        }
+    }
+
+    /**
+     * Builds the key of an entry.
+     *
+     * @param matrixHash -> The hash of the distance matrix
+     * @param solverName -> The name of the solver
+     * @param parameters -> The settings of the solver
+     * @return : The key (a hex SHA-256, so it contains no separator of the file)
+     */
+    private static String key(String matrixHash, String solverName, String parameters) {
+        MessageDigest digest = sha256();
+        digest.update(matrixHash.getBytes(StandardCharsets.US_ASCII));
+        digest.update((byte) 0);
+        digest.update(solverName.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update((parameters == null ? "" : parameters).getBytes(StandardCharsets.UTF_8));
+        return hex(digest.digest());
+    }
+
+    /**
+     * Computes the canonical hash of a graph: SHA-256 of its number of cities and of every row of distances,
+     * so two graphs with the same distances have the same hash, whatever their representation.
+     *
+     * @param graph -> The graph
+     * @return : The hash as a hex string
+     */
+    public static String hash(Graph graph) {
+        MessageDigest digest = sha256();
+        int n = graph.getNumCities();
+        int[] row = new int[n];
+        byte[] bytes = new byte[4 * n];
+        digest.update(new byte[]{(byte) (n >>> 24), (byte) (n >>> 16), (byte) (n >>> 8), (byte) n});
+        for (int i = 0; i < n; i++) {
+            graph.getRow(i, row);
+            for (int j = 0; j < n; j++) {
+                bytes[4 * j] = (byte) (row[j] >>> 24);
+                bytes[4 * j + 1] = (byte) (row[j] >>> 16);
+                bytes[4 * j + 2] = (byte) (row[j] >>> 8);
+                bytes[4 * j + 3] = (byte) row[j];
+            }
+            digest.update(bytes);
+        }
+        return hex(digest.digest());
+    }
+
+    /**
+     * Samples SKETCH_SIZE distances of a graph, at pairs of cities that depend only on the number of cities,
+     * so graphs of the same size are compared pair by pair.
+     *
+     * @param graph -> The graph
+     * @return : The sampled distances
+     */
+    private static int[] sketch(Graph graph) {
+        int n = graph.getNumCities();
+        int[] sketch = new int[SKETCH_SIZE];
+        if (n < 2) {
+            return sketch;
+        }
+        SplittableRandom random = new SplittableRandom(n);
+        for (int k = 0; k < SKETCH_SIZE; k++) {
+            int i = random.nextInt(n);
+            int j = random.nextInt(n - 1);
+            sketch[k] = graph.getDistance(i, j >= i ? j + 1 : j);
+        }
+        return sketch;
+    }
+
+    /**
+     * @return : A new SHA-256 digest
+     */
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // Every Java platform must provide it
+        }
+    }
+
+    /**
+     * @param bytes -> The bytes to convert
+     * @return : The bytes as a lowercase hex string
+     */
+    private static String hex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >>> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Index entry of a cached tour.
+     */
+    private static final class Entry {
+        private final String key; // Key of the entry
+        private final String matrixHash; // Hash of the distance matrix of the graph
+        private final int numCities; // Number of cities of the graph
+        private final long cost; // Cost of the tour
+        private final boolean optimal; // True if the tour was proven optimal
+        private final int[] sketch; // Sampled distances of the graph
+        private long offset = -1; // Offset of the line in the file (-1 if not on disk)
+        private int length; // Length of the line, without the line break
+        private Tour tour; // Tour parsed from a line (only while loading)
+
+        private Entry(String key, String matrixHash, int numCities, long cost, boolean optimal, int[] sketch) {
+            this.key = key;
+            this.matrixHash = matrixHash;
+            this.numCities = numCities;
+            this.cost = cost;
+            this.optimal = optimal;
+            this.sketch = sketch;
+        }
+    }
+}
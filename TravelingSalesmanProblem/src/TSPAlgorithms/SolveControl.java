@@ -0,0 +1,219 @@
+package TSPAlgorithms;
+
+import Graphs.Graph;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The SolveControl class bounds a solve and collects its incumbent (the best tour found so far).
+ * A solve stops at the deadline, after the node budget, or when cancel() is called from another thread; the solvers
+ * poll shouldStop() every CHECK_MASK + 1 nodes, so stopping is cooperative and costs nothing measurable.
+ * The incumbent is held in a lock-free atomic reference, so a control can be shared by solvers running concurrently:
+ * each one prunes with the best tour of all, and the listener sees every improvement, from any solver thread.
+ * When the control knows the graph of the solve, it only accepts real tours of that graph, so a heuristic that had to
+ * use a missing edge can never publish a tour that would make the exact solvers prune the optimum.
+ */
+public class SolveControl {
+    static final int CHECK_MASK = 1023; // The solvers poll shouldStop() when (nodes & CHECK_MASK) == 0
+
+    /**
+     * Listener notified of every improved incumbent.
+     */
+    public interface IncumbentListener {
+        /**
+         * Called from the solver thread that found the tour, so it must be thread-safe and return quickly.
+         *
+         * @param tour -> The new incumbent
+         */
+        void onImprovement(Tour tour);
+    }
+
+    private final AtomicReference<Tour> incumbent = new AtomicReference<>(); // Best tour found so far (null if none)
+    private volatile boolean cancelled; // Set by cancel()
+    private long deadline; // System.nanoTime() value at which the solve stops
+    private boolean hasDeadline; // True if a time limit was set
+    private long nodeBudget = Long.MAX_VALUE; // Maximum number of nodes expanded by each solver
+    private IncumbentListener listener; // Listener of the improvements (null if none)
+    private volatile Graph graph; // Graph the tours are checked against (null to accept every tour)
+    private final SolveControl parent; // Control whose stop also stops this one (null if none)
+
+    /**
+     * Constructor for a control without limits.
+     */
+    public SolveControl() {
+        this(null);
+    }
+
+    /**
+     * Constructor for a control stopped with a parent control.
+     *
+     * @param parent -> The parent control (null for none)
+     */
+    private SolveControl(SolveControl parent) {
+        this.parent = parent;
+        if (parent != null) {
+            nodeBudget = parent.nodeBudget;
+        }
+    }
+
+    /**
+     * Creates a control for a sub-problem of this solve (for example one cluster of a decomposition). The child
+     * has the node budget of this control and stops whenever this control stops (cancelled or past its deadline),
+     * but it has its own incumbent, since its tours are tours of the sub-problem, and its own tighter limits
+     * can be set.
+     *
+     * @return : The child control
+     */
+    public SolveControl child() {
+        return new SolveControl(this);
+    }
+
+    /**
+     * Sets a time limit, counted from now.
+     *
+     * @param millis -> The time limit in milliseconds
+     */
+    public void setTimeLimit(long millis) {
+        deadline = System.nanoTime() + millis * 1_000_000L;
+        hasDeadline = true;
+    }
+
+    /**
+     * Sets the maximum number of search nodes each solver may expand.
+     *
+     * @param nodeBudget -> The node budget
+     */
+    public void setNodeBudget(long nodeBudget) {
+        if (nodeBudget <= 0) {
+            System.err.println("Node budget must be positive");
+            return;
+        }
+        this.nodeBudget = nodeBudget;
+    }
+
+    /**
+     * Sets the listener notified of every improved incumbent.
+     *
+     * @param listener -> The listener (null for none)
+     */
+    public void setListener(IncumbentListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the graph of the solve: offer() then rejects the tours that do not visit every city exactly once along
+     * existing edges, and result() never returns one.
+     *
+     * @param graph -> The graph of the solve (null to accept every tour)
+     */
+    public void setGraph(Graph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Asks the solvers using this control to stop as soon as possible. Can be called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Checks if the control was cancelled.
+     *
+     * @return : True if cancel() was called on this control or on its parent
+     */
+    public boolean isCancelled() {
+        return cancelled || (parent != null && parent.isCancelled());
+    }
+
+    /**
+     * Checks if a solver must stop: cancelled, past the deadline, over the node budget, or the parent stopped.
+     *
+     * @param nodes -> The number of nodes expanded by the solver
+     * @return : True if the solver must stop
+     */
+    public boolean shouldStop(long nodes) {
+        return cancelled || nodes > nodeBudget || (hasDeadline && System.nanoTime() - deadline > 0)
+                || (parent != null && parent.shouldStop(0));
+    }
+
+    /**
+     * Gets the best tour found so far.
+     *
+     * @return : The incumbent, or null if no tour was found yet
+     */
+    public Tour getIncumbent() {
+        return incumbent.get();
+    }
+
+    /**
+     * Gets the cost of the best tour found so far, as an upper bound for pruning.
+     *
+     * @return : The cost of the incumbent, or Long.MAX_VALUE if no tour was found yet
+     */
+    public long getIncumbentCost() {
+        Tour best = incumbent.get();
+        return best == null ? Long.MAX_VALUE : best.getCost();
+    }
+
+    /**
+     * Publishes a tour: it becomes the incumbent if it is shorter (lock-free compare-and-set loop),
+     * and the listener is notified. If the control has a graph, a tour that is not a tour of the graph is rejected.
+     *
+     * @param tour -> The tour found by a solver
+     * @return : True if the tour improved the incumbent
+     */
+    public boolean offer(Tour tour) {
+        Tour current = incumbent.get();
+        if ((current != null && tour.getCost() >= current.getCost()) || !isValid(tour.getPath())) {
+            return false;
+        }
+        while (current == null || tour.getCost() < current.getCost()) {
+            if (incumbent.compareAndSet(current, tour)) {
+                IncumbentListener l = listener;
+                if (l != null) {
+                    l.onImprovement(tour);
+                }
+                return true;
+            }
+            current = incumbent.get();
+        }
+        return false;
+    }
+
+    /**
+     * Builds the result of a solve from the solver's own best tour and the shared incumbent, whichever is shorter.
+     * A completed search pruned with the incumbent proves that no tour is shorter than the incumbent, so the result
+     * is optimal in that case, even if the solver's own best tour is not the incumbent.
+     *
+     * @param start -> The starting city index of the solve
+     * @param path -> The solver's best closed path (null or empty if none)
+     * @param cost -> The cost of the solver's best path
+     * @param complete -> True if the search ran to completion (was not stopped)
+     * @return : The result of the solve, or null if no tour is known
+     */
+    Tour result(int start, List<Integer> path, long cost, boolean complete) {
+        Tour best = incumbent.get();
+        if (path != null && !path.isEmpty() && (best == null || cost <= best.getCost()) && isValid(path)) {
+            Tour own = new Tour(path, cost, complete);
+            offer(own);
+            return own.startingAt(start);
+        }
+        if (best == null) {
+            return null;
+        }
+        return new Tour(best.getPath(), best.getCost(), complete).startingAt(start);
+    }
+
+    /**
+     * Checks a closed path against the graph of the control.
+     *
+     * @param path -> The closed path
+     * @return : True if the control has no graph, or if the path is a tour of the graph
+     */
+    private boolean isValid(List<Integer> path) {
+        Graph g = graph;
+        return g == null || TSPConstruction.isTour(g, path, path.isEmpty() ? -1 : path.get(0));
+    }
+}
@@ -6,8 +6,26 @@ import java.util.*;
 /**
  * The TSPAStar class implements the A* algorithm to solve the Traveling Salesman Problem (TSP)
  */
-public class TSPAStar {
+public class TSPAStar implements TSPSolver {
+    private static final int FOUND = -1; // IDA* marker: a tour within the threshold was found
+    private static final int BYTES_PER_NODE = 160; // Rough heap footprint of a queued node and its closed-set state
+
     private final Graph graph; // The graph on which the search will be performed
+    private final MSTCache mstCache; // Memoized MST costs of the unvisited sets, shared by all the paths of the search
+    private HeldKarpBound heldKarp; // Held-Karp bound combined with the MST heuristic (null for the MST heuristic only)
+    private List<Integer> initialTour; // Initial tour, its cost is the initial upper bound (null if none)
+    private int initialCost = Integer.MAX_VALUE; // Cost of the initial tour
+    private int maxNodes = defaultMaxNodes(); // Nodes kept in memory by solve() before it switches to IDA*
+    private SolveControl control; // Limits and shared incumbent of the current solve (null for search)
+    private long nodes; // Number of nodes expanded by the current solve
+    private boolean stopped; // True if the current solve was stopped by its control
+    private final SearchMetrics metrics = new SearchMetrics("A*"); // Metrics of the last search
+    private long pendingExpanded; // Expanded nodes not yet flushed to the metrics
+    private long pendingGenerated; // Generated nodes not yet flushed to the metrics
+    private long pendingPruned; // Pruned nodes not yet flushed to the metrics
+    private long pendingHeuristicCalls; // Heuristic calls not yet flushed to the metrics
+    private long pendingHeuristicNanos; // Time of the sampled heuristic calls not yet flushed to the metrics
+    private int peakFrontier; // Largest frontier of the current search (queue size, or IDA* depth)
 
     /**
      * Constructor that initializes the A* algorithm with the specified graph.
@@ -15,7 +33,115 @@ public class TSPAStar {
      * @param graph -> The graph representing the cities and distances
      */
     public TSPAStar(Graph graph) {
+        this(graph, MSTCache.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor that initializes the A* algorithm with the specified graph and MST cache size.
+     *
+     * @param graph -> The graph representing the cities and distances
+     * @param cacheCapacity -> The maximum number of unvisited sets whose MST cost is cached
+     */
+    public TSPAStar(Graph graph, int cacheCapacity) {
         this.graph = graph;
+        this.mstCache = new MSTCache(graph, cacheCapacity);
+    }
+
+    /**
+     * Sets an initial tour (for example from TSPConstruction): its cost is the initial upper bound of the search.
+     * Since the heuristic never overestimates, a child whose f-cost reaches the bound cannot lead to a shorter tour
+     * and is never queued. The tour is the result if no shorter one exists.
+     *
+     * @param tour -> The closed path of the initial tour (start city repeated at the end)
+     */
+    public void setInitialTour(List<Integer> tour) {
+        if (graph == null || !TSPConstruction.isTour(graph, tour, tour == null || tour.isEmpty() ? -1 : tour.get(0))) {
+            System.err.println("The initial tour must visit every city exactly once, along existing edges");
+            return;
+        }
+        initialTour = new ArrayList<>(tour);
+        initialCost = (int) TSPConstruction.cost(graph, tour);
+    }
+
+    /**
+     * Sets the memory budget of solve(): the number of nodes the frontier plus the closed set may hold before the
+     * search continues as IDA*. The default is a quarter of the maximum heap size.
+     *
+     * @param maxNodes -> The maximum number of nodes kept in memory
+     */
+    public void setMaxNodes(int maxNodes) {
+        if (maxNodes <= 0) {
+            System.err.println("The node budget must be positive");
+            return;
+        }
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Gets the default memory budget: as many nodes as fit in a quarter of the maximum heap size, so the search leaves
+     * room for the other solvers sharing the heap.
+     *
+     * @return : The default maximum number of nodes kept in memory
+     */
+    public static int defaultMaxNodes() {
+        return (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 4 / BYTES_PER_NODE);
+    }
+
+    /**
+     * Turns the Held-Karp bound on or off. When it is on, the heuristic is the larger of the MST heuristic and the
+     * Held-Karp bound (subgradient-optimized spanning trees), which is much tighter and expands far fewer nodes,
+     * at the price of a few spanning trees per child.
+     *
+     * @param enabled -> True to use the Held-Karp bound
+     */
+    public void setHeldKarpBound(boolean enabled) {
+        if (!enabled) {
+            heldKarp = null;
+        } else if (graph != null && graph.getNumCities() <= MSTCache.MAX_CITIES) {
+            heldKarp = new HeldKarpBound(graph);
+        } else {
+            System.err.println("The Held-Karp bound supports at most " + MSTCache.MAX_CITIES + " cities");
+        }
+    }
+
+    /**
+     * Solves the problem with A*, bounded by a control. The control's incumbent (or, if it has none, a construction
+     * tour) is the initial upper bound.
+     * The search is memory-bounded (see setMaxNodes), so it falls back to IDA* instead of running out of heap.
+     * A* only finds a tour when it proves it optimal, so a stopped solve returns the control's incumbent (if any).
+     *
+     * @param start -> The starting city index
+     * @param control -> The limits of the solve and the shared incumbent
+     * @return : The best tour known when the search ends, or null if none
+     */
+    @Override
+    public Tour solve(int start, SolveControl control) {
+        if (graph == null || start < 0 || start >= graph.getNumCities()) {
+            System.err.println("Invalid start city index");
+            return null;
+        }
+        TSPConstruction.seed(graph, start, control); // Initial upper bound, unless the control already has one
+        this.control = control;
+        Path path;
+        try {
+            path = search(start, maxNodes);
+        } finally {
+            this.control = null;
+        }
+        if (path == null) {
+            return control.result(start, null, 0, !stopped);
+        }
+        return control.result(start, path.getNodes(), path.getGCost(), !stopped);
+    }
+
+    /**
+     * Gets the name of the solver.
+     *
+     * @return : The name of the solver
+     */
+    @Override
+    public String getName() {
+        return "A*";
     }
 
     /**
@@ -25,35 +151,399 @@ public class TSPAStar {
      * @return -> A Path object representing the found path with minimum cost, or null if no path is found
      */
     public Path search(int start) {
-        // Priority queue to manage the paths based on their f-cost (priority)
-        PriorityQueue<Path> pq = new PriorityQueue<>(Comparator.comparingInt(Path::getFCost));
-        pq.add(new Path(start, graph)); // Add the initial path starting from 'start'
+        return search(start, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Method to search for the minimum cost path using A* algorithm, with a bounded amount of memory.
+     * The search runs as A* while the frontier plus the closed set hold at most maxNodes nodes. When the budget is
+     * exceeded they are discarded and the search continues as iterative-deepening A* (IDA*), which only keeps the
+     * current path in memory. The smallest f-cost in the discarded frontier is a lower bound on the optimal cost,
+     * so it is used as the first IDA* threshold and the returned path is still optimal.
+     *
+     * @param start -> The starting city index
+     * @param maxNodes -> The maximum number of nodes kept in memory before switching to IDA*
+     * @return -> A Path object representing the found path with minimum cost, or null if no path is found
+     */
+    public Path search(int start, int maxNodes) {
+        if (graph.getNumCities() > MSTCache.MAX_CITIES) {
+            System.err.println("A* supports at most " + MSTCache.MAX_CITIES + " cities");
+            return null;
+        }
+        startMetrics();
+        return finishMetrics(aStar(start, maxNodes));
+    }
+
+    /**
+     * The A* search loop of search(int, int).
+     *
+     * @param start -> The starting city index
+     * @param maxNodes -> The maximum number of nodes kept in memory before switching to IDA*
+     * @return -> A Path object representing the found path with minimum cost, or null if no path is found
+     */
+    private Path aStar(int start, int maxNodes) {
+        int n = graph.getNumCities();
+
+        // Priority queue to manage the search nodes based on their f-cost (priority)
+        NodeHeap pq = new NodeHeap(n * n);
+        DominanceTable closed = new DominanceTable(n * n); // Cheapest g-cost seen for every (visited set, last city) state
+        SearchNode root = new SearchNode(start, timedHeuristic(start, start, 1L << start, Integer.MAX_VALUE));
+        pq.push(root.fCost, root); // Add the start node
 
         // Loop until the priority queue is empty
         while (!pq.isEmpty()) {
-            // Extract the path with the minimum f-cost
-            Path path = pq.poll();
+            // Extract the node with the minimum f-cost
+            SearchNode node = pq.pop();
+
+            // Skip nodes superseded by a cheaper path to the same state after they were queued
+            if (closed.isDominated(node.visited, node.city, node.gCost)) {
+                continue;
+            }
+
+            if (shouldStop()) {
+                return initialPath(start); // Stopped before the optimal tour was found
+            }
+            int bound = bound(); // The shared incumbent may have improved
+
+            // Switch to IDA* if the memory budget is exceeded, starting at the smallest f-cost left in the frontier
+            if (pq.size() + closed.size() > maxNodes) {
+                int threshold = Math.min(node.fCost, pq.peekKey());
+                pq = null; // Let the frontier and the closed set be collected
+                closed = null;
+                return searchIterativeDeepening(start, threshold);
+            }
 
             // Check if all cities have been visited
-            if (path.visitedAll(graph.getNumCities())) {
-                // Add the return trip to the start city
-                path.add(start, graph.getDistance(path.getLast(), start), graph);
+            if (node.depth == n) {
+                // Build the full path only for the winning node, and add the return trip to the start city
+                Path path = new Path(node.toList(), node.visited, node.gCost, graph, mstCache);
+                path.add(start, graph.getDistance(node.city, start), graph);
+                metrics.recordIncumbent(path.getGCost());
                 return path;
             }
 
             // Explore neighboring cities
-            for (int i = 0; i < graph.getNumCities(); i++) {
-                if (!path.contains(i) && graph.getDistance(path.getLast(), i) > 0) {
-                    // Create a new path by extending the current path
-                    Path newPath = new Path(path);
-                    newPath.add(i, graph.getDistance(path.getLast(), i), graph);
-                    pq.add(newPath); // Add the new path to the priority queue
+            for (int i = 0; i < n; i++) {
+                int distance = graph.getDistance(node.city, i);
+                if (!node.contains(i) && distance > 0) {
+                    // Create a child node that shares the current node as its parent
+                    int gCost = node.gCost + distance;
+                    pendingGenerated++;
+                    if (!closed.offer(node.visited | (1L << i), i, gCost)) {
+                        pendingPruned++;
+                        continue; // Dominated by (or duplicate of) a path to the same state
+                    }
+                    int hCost = timedHeuristic(i, start, node.visited | (1L << i), bound - gCost);
+                    if (gCost + hCost >= bound || hCost >= HeldKarpBound.INFEASIBLE) {
+                        pendingPruned++;
+                        continue; // Cannot beat the initial tour (or the shared incumbent)
+                    }
+                    pq.push(gCost + hCost, new SearchNode(node, i, gCost, gCost + hCost));
                 }
             }
+            peakFrontier = Math.max(peakFrontier, pq.size());
+        }
+
+        // If no shorter path is found, the initial tour (if any) is optimal
+        return initialPath(start);
+    }
+
+    /**
+     * Method to search for the minimum cost path using iterative-deepening A* (IDA*).
+     * Every iteration is a depth-first search that cuts the paths whose f-cost exceeds a threshold; the next threshold is
+     * the smallest f-cost that was cut. Only the current path is kept in memory (plus the bounded MST cache).
+     *
+     * @param start -> The starting city index
+     * @return -> A Path object representing the found path with minimum cost, or null if no path is found
+     */
+    public Path searchIterativeDeepening(int start) {
+        if (graph.getNumCities() > MSTCache.MAX_CITIES) {
+            System.err.println("A* supports at most " + MSTCache.MAX_CITIES + " cities");
+            return null;
+        }
+        startMetrics();
+        return finishMetrics(searchIterativeDeepening(start, timedHeuristic(start, start, 1L << start, Integer.MAX_VALUE)));
+    }
+
+    /**
+     * Runs IDA* iterations from a given initial threshold until the optimal tour is found.
+     *
+     * @param start -> The starting city index
+     * @param threshold -> The first f-cost threshold (a lower bound on the optimal cost)
+     * @return -> A Path object representing the found path with minimum cost, or null if no path is found
+     */
+    private Path searchIterativeDeepening(int start, int threshold) {
+        int n = graph.getNumCities();
+        int[] cities = new int[n]; // The current path
+        cities[0] = start;
+
+        while (threshold != Integer.MAX_VALUE) {
+            if (threshold >= bound()) {
+                return initialPath(start); // No tour is shorter than the initial one (or the shared incumbent)
+            }
+            int next = idaStar(cities, 1, 1L << start, 0, threshold);
+            if (stopped) {
+                return initialPath(start); // Stopped before the optimal tour was found
+            }
+            if (next == FOUND) {
+                List<Integer> nodes = new ArrayList<>();
+                int gCost = 0;
+                for (int i = 0; i < n; i++) {
+                    nodes.add(cities[i]);
+                    if (i > 0) {
+                        gCost += graph.getDistance(cities[i - 1], cities[i]);
+                    }
+                }
+                long visited = n == 64 ? -1L : (1L << n) - 1;
+                Path path = new Path(nodes, visited, gCost, graph, mstCache);
+                path.add(start, graph.getDistance(cities[n - 1], start), graph); // Add the return trip to the start city
+                metrics.recordIncumbent(path.getGCost());
+                return path;
+            }
+            threshold = next; // Smallest f-cost above the previous threshold
+        }
+
+        // If no shorter path is found, the initial tour (if any) is optimal
+        return initialPath(start);
+    }
+
+    /**
+     * Counts an expanded node and checks if the control of the current solve asks to stop.
+     *
+     * @return : True if the search must stop
+     */
+    private boolean shouldStop() {
+        pendingExpanded++;
+        if ((++nodes & SolveControl.CHECK_MASK) == 0) {
+            flushMetrics();
+            if (control != null && control.shouldStop(nodes)) {
+                stopped = true;
+            }
+        }
+        return stopped;
+    }
+
+    /**
+     * Evaluates the heuristic, timing one call out of SearchMetrics.HEURISTIC_SAMPLE_MASK + 1.
+     *
+     * @param current -> The current node (city)
+     * @param start -> The start node (city) the tour returns to
+     * @param visited -> The bitmask of the visited nodes
+     * @param cutoff -> The heuristic cost at which the node is cut (the Held-Karp bound stops there)
+     * @return : The heuristic cost
+     */
+    private int timedHeuristic(int current, int start, long visited, int cutoff) {
+        if ((++pendingHeuristicCalls & SearchMetrics.HEURISTIC_SAMPLE_MASK) != 0) {
+            return heuristic(current, start, visited, cutoff);
+        }
+        long begin = System.nanoTime();
+        int h = heuristic(current, start, visited, cutoff);
+        pendingHeuristicNanos += System.nanoTime() - begin;
+        return h;
+    }
+
+    /**
+     * Evaluates the MST heuristic, raised to the Held-Karp bound if it is on and the MST heuristic does not
+     * already reach the cutoff.
+     *
+     * @param current -> The current node (city)
+     * @param start -> The start node (city) the tour returns to
+     * @param visited -> The bitmask of the visited nodes
+     * @param cutoff -> The heuristic cost at which the node is cut
+     * @return : The heuristic cost
+     */
+    private int heuristic(int current, int start, long visited, int cutoff) {
+        int h = heuristic(graph, mstCache, current, start, visited);
+        if (heldKarp != null && h < cutoff) {
+            h = Math.max(h, heldKarp.lowerBound(current, start, visited, Long.bitCount(visited), cutoff));
+        }
+        return h;
+    }
+
+    /**
+     * Resets the counters and starts the metrics of a search.
+     */
+    private void startMetrics() {
+        nodes = 0;
+        stopped = false;
+        peakFrontier = 1;
+        metrics.start();
+    }
+
+    /**
+     * Adds the local counters to the metrics.
+     */
+    private void flushMetrics() {
+        metrics.addNodes(pendingExpanded, pendingGenerated, pendingPruned);
+        metrics.addHeuristic(pendingHeuristicCalls, pendingHeuristicNanos);
+        metrics.updatePeakFrontier(peakFrontier);
+        pendingExpanded = 0;
+        pendingGenerated = 0;
+        pendingPruned = 0;
+        pendingHeuristicCalls = 0;
+        pendingHeuristicNanos = 0;
+    }
+
+    /**
+     * Ends the metrics of a search.
+     *
+     * @param path -> The path found by the search (null if none)
+     * @return : The same path
+     */
+    private Path finishMetrics(Path path) {
+        flushMetrics();
+        metrics.finish(graph.getNumCities(), path == null ? Long.MAX_VALUE : path.getGCost(), !stopped);
+        return path;
+    }
+
+    /**
+     * Gets the metrics of the last search (live while a search is running).
+     *
+     * @return : The metrics
+     */
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the upper bound of the search: the cost of the initial tour, or the shared incumbent of the control if lower.
+     *
+     * @return : The upper bound
+     */
+    private int bound() {
+        if (control == null) {
+            return initialCost;
+        }
+        return (int) Math.min(initialCost, control.getIncumbentCost());
+    }
+
+    /**
+     * Builds the path of the initial tour, starting at the start city of the search.
+     *
+     * @param start -> The starting city index
+     * @return : The path of the initial tour, or null if no initial tour was set
+     */
+    private Path initialPath(int start) {
+        if (initialTour == null) {
+            return null;
+        }
+        List<Integer> nodes = TSPConstruction.rotate(initialTour, start);
+        int n = graph.getNumCities();
+        nodes.remove(n); // The return trip is added below
+        int gCost = (int) TSPConstruction.cost(graph, nodes);
+        long visited = n == 64 ? -1L : (1L << n) - 1;
+        Path path = new Path(nodes, visited, gCost, graph, mstCache);
+        path.add(start, graph.getDistance(nodes.get(n - 1), start), graph); // Add the return trip to the start city
+        return path;
+    }
+
+    /**
+     * One depth-first IDA* iteration below a partial path.
+     *
+     * @param cities -> The current path (the first depth entries are used)
+     * @param depth -> The number of cities in the path
+     * @param visited -> The bitmask of the visited cities
+     * @param gCost -> The actual cost of the path
+     * @param threshold -> The f-cost threshold of the iteration
+     * @return : FOUND if a tour within the threshold was found (left in cities), otherwise the smallest f-cost that was cut
+     */
+    private int idaStar(int[] cities, int depth, long visited, int gCost, int threshold) {
+        int n = graph.getNumCities();
+        int current = cities[depth - 1];
+        if (stopped || shouldStop()) {
+            return Integer.MAX_VALUE; // Unwind the iteration
+        }
+
+        peakFrontier = Math.max(peakFrontier, depth);
+        if (depth == n) {
+            int back = graph.getDistance(current, cities[0]);
+            if (back <= 0 && n > 1) {
+                return Integer.MAX_VALUE; // No path back to the start city
+            }
+            return gCost + back <= threshold ? FOUND : gCost + back;
+        }
+
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            int distance = graph.getDistance(current, i);
+            if ((visited & (1L << i)) != 0 || distance <= 0) {
+                continue;
+            }
+            int childG = gCost + distance;
+            long childVisited = visited | (1L << i);
+            int fCost = childG + timedHeuristic(i, cities[0], childVisited, threshold - childG + 1);
+            pendingGenerated++;
+            if (fCost > threshold) {
+                pendingPruned++;
+                min = Math.min(min, fCost); // Cut: remember the smallest f-cost above the threshold
+                continue;
+            }
+            cities[depth] = i;
+            int result = idaStar(cities, depth + 1, childVisited, childG, threshold);
+            if (result == FOUND || stopped) {
+                return result;
+            }
+            min = Math.min(min, result);
         }
+        return min;
+    }
+
+    /**
+     * Gets the number of heuristic evaluations whose MST cost was found in the cache.
+     *
+     * @return : The number of cache hits
+     */
+    public long getCacheHits() {
+        return mstCache.getHits();
+    }
 
-        // If no path is found, return null
-        return null;
+    /**
+     * Gets the number of heuristic evaluations that had to compute the MST.
+     *
+     * @return : The number of cache misses
+     */
+    public long getCacheMisses() {
+        return mstCache.getMisses();
+    }
+
+    /**
+     * Heuristic function: calculates the cost of the Minimum Spanning Tree (MST) of the unvisited nodes
+     * plus the cheapest connections from the current node and back to the start node.
+     * The MST cost is looked up in the cache by the unvisited bitmask, since many paths share the same unvisited set.
+     *
+     * @param graph -> The graph representing the cities and distances
+     * @param mstCache -> The cache used to evaluate the MST part of the heuristic
+     * @param current -> The current node (city)
+     * @param start -> The start node (city) the tour returns to
+     * @param visited -> The bitmask of the visited nodes
+     * @return : The heuristic cost
+     */
+    static int heuristic(Graph graph, MSTCache mstCache, int current, int start, long visited) {
+        int V = graph.getNumCities(); // Total number of cities
+        long all = V == 64 ? -1L : (1L << V) - 1; // Bitmask of all the cities
+        long unvisited = all & ~visited; // Bitmask of the unvisited nodes
+
+        // If all nodes are visited, return the distance to the start city (the path is a dead end without that edge)
+        if (unvisited == 0) {
+            int back = graph.getDistance(current, start);
+            return back > 0 || current == start ? back : HeldKarpBound.INFEASIBLE;
+        }
+
+        // Cost of the MST for the unvisited nodes
+        int mstCost = mstCache.mstCost(unvisited);
+
+        int minToUnvisited = Integer.MAX_VALUE; // Minimum distance from current node to any unvisited node
+        int minFromUnvisited = Integer.MAX_VALUE; // Minimum distance from any unvisited node to the start node
+
+        // Find the minimum distances
+        for (long rest = unvisited; rest != 0; rest &= rest - 1) {
+            int u = Long.numberOfTrailingZeros(rest);
+            minToUnvisited = Math.min(minToUnvisited, graph.getDistance(current, u));
+            minFromUnvisited = Math.min(minFromUnvisited, graph.getDistance(u, start));
+        }
+
+        // Return the heuristic cost
+        return mstCost + minToUnvisited + minFromUnvisited;
     }
 
     /**
@@ -61,6 +551,8 @@ public class TSPAStar {
      */
     public static class Path {
         private final List<Integer> nodes; // List of nodes (cities) in the path
+        private final MSTCache mstCache; // Cache used to evaluate the MST part of the heuristic
+        private long visited; // Bitmask of the visited nodes
         private int gCost; // Actual cost (g) of the path
         private int hCost; // Heuristic cost (h) to reach the destination
         private int fCost; // Total cost (f = g + h) of the path
@@ -72,10 +564,23 @@ public class TSPAStar {
          * @param graph -> The graph representing the cities and distances
          */
         public Path(int start, Graph graph) {
+            this(start, graph, new MSTCache(graph, MSTCache.DEFAULT_CAPACITY >> 4));
+        }
+
+        /**
+         * Constructor to create a new path with a single start node, sharing an MST cache.
+         *
+         * @param start -> The starting city index
+         * @param graph -> The graph representing the cities and distances
+         * @param mstCache -> The cache used to evaluate the MST part of the heuristic
+         */
+        public Path(int start, Graph graph, MSTCache mstCache) {
             nodes = new ArrayList<>(); // Initialize the list of nodes
             nodes.add(start); // Add the start city
+            this.mstCache = mstCache;
+            visited = 1L << start; // Mark the start city as visited
             gCost = 0; // Initial gCost is 0
-            hCost = heuristic(start, graph, new HashSet<>(nodes)); // Calculate the heuristic cost
+            hCost = heuristic(start, graph); // Calculate the heuristic cost
             fCost = gCost + hCost; // Calculate the total cost
         }
 
@@ -86,11 +591,31 @@ public class TSPAStar {
          */
         public Path(Path path) {
             nodes = new ArrayList<>(path.nodes); // Copy the list of nodes
+            mstCache = path.mstCache; // Share the cache
+            visited = path.visited; // Copy the visited bitmask
             gCost = path.gCost; // Copy the actual cost
             hCost = path.hCost; // Copy the heuristic cost
             fCost = path.fCost; // Copy the total cost
         }
 
+        /**
+         * Constructor for a path rebuilt from the nodes of a search node.
+         *
+         * @param nodes -> The nodes (cities) of the path
+         * @param visited -> The bitmask of the visited nodes
+         * @param gCost -> The actual cost of the path
+         * @param graph -> The graph representing the cities and distances
+         * @param mstCache -> The cache used to evaluate the MST part of the heuristic
+         */
+        private Path(List<Integer> nodes, long visited, int gCost, Graph graph, MSTCache mstCache) {
+            this.nodes = nodes;
+            this.mstCache = mstCache;
+            this.visited = visited;
+            this.gCost = gCost;
+            this.hCost = heuristic(getLast(), graph);
+            this.fCost = gCost + hCost;
+        }
+
         /**
          * Method to add a node and its cost to the path.
          *
@@ -100,8 +625,9 @@ public class TSPAStar {
          */
         public void add(int node, int distance, Graph graph) {
             nodes.add(node); // Add the new node to the list
+            visited |= 1L << node; // Mark the node as visited
             gCost += distance; // Update the actual cost
-            hCost = heuristic(node, graph, new HashSet<>(nodes)); // Recalculate the heuristic cost
+            hCost = heuristic(node, graph); // Recalculate the heuristic cost
             fCost = gCost + hCost; // Recalculate the total cost
         }
 
@@ -112,7 +638,7 @@ public class TSPAStar {
          * @return : True if the node is in the path, False otherwise
          */
         public boolean contains(int node) {
-            return nodes.contains(node); // Check if the node is in the list
+            return (visited & (1L << node)) != 0; // Check the node's bit in the visited bitmask
         }
 
         /**
@@ -162,112 +688,14 @@ public class TSPAStar {
         }
 
         /**
-         * Heuristic function: calculates the cost of the Minimum Spanning Tree (MST)
-         * plus the connection costs to unvisited nodes.
+         * Heuristic function, evaluated for the visited nodes of this path.
          *
          * @param current -> The current node (city)
          * @param graph -> The graph representing the cities and distances
-         * @param visited -> The set of visited nodes
          * @return : The heuristic cost
          */
-        private int heuristic(int current, Graph graph, Set<Integer> visited) {
-            int V = graph.getNumCities(); // Total number of cities
-            Set<Integer> unvisited = new HashSet<>(); // Set of unvisited nodes
-
-            // Add unvisited nodes to the set
-            for (int i = 0; i < V; i++) {
-                if (!visited.contains(i)) {
-                    unvisited.add(i);
-                }
-            }
-
-            // If all nodes are visited, return the distance to the start city
-            if (unvisited.isEmpty()) {
-                return graph.getDistance(current, 0);
-            }
-
-            // Calculate the cost of the MST for the unvisited nodes
-            int mstCost = calculateMST(unvisited, graph);
-
-            int minToUnvisited = Integer.MAX_VALUE; // Minimum distance from current node to any unvisited node
-            int minFromUnvisited = Integer.MAX_VALUE; // Minimum distance from any unvisited node to the start node
-
-            // Find the minimum distances
-            for (int u : unvisited) {
-                minToUnvisited = Math.min(minToUnvisited, graph.getDistance(current, u));
-                minFromUnvisited = Math.min(minFromUnvisited, graph.getDistance(u, 0));
-            }
-
-            // Return the heuristic cost
-            return mstCost + minToUnvisited + minFromUnvisited;
-        }
-
-        /**
-         * Calculates the cost of the Minimum Spanning Tree (MST) using Prim's algorithm
-         *
-         * @param unvisited -> The set of unvisited nodes
-         * @param graph -> The graph representing the cities and distances
-         * @return : The cost of the MST
-         */
-        private int calculateMST(Set<Integer> unvisited, Graph graph) {
-            if (unvisited.isEmpty()) {
-                return 0;
-            }
-
-            PriorityQueue<Edge> pq = new PriorityQueue<>(Comparator.comparingInt(e -> e.weight)); // Priority queue for edges
-            int totalCost = 0; // Total cost of the MST
-            Set<Integer> inMST = new HashSet<>(); // Set of nodes included in the MST
-            int start = unvisited.iterator().next(); // Start node for MST
-            inMST.add(start);
-
-            // Add edges from the start node to the priority queue
-            for (int u : unvisited) {
-                if (u != start) {
-                    pq.add(new Edge(start, u, graph.getDistance(start, u)));
-                }
-            }
-
-            // While there are nodes not included in the MST
-            while (inMST.size() < unvisited.size()) {
-                Edge edge = pq.poll(); // Get the edge with the minimum weight
-                if (inMST.contains(edge.to)) {
-                    continue; // Skip if the destination node is already in the MST
-                }
-                totalCost += edge.weight; // Add the weight to the total cost
-                inMST.add(edge.to); // Add the destination node to the MST
-
-                // Add new edges from the newly added node to the priority queue
-                for (int u : unvisited) {
-                    if (!inMST.contains(u)) {
-                        pq.add(new Edge(edge.to, u, graph.getDistance(edge.to, u)));
-                    }
-                }
-            }
-
-            return totalCost; // Return the total cost of the MST
-        }
-
-        /**
-         * Inner class to represent an edge in the MST graph.
-         */
-        private static class Edge {
-            int from; // Starting node of the edge
-            int to; // Ending node of the edge
-            int weight; // Weight (distance) of the edge
-
-            /**
-             * Constructor to create a new edge.
-             *
-             * @param from The starting node
-             * @param to The ending node
-             * @param weight The weight of the edge
-             */
-            public Edge(int from, int to, int weight) {
-                this.from = from;
-                this.to = to;
-                this.weight = weight;
-            }
+        private int heuristic(int current, Graph graph) {
+            return TSPAStar.heuristic(graph, mstCache, current, nodes.get(0), visited);
         }
     }
 }
-
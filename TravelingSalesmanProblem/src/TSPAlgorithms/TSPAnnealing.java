@@ -0,0 +1,456 @@
+package TSPAlgorithms;
+
+import Graphs.Graph;
+import Graphs.NeighborIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * The TSPAnnealing class implements parallel tempering (replica exchange) simulated annealing for the Traveling
+ * Salesman Problem (TSP). One replica per core anneals its own tour at a fixed temperature of a geometric ladder,
+ * with random 2-opt and Or-opt moves towards candidate neighbours. The cost change of a move is evaluated in O(1)
+ * from the edges it removes and adds, and a move that makes the tour longer by delta is accepted with probability
+ * exp(-delta / T). The inner loop works on primitive arrays (ArrayTour) with the replica's own SplittableRandom and
+ * allocates nothing.
+ * The replicas run in rounds on a ForkJoin pool. Between two rounds, neighbouring temperatures exchange their replicas
+ * with the Metropolis criterion of parallel tempering: the exchange only swaps two entries of the temperature ladder,
+ * so no tour is copied and no lock is needed. Good tours found at high temperatures sink to the cold end of the ladder,
+ * and the best tour of all the replicas is polished with 2-opt / Or-opt at the end.
+ */
+public class TSPAnnealing implements TSPSolver {
+    public static final int DEFAULT_NEIGHBORS = 10; // Default number of candidate neighbours per city
+    private static final int MAX_SEGMENT = 3; // Longest segment moved by Or-opt
+    private static final double HOT = 1.0; // Highest temperature, relative to the mean nearest-neighbour distance
+    private static final double COLD = 0.01; // Lowest temperature, relative to the mean nearest-neighbour distance
+
+    private final Graph graph; // The graph representing the cities and distances
+    private NeighborIndex neighbors; // Candidate neighbours of every city (built on first use)
+    private int numReplicas = Math.max(2, Runtime.getRuntime().availableProcessors()); // One replica per core
+    private int parallelism = Runtime.getRuntime().availableProcessors(); // Number of worker threads
+    private long timeLimitMillis = 1000; // Time budget of the search
+    private long seed = 42; // Seed of the random generators
+    private long bestCost; // Cost of the best tour
+    private List<Integer> bestPath; // Best tour
+    private long moves; // Number of moves tried by the last run
+    private long exchanges; // Number of accepted replica exchanges of the last run
+    private int rounds; // Number of rounds of the last run
+    private long elapsedNanos; // Duration of the last run
+
+    /**
+     * Constructor for TSPAnnealing.
+     *
+     * @param graph -> The graph on which the algorithm will run
+     */
+    public TSPAnnealing(Graph graph) {
+        this(graph, null);
+    }
+
+    /**
+     * Constructor for TSPAnnealing with a precomputed candidate-neighbour index.
+     *
+     * @param graph -> The graph on which the algorithm will run
+     * @param neighbors -> The candidate neighbours of every city (null to build them with DEFAULT_NEIGHBORS)
+     */
+    public TSPAnnealing(Graph graph, NeighborIndex neighbors) {
+        this.graph = graph;
+        if (graph == null) {
+            System.err.println("Graph cannot be null");
+        }
+        this.neighbors = neighbors;
+        this.bestCost = Long.MAX_VALUE;
+        this.bestPath = new ArrayList<>();
+    }
+
+    /**
+     * Sets the number of replicas.
+     *
+     * @param numReplicas -> The number of replicas, at least 2
+     */
+    public void setNumReplicas(int numReplicas) {
+        if (numReplicas < 2) {
+            System.err.println("Parallel tempering needs at least 2 replicas");
+            return;
+        }
+        this.numReplicas = numReplicas;
+    }
+
+    /**
+     * Sets the number of worker threads that anneal the replicas (at most one per replica).
+     *
+     * @param parallelism -> The number of worker threads
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            System.err.println("Parallelism must be positive");
+            return;
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the time budget of the search.
+     *
+     * @param timeLimitMillis -> The time budget in milliseconds
+     */
+    public void setTimeLimit(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    /**
+     * Sets the seed of the random generators.
+     *
+     * @param seed -> The seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Anneals a greedy tour, with the resulting path starting from a specified city.
+     *
+     * @param start -> The starting city index
+     */
+    public void search(int start) {
+        run(start, null);
+    }
+
+    /**
+     * Solves the problem with parallel tempering, bounded by a control: the rounds also stop when the control
+     * says so (the node count is the number of rounds). The result is never proven optimal.
+     *
+     * @param start -> The starting city index
+     * @param control -> The limits of the solve and the shared incumbent
+     * @return : The best tour known when the search ends, or null if none
+     */
+    @Override
+    public Tour solve(int start, SolveControl control) {
+        if (!run(start, control)) {
+            return null;
+        }
+        return control.result(start, bestPath, bestCost, false);
+    }
+
+    /**
+     * Gets the name of the solver.
+     *
+     * @return : The name of the solver
+     */
+    @Override
+    public String getName() {
+        return "Parallel tempering";
+    }
+
+    /**
+     * Runs the replicas until the time budget is used.
+     *
+     * @param start -> The city the resulting path starts and ends at
+     * @param control -> The control of the solve (null for search)
+     * @return : True if the search ran, False if the arguments are invalid
+     */
+    private boolean run(int start, SolveControl control) {
+        if (graph == null || start < 0 || start >= graph.getNumCities()) {
+            System.err.println("Invalid start city index");
+            return false;
+        }
+        int n = graph.getNumCities();
+        long startTime = System.nanoTime();
+        long deadline = startTime + timeLimitMillis * 1_000_000L;
+        moves = 0;
+        exchanges = 0;
+        rounds = 0;
+
+        List<Integer> initial = TSPConstruction.greedyEdge(graph, start);
+        if (n < MAX_SEGMENT + 5) {
+            // Too small to anneal: a greedy tour polished by local search
+            TSPLocalSearch localSearch = new TSPLocalSearch(graph);
+            localSearch.improve(initial);
+            bestPath = localSearch.getBestPath();
+            bestCost = localSearch.getBestCost();
+            elapsedNanos = System.nanoTime() - startTime;
+            return true;
+        }
+        if (neighbors == null) {
+            neighbors = NeighborIndex.build(graph, DEFAULT_NEIGHBORS);
+        }
+
+        // Geometric temperature ladder, scaled by the mean distance to the nearest neighbour
+        double scale = 0;
+        for (int city = 0; city < n; city++) {
+            scale += graph.getDistance(city, neighbors.getNeighbor(city, 0));
+        }
+        scale = Math.max(1, scale / n);
+        double[] temperatures = new double[numReplicas];
+        for (int i = 0; i < numReplicas; i++) {
+            temperatures[i] = scale * COLD * Math.pow(HOT / COLD, (double) i / (numReplicas - 1));
+        }
+
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = initial.get(i);
+        }
+        long initialCost = new ArrayTour(order).cost(graph); // Counts the missing edges as the moves do
+        SplittableRandom master = new SplittableRandom(seed);
+        Replica[] replicas = new Replica[numReplicas];
+        int[] ladder = new int[numReplicas]; // ladder[i] = the replica at temperature i
+        for (int i = 0; i < numReplicas; i++) {
+            replicas[i] = new Replica(order, initialCost, master.split());
+            ladder[i] = i;
+        }
+        int roundMoves = Math.max(10_000, 10 * n); // Moves of every replica between two exchanges
+
+        ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, numReplicas));
+        try {
+            while (System.nanoTime() < deadline && (control == null || !control.shouldStop(rounds))) {
+                pool.submit(() -> IntStream.range(0, numReplicas).parallel()
+                        .forEach(i -> replicas[ladder[i]].anneal(temperatures[i], roundMoves))).join();
+                rounds++;
+                moves += (long) roundMoves * numReplicas;
+
+                // Replica exchange between neighbouring temperatures (even or odd pairs, alternately)
+                for (int i = rounds & 1; i + 1 < numReplicas; i += 2) {
+                    Replica cold = replicas[ladder[i]];
+                    Replica hot = replicas[ladder[i + 1]];
+                    double exponent = (1 / temperatures[i] - 1 / temperatures[i + 1]) * (cold.cost - hot.cost);
+                    if (exponent >= 0 || master.nextDouble() < Math.exp(exponent)) {
+                        int t = ladder[i];
+                        ladder[i] = ladder[i + 1];
+                        ladder[i + 1] = t;
+                        exchanges++;
+                    }
+                }
+                if (control != null) {
+                    Replica best = best(replicas);
+                    if (best.bestCost < control.getIncumbentCost()) {
+                        control.offer(new Tour(toPath(best.bestTour, start), best.bestCost, false));
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // Polish the best tour of all the replicas with a greedy descent
+        TSPLocalSearch localSearch = new TSPLocalSearch(graph, neighbors);
+        localSearch.improve(toPath(best(replicas).bestTour, start));
+        bestPath = localSearch.getBestPath();
+        bestCost = localSearch.getBestCost();
+        elapsedNanos = System.nanoTime() - startTime;
+        return true;
+    }
+
+    /**
+     * Finds the replica holding the best tour.
+     *
+     * @param replicas -> The replicas
+     * @return : The replica with the lowest best cost
+     */
+    private static Replica best(Replica[] replicas) {
+        Replica best = replicas[0];
+        for (Replica replica : replicas) {
+            if (replica.bestCost < best.bestCost) {
+                best = replica;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Converts a tour given in order into a closed path starting at a given city.
+     *
+     * @param tour -> The cities in tour order
+     * @param start -> The city the path starts and ends at
+     * @return : The closed path
+     */
+    private static List<Integer> toPath(int[] tour, int start) {
+        int n = tour.length;
+        int offset = 0;
+        while (tour[offset] != start) {
+            offset++;
+        }
+        List<Integer> path = new ArrayList<>(n + 1);
+        for (int i = 0; i < n; i++) {
+            path.add(tour[(offset + i) % n]);
+        }
+        path.add(start); // Add the start city to the end to complete the cycle
+        return path;
+    }
+
+    /**
+     * One replica: a tour with its cost, its own random generator, and the best tour it has held.
+     */
+    private final class Replica {
+        private final ArrayTour tour; // The current tour
+        private final SplittableRandom random; // Random generator of the replica
+        private final int[] bestTour; // Best tour held by the replica, in tour order
+        private long cost; // Cost of the current tour
+        private long bestCost; // Cost of the best tour
+
+        private Replica(int[] order, long cost, SplittableRandom random) {
+            this.tour = new ArrayTour(order);
+            this.random = random;
+            this.bestTour = order.clone();
+            this.cost = cost;
+            this.bestCost = cost;
+        }
+
+        /**
+         * Runs a number of Metropolis moves at a temperature, then saves the tour if it is the best so far.
+         *
+         * @param temperature -> The temperature
+         * @param count -> The number of moves to try
+         */
+        private void anneal(double temperature, int count) {
+            for (int i = 0; i < count; i++) {
+                if (random.nextBoolean()) {
+                    twoOpt(temperature);
+                } else {
+                    orOpt(temperature);
+                }
+            }
+            if (cost < bestCost) {
+                bestCost = cost;
+                for (int p = 0; p < bestTour.length; p++) {
+                    bestTour[p] = tour.cityAt(p);
+                }
+            }
+        }
+
+        /**
+         * Random 2-opt move: a random city a and one of its candidates c; removes (a, next(a)) and (c, next(c)).
+         *
+         * @param temperature -> The temperature
+         */
+        private void twoOpt(double temperature) {
+            int n = tour.size();
+            int a = random.nextInt(n);
+            int c = neighbors.getNeighbor(a, random.nextInt(neighbors.getK()));
+            int b = tour.next(a);
+            int d = tour.next(c);
+            if (c == b || d == a) {
+                return; // The edges are adjacent
+            }
+            long delta = edgeCost(a, c) + edgeCost(b, d) - edgeCost(a, b) - edgeCost(c, d);
+            if (accept(delta, temperature)) {
+                tour.move2opt(a, b, c, d);
+                cost += delta;
+            }
+        }
+
+        /**
+         * Random Or-opt move: a random segment of 1 to MAX_SEGMENT cities is moved next to a candidate of one of its
+         * ends, in the cheaper orientation.
+         *
+         * @param temperature -> The temperature
+         */
+        private void orOpt(double temperature) {
+            int n = tour.size();
+            int length = 1 + random.nextInt(MAX_SEGMENT);
+            int s1 = random.nextInt(n);
+            int s2 = s1;
+            for (int i = 1; i < length; i++) {
+                s2 = tour.next(s2);
+            }
+            int p = tour.prev(s1);
+            int nx = tour.next(s2);
+            int c = neighbors.getNeighbor(random.nextBoolean() ? s1 : s2, random.nextInt(neighbors.getK()));
+            if (tour.between(s1, c, s2)) {
+                return; // c is inside the segment
+            }
+            boolean after = random.nextBoolean();
+            int u = after ? c : tour.prev(c);
+            int v = after ? tour.next(c) : c;
+            if (u == p || u == s2 || v == p) {
+                return; // The insertion edge touches the segment
+            }
+
+            long removeGain = edgeCost(p, s1) + edgeCost(s2, nx) - edgeCost(p, nx);
+            long addUV = edgeCost(u, v);
+            long same = edgeCost(u, s1) + edgeCost(s2, v) - addUV; // u s1..s2 v
+            long reversed = edgeCost(u, s2) + edgeCost(s1, v) - addUV; // u s2..s1 v
+            boolean keepOrientation = same < reversed;
+            long delta = (keepOrientation ? same : reversed) - removeGain;
+            if (accept(delta, temperature)) {
+                TSPLocalSearch.applySegmentMove(tour, p, s1, s2, nx, u, v, keepOrientation);
+                cost += delta;
+            }
+        }
+
+        /**
+         * Gets the cost of an edge for the moves (see TSPLocalSearch.edgeCost): a missing edge is never accepted.
+         *
+         * @param a -> One city of the edge
+         * @param b -> The other city of the edge
+         * @return : The cost of the edge
+         */
+        private long edgeCost(int a, int b) {
+            return TSPLocalSearch.edgeCost(graph, a, b);
+        }
+
+        /**
+         * Metropolis criterion.
+         *
+         * @param delta -> The cost change of the move
+         * @param temperature -> The temperature
+         * @return : True if the move is accepted
+         */
+        private boolean accept(long delta, double temperature) {
+            return delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature);
+        }
+    }
+
+    /**
+     * Gets the best path found by the algorithm.
+     *
+     * @return : The list of cities representing the best path
+     */
+    public List<Integer> getBestPath() {
+        if (bestPath.isEmpty()) {
+            System.err.println("No path found. Please run the search method first.");
+            return new ArrayList<>();
+        }
+        return bestPath;
+    }
+
+    /**
+     * Gets the cost of the best path found by the algorithm
+     *
+     * @return : The cost of the best path
+     */
+    public long getBestCost() {
+        if (bestCost == Long.MAX_VALUE) {
+            System.err.println("No path found. Please run the search method first.");
+        }
+        return bestCost;
+    }
+
+    /**
+     * Gets the number of moves tried by the last run, over all the replicas.
+     *
+     * @return : The number of moves
+     */
+    public long getMoves() {
+        return moves;
+    }
+
+    /**
+     * Gets the throughput of the last run, over all the replicas.
+     *
+     * @return : The number of moves per second
+     */
+    public double getMovesPerSecond() {
+        return elapsedNanos == 0 ? 0 : moves * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Gets the number of accepted replica exchanges of the last run.
+     *
+     * @return : The number of exchanges
+     */
+    public long getExchanges() {
+        return exchanges;
+    }
+}
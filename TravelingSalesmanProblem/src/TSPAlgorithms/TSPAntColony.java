@@ -0,0 +1,559 @@
+package TSPAlgorithms;
+
+import Graphs.Graph;
+import Graphs.NeighborIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * The TSPAntColony class implements Ant Colony System (ACS) for the Traveling Salesman Problem (TSP).
+ * In every iteration the ants build their tours in parallel on a ForkJoin pool, each worker thread with its own
+ * scratch arrays and each ant with its own SplittableRandom, split from the seed in ant order. An ant at city i goes to a candidate neighbour j with a probability
+ * proportional to tau(i, j) * eta(i, j)^BETA (eta = 1 / distance), or greedily to the best one with probability Q0;
+ * when all the candidates are visited it goes to the nearest unvisited city.
+ * The pheromone is only kept for the candidate edges, in a primitive array with the layout of the NeighborIndex
+ * (float bits in an AtomicIntegerArray). The local update of ACS, applied by every ant to the edges it takes while
+ * the other ants are running, is a lock-free compare-and-set loop. After the iteration, the edges of the best tour
+ * get the global deposit. Every tour is improved with 2-opt / Or-opt before it is compared.
+ */
+public class TSPAntColony implements TSPSolver {
+    public static final int DEFAULT_NEIGHBORS = 15; // Default number of candidate neighbours per city
+    private static final double BETA = 2.0; // Weight of the distance against the pheromone
+    private static final double Q0 = 0.9; // Probability of taking the best candidate instead of a random one
+    private static final float RHO = 0.1f; // Evaporation rate of the global update
+    private static final float XI = 0.1f; // Evaporation rate of the local update
+
+    private final Graph graph; // The graph representing the cities and distances
+    private NeighborIndex neighbors; // Candidate neighbours of every city (built on first use)
+    private int numAnts = Math.max(10, Runtime.getRuntime().availableProcessors()); // Ants per iteration
+    private int parallelism = Runtime.getRuntime().availableProcessors(); // Number of worker threads
+    private long timeLimitMillis = 1000; // Time budget of the search
+    private int maxIterations = Integer.MAX_VALUE; // Maximum number of iterations
+    private long seed = 42; // Seed of the random generators
+    private boolean localSearch = true; // True to improve every tour with 2-opt / Or-opt
+
+    private AtomicIntegerArray pheromone; // Pheromone of the candidate edges (float bits), indexed like the neighbours
+    private double[] attractiveness; // eta^BETA of the candidate edges, indexed like the neighbours
+    private float tau0; // Initial pheromone
+    private long bestCost; // Cost of the best tour
+    private List<Integer> bestPath; // Best tour
+    private int iterations; // Number of iterations of the last run
+    private long elapsedNanos; // Duration of the last run
+    private List<long[]> history; // Best cost over time: {milliseconds since the start, cost} at every improvement
+
+    /**
+     * Constructor for TSPAntColony.
+     *
+     * @param graph -> The graph on which the algorithm will run
+     */
+    public TSPAntColony(Graph graph) {
+        this(graph, null);
+    }
+
+    /**
+     * Constructor for TSPAntColony with a precomputed candidate-neighbour index.
+     *
+     * @param graph -> The graph on which the algorithm will run
+     * @param neighbors -> The candidate neighbours of every city (null to build them with DEFAULT_NEIGHBORS)
+     */
+    public TSPAntColony(Graph graph, NeighborIndex neighbors) {
+        this.graph = graph;
+        if (graph == null) {
+            System.err.println("Graph cannot be null");
+        }
+        this.neighbors = neighbors;
+        this.bestCost = Long.MAX_VALUE;
+        this.bestPath = new ArrayList<>();
+        this.history = new ArrayList<>();
+    }
+
+    /**
+     * Sets the number of ants of every iteration.
+     *
+     * @param numAnts -> The number of ants
+     */
+    public void setNumAnts(int numAnts) {
+        if (numAnts <= 0) {
+            System.err.println("Number of ants must be positive");
+            return;
+        }
+        this.numAnts = numAnts;
+    }
+
+    /**
+     * Sets the number of worker threads.
+     *
+     * @param parallelism -> The number of worker threads
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            System.err.println("Parallelism must be positive");
+            return;
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the time budget of the search.
+     *
+     * @param timeLimitMillis -> The time budget in milliseconds
+     */
+    public void setTimeLimit(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    /**
+     * Sets the maximum number of iterations.
+     *
+     * @param maxIterations -> The maximum number of iterations
+     */
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Sets the seed of the random generators. Every ant draws from its own generator, so with one worker thread
+     * (setParallelism(1)) the same seed gives the same result; with more threads, the order in which the ants apply
+     * their local pheromone updates still varies from run to run.
+     *
+     * @param seed -> The seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Enables or disables the 2-opt / Or-opt improvement of the tours of the ants.
+     *
+     * @param localSearch -> True to improve every tour
+     */
+    public void setLocalSearch(boolean localSearch) {
+        this.localSearch = localSearch;
+    }
+
+    /**
+     * Runs the colony, with the tours starting from a specified city.
+     *
+     * @param start -> The starting city index
+     */
+    public void search(int start) {
+        run(start, null);
+    }
+
+    /**
+     * Solves the problem with the colony, bounded by a control: the iterations also stop when the control says so
+     * (the node count is the number of iterations), and every improved tour is published to it.
+     * The result is never proven optimal.
+     *
+     * @param start -> The starting city index
+     * @param control -> The limits of the solve and the shared incumbent
+     * @return : The best tour known when the search ends, or null if none
+     */
+    @Override
+    public Tour solve(int start, SolveControl control) {
+        if (!run(start, control)) {
+            return null;
+        }
+        return control.result(start, bestPath, bestCost, false);
+    }
+
+    /**
+     * Gets the name of the solver.
+     *
+     * @return : The name of the solver
+     */
+    @Override
+    public String getName() {
+        return "Ant colony";
+    }
+
+    /**
+     * Runs the iterations of the colony.
+     *
+     * @param start -> The city the resulting path starts and ends at
+     * @param control -> The control of the solve (null for search)
+     * @return : True if the colony ran, False if the arguments are invalid
+     */
+    private boolean run(int start, SolveControl control) {
+        if (graph == null || start < 0 || start >= graph.getNumCities()) {
+            System.err.println("Invalid start city index");
+            return false;
+        }
+        int n = graph.getNumCities();
+        long startTime = System.nanoTime();
+        long deadline = startTime + timeLimitMillis * 1_000_000L;
+        bestCost = Long.MAX_VALUE;
+        bestPath = new ArrayList<>();
+        history = new ArrayList<>();
+        iterations = 0;
+
+        if (n < 4) {
+            // Every tour has the same cost
+            List<Integer> path = TSPConstruction.nearestNeighbor(graph, start);
+            improved(path, TSPConstruction.cost(graph, path), startTime, control);
+            elapsedNanos = System.nanoTime() - startTime;
+            return true;
+        }
+        if (neighbors == null) {
+            neighbors = NeighborIndex.build(graph, DEFAULT_NEIGHBORS);
+        }
+        initPheromone(start);
+
+        int[][] tours = new int[numAnts][]; // The tour of every ant of the iteration
+        long[] costs = new long[numAnts]; // The cost of every ant's tour
+        SplittableRandom master = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[numAnts]; // The random generator of every ant
+        for (int a = 0; a < numAnts; a++) {
+            randoms[a] = master.split(); // Split in ant order, whatever thread runs the ant
+        }
+        ThreadLocal<Ant> ants = ThreadLocal.withInitial(() -> new Ant(n));
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            int[] globalBest = null;
+            while (iterations < maxIterations && System.nanoTime() < deadline
+                    && (control == null || !control.shouldStop(iterations))) {
+                if (parallelism == 1) {
+                    Ant ant = ants.get();
+                    for (int a = 0; a < numAnts; a++) {
+                        tours[a] = ant.buildTour(randoms[a]); // In ant order, so a seed gives the same result
+                        costs[a] = cost(tours[a]);
+                    }
+                } else {
+                    pool.submit(() -> IntStream.range(0, numAnts).parallel().forEach(a -> {
+                        Ant ant = ants.get();
+                        tours[a] = ant.buildTour(randoms[a]);
+                        costs[a] = cost(tours[a]);
+                    })).join();
+                }
+                iterations++;
+
+                int best = 0;
+                for (int a = 1; a < numAnts; a++) {
+                    if (costs[a] < costs[best]) {
+                        best = a;
+                    }
+                }
+                if (costs[best] < bestCost) {
+                    globalBest = tours[best];
+                    improved(toPath(globalBest, start), costs[best], startTime, control);
+                }
+                globalUpdate(globalBest, bestCost);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        elapsedNanos = System.nanoTime() - startTime;
+        return true;
+    }
+
+    /**
+     * Sets the pheromone of every candidate edge to tau0 = 1 / (n * L), L being the cost of a nearest-neighbour tour,
+     * and precomputes the attractiveness of the candidate edges.
+     *
+     * @param start -> The starting city of the nearest-neighbour tour
+     */
+    private void initPheromone(int start) {
+        int n = graph.getNumCities();
+        int k = neighbors.getK();
+        long nearestCost = TSPConstruction.cost(graph, TSPConstruction.nearestNeighbor(graph, start));
+        tau0 = (float) (1.0 / ((double) n * Math.max(1, nearestCost)));
+        pheromone = new AtomicIntegerArray(n * k);
+        attractiveness = new double[n * k];
+        int bits = Float.floatToRawIntBits(tau0);
+        for (int city = 0; city < n; city++) {
+            for (int rank = 0; rank < k; rank++) {
+                pheromone.set(city * k + rank, bits);
+                int d = graph.getDistance(city, neighbors.getNeighbor(city, rank));
+                attractiveness[city * k + rank] = d > 0 ? Math.pow(1.0 / d, BETA) : 0; // Distance 0: no edge
+            }
+        }
+    }
+
+    /**
+     * Global update of ACS: the edges of the best tour evaporate and get a deposit of RHO / cost.
+     * It runs between the iterations, when no ant is running.
+     *
+     * @param tour -> The best tour
+     * @param cost -> The cost of the best tour
+     */
+    private void globalUpdate(int[] tour, long cost) {
+        float deposit = (float) (1.0 / Math.max(1, cost));
+        int n = tour.length;
+        for (int i = 0; i < n; i++) {
+            int a = tour[i];
+            int b = tour[i + 1 == n ? 0 : i + 1];
+            update(a, b, RHO, deposit);
+            update(b, a, RHO, deposit);
+        }
+    }
+
+    /**
+     * Moves the pheromone of a candidate edge towards a target value: tau = (1 - rate) * tau + rate * target,
+     * with a lock-free compare-and-set loop. Edges outside the candidate lists have no pheromone and are skipped.
+     *
+     * @param from -> The city whose candidate list holds the edge
+     * @param to -> The other city of the edge
+     * @param rate -> The evaporation rate
+     * @param target -> The target value
+     */
+    private void update(int from, int to, float rate, float target) {
+        int index = candidateIndex(from, to);
+        if (index < 0) {
+            return;
+        }
+        while (true) {
+            int bits = pheromone.get(index);
+            float updated = (1 - rate) * Float.intBitsToFloat(bits) + rate * target;
+            if (pheromone.compareAndSet(index, bits, Float.floatToRawIntBits(updated))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Finds the position of an edge in the candidate arrays.
+     *
+     * @param from -> The city whose candidate list is searched
+     * @param to -> The candidate city
+     * @return : The index of the edge, or -1 if 'to' is not a candidate of 'from'
+     */
+    private int candidateIndex(int from, int to) {
+        int k = neighbors.getK();
+        for (int rank = 0; rank < k; rank++) {
+            if (neighbors.getNeighbor(from, rank) == to) {
+                return from * k + rank;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Calculates the cost of a tour given in order, including the return to the first city.
+     *
+     * @param tour -> The cities in tour order
+     * @return : The cost of the tour
+     */
+    private long cost(int[] tour) {
+        long total = 0;
+        for (int i = 0; i < tour.length; i++) {
+            total += TSPLocalSearch.edgeCost(graph, tour[i], tour[i + 1 == tour.length ? 0 : i + 1]);
+        }
+        return total;
+    }
+
+    /**
+     * Records an improved best tour, in the history and in the control.
+     *
+     * @param path -> The closed path of the tour
+     * @param cost -> The cost of the tour
+     * @param startTime -> The System.nanoTime() value at the start of the run
+     * @param control -> The control of the solve (null for search)
+     */
+    private void improved(List<Integer> path, long cost, long startTime, SolveControl control) {
+        bestCost = cost;
+        bestPath = path;
+        history.add(new long[]{(System.nanoTime() - startTime) / 1_000_000L, cost});
+        if (control != null) {
+            control.offer(new Tour(path, cost, false));
+        }
+    }
+
+    /**
+     * Converts a tour given in order into a closed path starting at a given city.
+     *
+     * @param tour -> The cities in tour order
+     * @param start -> The city the path starts and ends at
+     * @return : The closed path
+     */
+    private static List<Integer> toPath(int[] tour, int start) {
+        int n = tour.length;
+        int offset = 0;
+        while (tour[offset] != start) {
+            offset++;
+        }
+        List<Integer> path = new ArrayList<>(n + 1);
+        for (int i = 0; i < n; i++) {
+            path.add(tour[(offset + i) % n]);
+        }
+        path.add(start); // Add the start city to the end to complete the cycle
+        return path;
+    }
+
+    /**
+     * Per-thread state of the ants: visit marks and scratch arrays, reused for every tour.
+     */
+    private final class Ant {
+        private SplittableRandom random; // Random generator of the ant whose tour is being built
+        private final int[] visitStamp; // visitStamp[c] == stamp if city c is visited by the current tour
+        private final double[] weights; // Weights of the unvisited candidates of the current city
+        private final int[] choices; // The unvisited candidates of the current city
+        private final TSPLocalSearch improver; // 2-opt / Or-opt of the worker thread
+        private int stamp; // Identifier of the current tour
+
+        private Ant(int n) {
+            this.visitStamp = new int[n];
+            this.weights = new double[neighbors.getK()];
+            this.choices = new int[neighbors.getK()];
+            this.improver = new TSPLocalSearch(graph, neighbors);
+        }
+
+        /**
+         * Builds the tour of one ant from a random city, applying the local pheromone update to every edge taken.
+         *
+         * @param random -> The random generator of the ant
+         * @return : The cities in tour order
+         */
+        private int[] buildTour(SplittableRandom random) {
+            this.random = random;
+            int n = visitStamp.length;
+            int k = neighbors.getK();
+            int[] tour = new int[n];
+            stamp++;
+            tour[0] = random.nextInt(n);
+            visitStamp[tour[0]] = stamp;
+
+            for (int i = 1; i < n; i++) {
+                int current = tour[i - 1];
+                int next = chooseCandidate(current, k);
+                if (next < 0) {
+                    next = nearestUnvisited(current);
+                }
+                tour[i] = next;
+                visitStamp[next] = stamp;
+                update(current, next, XI, tau0); // Local update: makes the edge less attractive to the other ants
+                update(next, current, XI, tau0);
+            }
+            update(tour[n - 1], tour[0], XI, tau0);
+            update(tour[0], tour[n - 1], XI, tau0);
+
+            if (localSearch) {
+                ArrayTour arrayTour = new ArrayTour(tour);
+                improver.optimize(arrayTour);
+                return arrayTour.toArray();
+            }
+            return tour;
+        }
+
+        /**
+         * Chooses the next city among the unvisited candidates of the current city (ACS pseudo-random proportional rule).
+         *
+         * @param current -> The current city
+         * @param k -> The number of candidates per city
+         * @return : The chosen city, or -1 if all the candidates are visited
+         */
+        private int chooseCandidate(int current, int k) {
+            int count = 0;
+            double total = 0;
+            int best = -1;
+            double bestWeight = -1;
+            for (int rank = 0; rank < k; rank++) {
+                int city = neighbors.getNeighbor(current, rank);
+                int index = current * k + rank;
+                if (visitStamp[city] == stamp || attractiveness[index] == 0) {
+                    continue; // Visited, or not connected to the current city
+                }
+                double weight = Float.intBitsToFloat(pheromone.get(index)) * attractiveness[index];
+                choices[count] = city;
+                weights[count++] = weight;
+                total += weight;
+                if (weight > bestWeight) {
+                    bestWeight = weight;
+                    best = city;
+                }
+            }
+            if (count == 0 || random.nextDouble() < Q0) {
+                return best; // Exploitation (or -1 if no candidate is left)
+            }
+
+            // Exploration: roulette wheel over the candidates
+            double r = random.nextDouble() * total;
+            for (int c = 0; c < count - 1; c++) {
+                r -= weights[c];
+                if (r < 0) {
+                    return choices[c];
+                }
+            }
+            return choices[count - 1];
+        }
+
+        /**
+         * Finds the nearest unvisited city, when all the candidates of the current city are visited.
+         * A city without an edge from the current city is only chosen when no connected city is left.
+         *
+         * @param current -> The current city
+         * @return : The nearest unvisited city
+         */
+        private int nearestUnvisited(int current) {
+            int next = -1;
+            long best = Long.MAX_VALUE;
+            for (int c = 0; c < visitStamp.length; c++) {
+                if (visitStamp[c] != stamp) {
+                    long d = TSPLocalSearch.edgeCost(graph, current, c);
+                    if (d < best) {
+                        best = d;
+                        next = c;
+                    }
+                }
+            }
+            return next;
+        }
+    }
+
+    /**
+     * Gets the best path found by the algorithm.
+     *
+     * @return : The list of cities representing the best path
+     */
+    public List<Integer> getBestPath() {
+        if (bestPath.isEmpty()) {
+            System.err.println("No path found. Please run the search method first.");
+            return new ArrayList<>();
+        }
+        return bestPath;
+    }
+
+    /**
+     * Gets the cost of the best path found by the algorithm
+     *
+     * @return : The cost of the best path
+     */
+    public long getBestCost() {
+        if (bestCost == Long.MAX_VALUE) {
+            System.err.println("No path found. Please run the search method first.");
+        }
+        return bestCost;
+    }
+
+    /**
+     * Gets the number of iterations of the last run.
+     *
+     * @return : The number of iterations
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Gets the throughput of the last run.
+     *
+     * @return : The number of iterations per second
+     */
+    public double getIterationsPerSecond() {
+        return elapsedNanos == 0 ? 0 : iterations * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Gets the best cost over time of the last run: one entry {milliseconds since the start, cost} per improvement.
+     *
+     * @return : The history of the best cost
+     */
+    public List<long[]> getHistory() {
+        return history;
+    }
+}
@@ -0,0 +1,800 @@
+package TSPAlgorithms;
+
+import Graphs.Graph;
+import Graphs.NeighborIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The TSPConstruction class groups fast tour construction heuristics for the Traveling Salesman Problem (TSP).
+ * They run in about O(n^2) or better on any Graph, and return
+ * a closed path (start city repeated at the end), in the same form as TSPDFS.getBestPath().
+ * Their cost is a good initial upper bound for the exact solvers, which can then prune from the very first node.
+ */
+public final class TSPConstruction {
+    private static final int GREEDY_NEIGHBORS = 10; // Candidate edges per city considered by the greedy edge heuristic
+
+    private TSPConstruction() {
+    }
+
+    /**
+     * Builds the initial upper bound of an exact solver: the shorter of the greedy edge and nearest neighbour tours
+     * that are valid tours of the graph.
+     *
+     * @param graph -> The graph representing the cities and distances
+     * @param start -> The starting city index
+     * @return : The closed path of the tour, or null if neither heuristic found a tour along existing edges
+     */
+    public static List<Integer> initialTour(Graph graph, int start) {
+        List<Integer> best = null;
+        long bestCost = Long.MAX_VALUE;
+        for (int heuristic = 0; heuristic < 2; heuristic++) {
+            List<Integer> tour = heuristic == 0 ? greedyEdge(graph, start) : nearestNeighbor(graph, start);
+            if (isTour(graph, tour, start) && cost(graph, tour) < bestCost) {
+                best = tour;
+                bestCost = cost(graph, tour);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Offers the initial tour of an exact solve to its control, unless the control already has an incumbent.
+     * The exact solvers prune with the control's incumbent, so they start from this upper bound.
+     *
+     * @param graph -> The graph representing the cities and distances
+     * @param start -> The starting city index
+     * @param control -> The control of the solve
+     */
+    static void seed(Graph graph, int start, SolveControl control) {
+        if (control.getIncumbent() != null) {
+            return;
+        }
+        List<Integer> tour = initialTour(graph, start);
+        if (tour != null) {
+            control.offer(new Tour(tour, cost(graph, tour), false));
+        }
+    }
+
+    /**
+     * Nearest neighbour: from the current city, always go to the nearest unvisited city, through a missing edge only
+     * if no unvisited city is connected to it. O(n^2).
+     *
+     * @param graph -> The graph representing the cities and distances
+     * @param start -> The starting city index
+     * @return : The closed path of the tour
+     */
+    public static List<Integer> nearestNeighbor(Graph graph, int start) {
+        int n = graph.getNumCities();
+        boolean[] visited = new boolean[n];
+        int[] row = new int[n];
+        int[] order = new int[n];
+        order[0] = start;
+        visited[start] = true;
+
+        for (int i = 1; i < n; i++) {
+            graph.getRow(order[i - 1], row);
+            int next = -1;
+            for (int c = 0; c < n; c++) {
+                if (!visited[c] && (next == -1 || edgeKey(row[c]) < edgeKey(row[next]))) {
+                    next = c;
+                }
+            }
+            order[i] = next;
+            visited[next] = true;
+        }
+        return toPath(order, start);
+    }
+
+    /**
+     * Greedy edge: repeatedly adds the shortest edge that keeps every city at degree 2 or less and closes no cycle early.
+     * The edges come from the candidate neighbours of every city; the fragments left at the end are joined greedily
+     * by their endpoints, through a heap of nearest-endpoint candidates. About O(nk log nk + e^2) for k candidates and
+     * e fragment endpoints.
+     *
+     * @param graph -> The graph representing the cities and distances
+     * @param start -> The city the returned path starts at
+     * @return : The closed path of the tour
+     */
+    public static List<Integer> greedyEdge(Graph graph, int start) {
+        int n = graph.getNumCities();
+        if (n < 3) {
+            return nearestNeighbor(graph, start);
+        }
+        NeighborIndex neighbors = NeighborIndex.build(graph, GREEDY_NEIGHBORS);
+        int k = neighbors.getK();
+
+        // Candidate edges (i, j) with i < j, sorted by length (packed as length << 32 | i * k + rank)
+        long[] edges = new long[n * k];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            for (int rank = 0; rank < k; rank++) {
+                int j = neighbors.getNeighbor(i, rank);
+                if ((i < j || !isNeighbor(neighbors, j, i)) && graph.getDistance(i, j) > 0) {
+                    edges[count++] = ((long) graph.getDistance(i, j) << 32) | (i * k + rank);
+                }
+            }
+        }
+        Arrays.sort(edges, 0, count);
+
+        int[] degree = new int[n];
+        int[] adjacency = new int[2 * n]; // The two tour neighbours of every city
+        Arrays.fill(adjacency, -1);
+        int[] parent = new int[n]; // Union-find over the fragments
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+
+        int added = 0;
+        for (int e = 0; e < count && added < n - 1; e++) {
+            int index = (int) (edges[e] & 0xFFFFFFFFL);
+            int i = index / k;
+            int j = neighbors.getNeighbor(i, index % k);
+            if (degree[i] < 2 && degree[j] < 2 && find(parent, i) != find(parent, j)) {
+                link(adjacency, degree, parent, i, j);
+                added++;
+            }
+        }
+
+        // Join the remaining fragments through their endpoints, shortest connection first
+        if (added < n - 1) {
+            joinFragments(graph, adjacency, degree, parent, n - 1 - added);
+        }
+
+        // Walk the Hamiltonian path from one endpoint; the tour closes back to it
+        int first = 0;
+        while (degree[first] == 2) {
+            first++;
+        }
+        int[] order = new int[n];
+        int previous = -1;
+        int current = first;
+        for (int i = 0; i < n; i++) {
+            order[i] = current;
+            int next = adjacency[2 * current] != previous ? adjacency[2 * current] : adjacency[2 * current + 1];
+            previous = current;
+            current = next;
+        }
+        return toPath(order, start);
+    }
+
+    /**
+     * Cheapest insertion: starting from the start city, repeatedly inserts the unvisited city whose insertion into the
+     * current tour is the cheapest, at its cheapest position. Every city keeps its best insertion edge, which only has
+     * to be recomputed from scratch when that edge is the one replaced, so the heuristic runs in about O(n^2).
+     *
+     * @param graph -> The graph representing the cities and distances
+     * @param start -> The starting city index
+     * @return : The closed path of the tour
+     */
+    public static List<Integer> cheapestInsertion(Graph graph, int start) {
+        int n = graph.getNumCities();
+        int[] next = new int[n]; // Successor of every city of the tour
+        boolean[] inTour = new boolean[n];
+        long[] bestCost = new long[n]; // Cheapest insertion cost of every unvisited city
+        int[] bestEdge = new int[n]; // The tour city a such that (a, next[a]) is the cheapest insertion edge
+        next[start] = start;
+        inTour[start] = true;
+
+        for (int u = 0; u < n; u++) {
+            if (!inTour[u]) {
+                bestCost[u] = 2L * graph.getDistance(start, u); // Self loop start -> u -> start
+                bestEdge[u] = start;
+            }
+        }
+
+        for (int size = 1; size < n; size++) {
+            // The unvisited city with the cheapest insertion
+            int c = -1;
+            for (int u = 0; u < n; u++) {
+                if (!inTour[u] && (c == -1 || bestCost[u] < bestCost[c])) {
+                    c = u;
+                }
+            }
+            int a = bestEdge[c];
+            int b = next[a];
+            next[a] = c;
+            next[c] = b;
+            inTour[c] = true;
+
+            for (int u = 0; u < n; u++) {
+                if (inTour[u]) {
+                    continue;
+                }
+                if (bestEdge[u] == a) {
+                    // The edge (a, b) is gone: recompute the best insertion over the whole tour
+                    bestCost[u] = Long.MAX_VALUE;
+                    int x = start;
+                    do {
+                        long cost = insertionCost(graph, x, next[x], u);
+                        if (cost < bestCost[u]) {
+                            bestCost[u] = cost;
+                            bestEdge[u] = x;
+                        }
+                        x = next[x];
+                    } while (x != start);
+                } else {
+                    // Only the two new edges (a, c) and (c, b) can be better
+                    long cost = insertionCost(graph, a, c, u);
+                    if (cost < bestCost[u]) {
+                        bestCost[u] = cost;
+                        bestEdge[u] = a;
+                    }
+                    cost = insertionCost(graph, c, b, u);
+                    if (cost < bestCost[u]) {
+                        bestCost[u] = cost;
+                        bestEdge[u] = c;
+                    }
+                }
+            }
+        }
+        return toPath(next, start, n);
+    }
+
+    /**
+     * Farthest insertion: starting from the start city, repeatedly inserts the unvisited city farthest from the tour,
+     * at its cheapest position. O(n^2).
+     *
+     * @param graph -> The graph representing the cities and distances
+     * @param start -> The starting city index
+     * @return : The closed path of the tour
+     */
+    public static List<Integer> farthestInsertion(Graph graph, int start) {
+        int n = graph.getNumCities();
+        int[] next = new int[n]; // Successor of every city of the tour
+        boolean[] inTour = new boolean[n];
+        int[] distanceToTour = new int[n]; // Distance of every unvisited city to the nearest tour city
+        int[] row = new int[n];
+        next[start] = start;
+        inTour[start] = true;
+        graph.getRow(start, distanceToTour);
+
+        for (int size = 1; size < n; size++) {
+            int c = -1;
+            for (int u = 0; u < n; u++) {
+                if (!inTour[u] && (c == -1 || distanceToTour[u] > distanceToTour[c])) {
+                    c = u;
+                }
+            }
+
+            // Cheapest position for c
+            int bestA = start;
+            long best = Long.MAX_VALUE;
+            int x = start;
+            do {
+                long cost = insertionCost(graph, x, next[x], c);
+                if (cost < best) {
+                    best = cost;
+                    bestA = x;
+                }
+                x = next[x];
+            } while (x != start);
+            next[c] = next[bestA];
+            next[bestA] = c;
+            inTour[c] = true;
+
+            graph.getRow(c, row);
+            for (int u = 0; u < n; u++) {
+                if (row[u] < distanceToTour[u]) {
+                    distanceToTour[u] = row[u];
+                }
+            }
+        }
+        return toPath(next, start, n);
+    }
+
+    /**
+     * Christofides: minimum spanning tree, plus a matching of its odd-degree cities, gives an Eulerian multigraph
+     * whose Euler tour is shortcut into a Hamiltonian tour. The matching is built greedily (shortest pair first) over the
+     * candidate neighbours of the odd-degree cities, instead of with a minimum weight perfect matching, so the 1.5
+     * approximation guarantee does not hold, but the tours are still good.
+     *
+     * @param graph -> The graph representing the cities and distances
+     * @param start -> The starting city index
+     * @return : The closed path of the tour
+     */
+    public static List<Integer> christofides(Graph graph, int start) {
+        int n = graph.getNumCities();
+        if (n < 3) {
+            return nearestNeighbor(graph, start);
+        }
+
+        // Minimum spanning tree with an O(n^2) array Prim
+        int[] treeParent = new int[n];
+        int[] key = new int[n];
+        boolean[] inTree = new boolean[n];
+        int[] row = new int[n];
+        Arrays.fill(key, Integer.MAX_VALUE);
+        key[start] = 0;
+        treeParent[start] = -1;
+        for (int added = 0; added < n; added++) {
+            int u = -1;
+            for (int v = 0; v < n; v++) {
+                if (!inTree[v] && (u == -1 || key[v] < key[u])) {
+                    u = v;
+                }
+            }
+            inTree[u] = true;
+            graph.getRow(u, row);
+            for (int v = 0; v < n; v++) {
+                if (!inTree[v] && row[v] < key[v]) {
+                    key[v] = row[v];
+                    treeParent[v] = u;
+                }
+            }
+        }
+
+        // Multigraph edges: tree edges plus matching edges
+        int[] from = new int[2 * n];
+        int[] to = new int[2 * n];
+        int edgeCount = 0;
+        int[] degree = new int[n];
+        for (int v = 0; v < n; v++) {
+            if (treeParent[v] >= 0) {
+                from[edgeCount] = v;
+                to[edgeCount++] = treeParent[v];
+                degree[v]++;
+                degree[treeParent[v]]++;
+            }
+        }
+
+        // Greedy matching of the odd-degree cities
+        int[] odd = new int[n];
+        int oddCount = 0;
+        for (int v = 0; v < n; v++) {
+            if ((degree[v] & 1) == 1) {
+                odd[oddCount++] = v;
+            }
+        }
+        edgeCount = matchOdd(graph, odd, oddCount, from, to, edgeCount);
+
+        // Euler tour (Hierholzer) over the multigraph, shortcut at the repeated cities
+        int[] adjacencyStart = new int[n + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            adjacencyStart[from[e] + 1]++;
+            adjacencyStart[to[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            adjacencyStart[v + 1] += adjacencyStart[v];
+        }
+        int[] adjacencyEdge = new int[2 * edgeCount];
+        int[] fill = Arrays.copyOf(adjacencyStart, n);
+        for (int e = 0; e < edgeCount; e++) {
+            adjacencyEdge[fill[from[e]]++] = e;
+            adjacencyEdge[fill[to[e]]++] = e;
+        }
+        int[] cursor = Arrays.copyOf(adjacencyStart, n);
+        boolean[] usedEdge = new boolean[edgeCount];
+        int[] stack = new int[edgeCount + 1];
+        int top = 0;
+        stack[top++] = start;
+        boolean[] visited = new boolean[n];
+        int[] order = new int[n];
+        int orderSize = 0;
+        while (top > 0) {
+            int v = stack[top - 1];
+            while (cursor[v] < adjacencyStart[v + 1] && usedEdge[adjacencyEdge[cursor[v]]]) {
+                cursor[v]++;
+            }
+            if (cursor[v] == adjacencyStart[v + 1]) {
+                top--;
+                if (!visited[v]) {
+                    visited[v] = true; // Shortcut: keep only the first visit of every city
+                    order[orderSize++] = v;
+                }
+            } else {
+                int e = adjacencyEdge[cursor[v]];
+                usedEdge[e] = true;
+                stack[top++] = from[e] == v ? to[e] : from[e];
+            }
+        }
+        return toPath(order, start);
+    }
+
+    /**
+     * Joins the fragments left by the greedy edge heuristic into a single Hamiltonian path. Every fragment endpoint
+     * keeps its nearest endpoint of another fragment in a heap; an entry whose partner was used up in the meantime
+     * is refreshed with a scan of the remaining endpoints when it reaches the top. The endpoints a city can join only
+     * ever shrink, so a refreshed entry never gets cheaper and the joins come out shortest first.
+     *
+     * @param graph -> The graph representing the cities and distances
+     * @param adjacency -> The two tour neighbours of every city
+     * @param degree -> The degree of every city
+     * @param parent -> The union-find over the fragments
+     * @param joins -> The number of edges still missing
+     */
+    private static void joinFragments(Graph graph, int[] adjacency, int[] degree, int[] parent, int joins) {
+        int n = degree.length;
+        int[] endpoints = new int[n]; // The cities of degree 0 or 1
+        int[] position = new int[n]; // Position of every endpoint in the endpoints array
+        int endpointCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (degree[i] < 2) {
+                position[i] = endpointCount;
+                endpoints[endpointCount++] = i;
+            }
+        }
+
+        int[] partner = new int[n];
+        LongHeap heap = new LongHeap(endpointCount);
+        for (int e = 0; e < endpointCount; e++) {
+            offerNearest(graph, endpoints, endpointCount, parent, partner, heap, endpoints[e]);
+        }
+
+        while (joins > 0) {
+            long top = heap.pop();
+            int i = (int) top;
+            int j = partner[i];
+            if (degree[i] >= 2) {
+                continue;
+            }
+            if (degree[j] >= 2 || find(parent, i) == find(parent, j)) {
+                offerNearest(graph, endpoints, endpointCount, parent, partner, heap, i); // Stale partner
+                continue;
+            }
+            link(adjacency, degree, parent, i, j);
+            joins--;
+            for (int c : new int[] {i, j}) {
+                if (degree[c] == 2) {
+                    // Swap-remove the city from the endpoints
+                    int last = endpoints[--endpointCount];
+                    endpoints[position[c]] = last;
+                    position[last] = position[c];
+                }
+            }
+            if (degree[i] < 2) {
+                offerNearest(graph, endpoints, endpointCount, parent, partner, heap, i);
+            }
+        }
+    }
+
+    /**
+     * Finds the nearest endpoint of another fragment and pushes it as the candidate partner of a city.
+     */
+    private static void offerNearest(Graph graph, int[] endpoints, int endpointCount, int[] parent, int[] partner,
+                                     LongHeap heap, int city) {
+        int root = find(parent, city);
+        int best = -1;
+        int bestCost = Integer.MAX_VALUE;
+        for (int e = 0; e < endpointCount; e++) {
+            int other = endpoints[e];
+            if (other == city || find(parent, other) == root) {
+                continue;
+            }
+            int cost = joinCost(graph, city, other);
+            if (best == -1 || cost < bestCost) {
+                best = other;
+                bestCost = cost;
+            }
+        }
+        if (best != -1) {
+            partner[city] = best;
+            heap.push((long) bestCost << 32 | city);
+        }
+    }
+
+    /**
+     * Greedy matching of the odd-degree cities of the Christofides tree: the candidate pairs among the neighbours of
+     * every city first, shortest first, then the cities left unmatched are paired through a heap of nearest
+     * unmatched partners, as the greedy edge heuristic joins its fragments.
+     *
+     * @param graph -> The graph representing the cities and distances
+     * @param odd -> The odd-degree cities
+     * @param oddCount -> The number of odd-degree cities
+     * @param from -> The first city of every multigraph edge
+     * @param to -> The second city of every multigraph edge
+     * @param edgeCount -> The number of multigraph edges so far
+     * @return : The number of multigraph edges with the matching
+     */
+    private static int matchOdd(Graph graph, int[] odd, int oddCount, int[] from, int[] to, int edgeCount) {
+        int n = graph.getNumCities();
+        int[] oddIndex = new int[n]; // Position of every city in odd, or -1
+        Arrays.fill(oddIndex, -1);
+        for (int i = 0; i < oddCount; i++) {
+            oddIndex[odd[i]] = i;
+        }
+        NeighborIndex neighbors = NeighborIndex.build(graph, GREEDY_NEIGHBORS);
+        int k = neighbors.getK();
+
+        // Candidate pairs, sorted by length (packed as length << 32 | pair)
+        int[] pairI = new int[oddCount * k];
+        int[] pairJ = new int[oddCount * k];
+        long[] pairs = new long[oddCount * k];
+        int pairCount = 0;
+        for (int i = 0; i < oddCount; i++) {
+            for (int rank = 0; rank < k; rank++) {
+                int other = neighbors.getNeighbor(odd[i], rank);
+                int j = oddIndex[other];
+                if (j >= 0 && (i < j || !isNeighbor(neighbors, other, odd[i])) && graph.getDistance(odd[i], other) > 0) {
+                    pairI[pairCount] = i;
+                    pairJ[pairCount] = j;
+                    pairs[pairCount] = (long) graph.getDistance(odd[i], other) << 32 | pairCount;
+                    pairCount++;
+                }
+            }
+        }
+        Arrays.sort(pairs, 0, pairCount);
+        boolean[] matched = new boolean[oddCount];
+        int matchedCount = 0;
+        for (int p = 0; p < pairCount; p++) {
+            int pair = (int) pairs[p];
+            int i = pairI[pair];
+            int j = pairJ[pair];
+            if (!matched[i] && !matched[j]) {
+                matched[i] = true;
+                matched[j] = true;
+                matchedCount += 2;
+                from[edgeCount] = odd[i];
+                to[edgeCount++] = odd[j];
+            }
+        }
+        if (matchedCount == oddCount) {
+            return edgeCount;
+        }
+
+        // Final sweep over the cities without a candidate partner
+        int[] rest = new int[oddCount - matchedCount];
+        int restCount = 0;
+        for (int i = 0; i < oddCount; i++) {
+            if (!matched[i]) {
+                rest[restCount++] = i;
+            }
+        }
+        int[] partner = new int[oddCount];
+        LongHeap heap = new LongHeap(restCount);
+        for (int r = 0; r < restCount; r++) {
+            offerUnmatched(graph, odd, rest, restCount, matched, partner, heap, rest[r]);
+        }
+        while (matchedCount < oddCount) {
+            int i = (int) heap.pop();
+            int j = partner[i];
+            if (matched[i]) {
+                continue;
+            }
+            if (matched[j]) {
+                offerUnmatched(graph, odd, rest, restCount, matched, partner, heap, i); // Stale partner
+                continue;
+            }
+            matched[i] = true;
+            matched[j] = true;
+            matchedCount += 2;
+            from[edgeCount] = odd[i];
+            to[edgeCount++] = odd[j];
+        }
+        return edgeCount;
+    }
+
+    /**
+     * Finds the nearest unmatched city and pushes it as the candidate partner of an odd-degree city.
+     */
+    private static void offerUnmatched(Graph graph, int[] odd, int[] rest, int restCount, boolean[] matched,
+                                       int[] partner, LongHeap heap, int i) {
+        int best = -1;
+        int bestCost = Integer.MAX_VALUE;
+        for (int r = 0; r < restCount; r++) {
+            int j = rest[r];
+            if (j == i || matched[j]) {
+                continue;
+            }
+            int cost = joinCost(graph, odd[i], odd[j]);
+            if (best == -1 || cost < bestCost) {
+                best = j;
+                bestCost = cost;
+            }
+        }
+        if (best != -1) {
+            partner[i] = best;
+            heap.push((long) bestCost << 32 | i);
+        }
+    }
+
+    /**
+     * Cost of joining two cities: their distance, with a missing edge (distance 0) taken only as a last resort.
+     */
+    private static int joinCost(Graph graph, int a, int b) {
+        return edgeKey(graph.getDistance(a, b));
+    }
+
+    /**
+     * Orders the distances with the missing edges (distance 0) last.
+     */
+    private static int edgeKey(int distance) {
+        return distance > 0 ? distance : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Growable binary min-heap of packed (cost << 32 | city) entries.
+     */
+    private static final class LongHeap {
+        private long[] heap; // The entries, in heap order
+        private int size; // The number of entries
+
+        /**
+         * Constructor for LongHeap.
+         *
+         * @param initialCapacity -> The initial number of slots
+         */
+        private LongHeap(int initialCapacity) {
+            this.heap = new long[Math.max(16, initialCapacity)];
+        }
+
+        /**
+         * Adds an entry to the heap.
+         *
+         * @param entry -> The entry to add
+         */
+        private void push(long entry) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, heap.length + (heap.length >> 1)); // Grow by 50%
+            }
+            int slot = size++;
+            while (slot > 0 && heap[(slot - 1) >>> 1] > entry) {
+                heap[slot] = heap[(slot - 1) >>> 1];
+                slot = (slot - 1) >>> 1;
+            }
+            heap[slot] = entry;
+        }
+
+        /**
+         * Removes and returns the smallest entry.
+         *
+         * @return : The smallest entry
+         */
+        private long pop() {
+            long top = heap[0];
+            long last = heap[--size];
+            int hole = 0;
+            while (true) {
+                int child = 2 * hole + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= last) {
+                    break;
+                }
+                heap[hole] = heap[child];
+                hole = child;
+            }
+            if (size > 0) {
+                heap[hole] = last;
+            }
+            return top;
+        }
+    }
+
+    /**
+     * Calculates the cost of a closed path.
+     *
+     * @param graph -> The graph representing the cities and distances
+     * @param path -> The closed path (start city repeated at the end)
+     * @return : The cost of the path
+     */
+    public static long cost(Graph graph, List<Integer> path) {
+        long total = 0;
+        for (int i = 0; i + 1 < path.size(); i++) {
+            total += graph.getDistance(path.get(i), path.get(i + 1));
+        }
+        return total;
+    }
+
+    /**
+     * Checks that a closed path is a tour of a graph that starts at a given city: every city exactly once,
+     * along existing edges (positive distances, as for the exact solvers), and back to the start.
+     *
+     * @param graph -> The graph representing the cities and distances
+     * @param path -> The closed path
+     * @param start -> The city the path must start and end at
+     * @return : True if the path is a valid tour, False otherwise
+     */
+    public static boolean isTour(Graph graph, List<Integer> path, int start) {
+        int n = graph.getNumCities();
+        if (path == null || path.size() != n + 1 || path.get(0) != start || path.get(n) != start) {
+            return false;
+        }
+        boolean[] seen = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            int c = path.get(i);
+            if (c < 0 || c >= n || seen[c]) {
+                return false;
+            }
+            seen[c] = true;
+            if (n > 1 && graph.getDistance(c, path.get(i + 1)) <= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rotates a closed path so that it starts and ends at a given city.
+     *
+     * @param path -> The closed path (start city repeated at the end)
+     * @param start -> The new start city
+     * @return : The rotated closed path
+     */
+    public static List<Integer> rotate(List<Integer> path, int start) {
+        int n = path.size() - 1;
+        int offset = path.indexOf(start);
+        List<Integer> rotated = new ArrayList<>(n + 1);
+        for (int i = 0; i < n; i++) {
+            rotated.add(path.get((offset + i) % n));
+        }
+        rotated.add(start);
+        return rotated;
+    }
+
+    /**
+     * Cost of inserting a city between two adjacent cities.
+     */
+    private static long insertionCost(Graph graph, int a, int b, int c) {
+        return (long) graph.getDistance(a, c) + graph.getDistance(c, b) - graph.getDistance(a, b);
+    }
+
+    /**
+     * Converts a tour given in order into a closed path starting at a given city.
+     */
+    private static List<Integer> toPath(int[] order, int start) {
+        int n = order.length;
+        int offset = 0;
+        while (order[offset] != start) {
+            offset++;
+        }
+        List<Integer> path = new ArrayList<>(n + 1);
+        for (int i = 0; i < n; i++) {
+            path.add(order[(offset + i) % n]);
+        }
+        path.add(start);
+        return path;
+    }
+
+    /**
+     * Converts a tour given as a successor array into a closed path starting at a given city.
+     */
+    private static List<Integer> toPath(int[] next, int start, int n) {
+        List<Integer> path = new ArrayList<>(n + 1);
+        int x = start;
+        for (int i = 0; i < n; i++) {
+            path.add(x);
+            x = next[x];
+        }
+        path.add(start);
+        return path;
+    }
+
+    /**
+     * Checks if a city is among the candidate neighbours of another city.
+     */
+    private static boolean isNeighbor(NeighborIndex neighbors, int city, int other) {
+        for (int rank = 0; rank < neighbors.getK(); rank++) {
+            if (neighbors.getNeighbor(city, rank) == other) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Joins two fragment endpoints with an edge (greedy edge heuristic).
+     */
+    private static void link(int[] adjacency, int[] degree, int[] parent, int i, int j) {
+        adjacency[2 * i + degree[i]++] = j;
+        adjacency[2 * j + degree[j]++] = i;
+        parent[find(parent, i)] = find(parent, j);
+    }
+
+    /**
+     * Union-find lookup with path halving.
+     */
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+}
@@ -1,18 +1,39 @@
 package TSPAlgorithms;
 
 import Graphs.Graph;
+import Graphs.NeighborIndex;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * The TSPDFS class implements the Depth-First Search (DFS) algorithm for solving the Traveling Salesman Problem (TSP)
  */
-public class TSPDFS {
+public class TSPDFS implements TSPSolver {
+    private static final int SPLIT_DEPTH = 3; // Number of top levels of the search tree that are split into parallel tasks
+
     private final Graph graph; // The graph representing the cities and distances
     private final boolean[] visited; // Array to track visited cities
     private int bestCost; // Minimum cost found
     private List<Integer> bestPath; // Best path found
+    private SolveControl control; // Limits and shared incumbent of the current solve (null for search)
+    private long nodes; // Number of nodes expanded by the current search
+    private boolean stopped; // True if the current solve was stopped by its control
+    private final SearchMetrics metrics = new SearchMetrics("DFS"); // Metrics of the last search
+    private long pendingExpanded; // Expanded nodes not yet flushed to the metrics
+    private long pendingGenerated; // Generated nodes not yet flushed to the metrics
+    private long pendingPruned; // Pruned nodes not yet flushed to the metrics
+    private int maxDepth; // Deepest path of the current search
+    private HeldKarpBound heldKarp; // Lower bound used to prune the sequential search (null to prune on the path cost)
+    private boolean useHeldKarp; // True if the searches prune with the Held-Karp bound
+    private long visitedMask; // Bitmask of the visited cities of the sequential search (with the Held-Karp bound)
+    private int parallelism = Runtime.getRuntime().availableProcessors(); // Number of worker threads of solve()
 
     /**
      * Constructor for TSPDFS.
@@ -33,6 +54,93 @@ public class TSPDFS {
         }
     }
 
+    /**
+     * Sets an initial tour (for example from TSPConstruction): its cost is the initial upper bound of the search,
+     * so every branch that reaches it is cut from the start. The tour is the result if no shorter one exists.
+     *
+     * @param tour -> The closed path of the initial tour (start city repeated at the end)
+     */
+    public void setInitialTour(List<Integer> tour) {
+        if (graph == null || !TSPConstruction.isTour(graph, tour, tour == null || tour.isEmpty() ? -1 : tour.get(0))) {
+            System.err.println("The initial tour must visit every city exactly once, along existing edges");
+            return;
+        }
+        long cost = TSPConstruction.cost(graph, tour);
+        if (cost < bestCost) {
+            bestCost = (int) cost;
+            bestPath = new ArrayList<>(tour);
+        }
+    }
+
+    /**
+     * Turns the Held-Karp bound on or off. When it is on, a branch is also cut when its cost plus the Held-Karp
+     * lower bound on the rest of the tour reaches the best cost, which cuts most of the tree at the top levels.
+     * The parallel search gives every worker thread its own bound.
+     *
+     * @param enabled -> True to prune with the Held-Karp bound
+     */
+    public void setHeldKarpBound(boolean enabled) {
+        if (enabled && (graph == null || graph.getNumCities() > MSTCache.MAX_CITIES)) {
+            System.err.println("The Held-Karp bound supports at most " + MSTCache.MAX_CITIES + " cities");
+            return;
+        }
+        useHeldKarp = enabled;
+        heldKarp = enabled ? new HeldKarpBound(graph) : null;
+    }
+
+    /**
+     * Sets the number of worker threads used by solve(). With a single worker, solve() runs the sequential search.
+     *
+     * @param parallelism -> The number of worker threads
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            System.err.println("Parallelism must be positive");
+            return;
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Solves the problem with the depth-first search, bounded by a control: the parallel branch-and-bound search
+     * when more than one worker thread is set, the sequential search otherwise.
+     * The control's incumbent (or, if it has none, a construction tour) is the initial upper bound, and every improved
+     * tour is published to it.
+     *
+     * @param start -> The starting city index
+     * @param control -> The limits of the solve and the shared incumbent
+     * @return : The best tour known when the search ends, or null if none
+     */
+    @Override
+    public Tour solve(int start, SolveControl control) {
+        if (graph == null || start < 0 || start >= graph.getNumCities()) {
+            System.err.println("Invalid start city index");
+            return null;
+        }
+        TSPConstruction.seed(graph, start, control); // Initial upper bound, unless the control already has one
+        this.control = control;
+        try {
+            if (parallelism > 1) {
+                searchParallel(start, parallelism);
+            } else {
+                search(start);
+            }
+        } finally {
+            this.control = null;
+        }
+        return control.result(start, bestPath, bestCost, !stopped);
+    }
+
+    /**
+     * Gets the name of the solver.
+     *
+     * @return : The name of the solver
+     */
+    @Override
+    public String getName() {
+        return "DFS";
+    }
+
     /**
      * Starts the depth-first search from a specified city.
      *
@@ -43,11 +151,30 @@ public class TSPDFS {
             System.err.println("Invalid start city index");
             return;
         }
+        rotateBestPath(start);
+        nodes = 0;
+        stopped = false;
+        maxDepth = 0;
+        metrics.start();
         List<Integer> path = new ArrayList<>(); // Initialize the current path as an empty list
         path.add(start); // Add the start city to the path
         visited[start] = true; // Mark the start city as visited
+        visitedMask = 1L << start;
         dfs(start, path, 0); // Start the DFS
         visited[start] = false; // Unmark the start city after DFS completes
+        flushMetrics();
+        metrics.finish(graph.getNumCities(), bestCost == Integer.MAX_VALUE ? Long.MAX_VALUE : bestCost, !stopped);
+    }
+
+    /**
+     * Adds the local counters of the sequential search to the metrics.
+     */
+    private void flushMetrics() {
+        metrics.addNodes(pendingExpanded, pendingGenerated, pendingPruned);
+        metrics.updatePeakFrontier(maxDepth);
+        pendingExpanded = 0;
+        pendingGenerated = 0;
+        pendingPruned = 0;
     }
 
     /**
@@ -58,13 +185,34 @@ public class TSPDFS {
      * @param cost -> The current cost of the path
      */
     private void dfs(int current, List<Integer> path, int cost) {
+        nodes++;
+        pendingExpanded++;
+        if (path.size() > maxDepth) {
+            maxDepth = path.size();
+        }
+        if ((nodes & SolveControl.CHECK_MASK) == 0) {
+            flushMetrics();
+            if (control != null && control.shouldStop(nodes)) {
+                stopped = true; // Stop the search and keep the best path found so far
+            }
+        }
+        if (stopped) {
+            return;
+        }
+
         // If all cities have been visited, check the return cost to the start city
         if (path.size() == graph.getNumCities()) {
-            cost += graph.getDistance(current, path.get(0)); // Add the return cost to the start city
-            if (cost < bestCost) { // Check if the current path cost is better than the best found so far
+            int back = graph.getDistance(current, path.get(0));
+            cost += back; // Add the return cost to the start city
+            // Check if the current path is a tour (an edge leads back) and is better than the best found so far
+            if ((back > 0 || path.size() == 1) && cost < bestCost) {
                 bestCost = cost; // Update the best cost
                 bestPath = new ArrayList<>(path); // Update the best path
                 bestPath.add(path.get(0)); // Add the start city to the end to complete the cycle
+                metrics.recordIncumbent(cost);
+                if (control != null) {
+                    control.offer(new Tour(bestPath, bestCost, false)); // Publish the improved tour
+                }
             }
             return;
         }
@@ -72,15 +220,376 @@ public class TSPDFS {
         // Explore all the cities
         for (int i = 0; i < graph.getNumCities(); i++) {
             if (!visited[i] && graph.getDistance(current, i) > 0) { // Check if the city is not visited and there's a path
+                pendingGenerated++;
+                if (cost + graph.getDistance(current, i) >= bound()) {
+                    pendingPruned++;
+                    continue; // The branch is already as long as the best tour (or the initial bound)
+                }
+                if (heldKarp != null) {
+                    int cutoff = bound() - cost - graph.getDistance(current, i);
+                    int lowerBound = heldKarp.lowerBound(i, path.get(0), visitedMask | (1L << i), path.size() + 1, cutoff);
+                    if (lowerBound >= cutoff || lowerBound >= HeldKarpBound.INFEASIBLE) {
+                        pendingPruned++;
+                        continue; // The rest of the tour costs at least the Held-Karp bound
+                    }
+                }
                 visited[i] = true; // Mark the city as visited
+                visitedMask |= 1L << i;
                 path.add(i); // Add the city to the path
                 dfs(i, path, cost + graph.getDistance(current, i)); // Recursively perform DFS
                 visited[i] = false; // Unmark the city
+                visitedMask &= ~(1L << i);
                 path.remove(path.size() - 1); // Remove the city from the path
+                if (stopped) {
+                    return;
+                }
             }
         }
     }
 
+    /**
+     * Gets the upper bound of the sequential search: the best cost, or the shared incumbent of the control if lower.
+     *
+     * @return : The upper bound
+     */
+    private int bound() {
+        if (control == null) {
+            return bestCost;
+        }
+        return (int) Math.min(bestCost, control.getIncumbentCost());
+    }
+
+    /**
+     * Starts a parallel branch-and-bound depth-first search from a specified city, using all available cores.
+     *
+     * @param start -> The starting city index
+     */
+    public void searchParallel(int start) {
+        searchParallel(start, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Starts a parallel branch-and-bound depth-first search from a specified city.
+     * The top levels of the search tree are split into ForkJoin tasks (work stealing balances the uneven subtrees),
+     * and all workers share the incumbent through a lock-free atomic reference. A branch is cut as soon as its cost
+     * plus a lower bound on the remaining tour reaches the incumbent cost. Children are expanded nearest first, so good
+     * tours (and a tight incumbent) are found early.
+     * The result is available through getBestPath() and getBestCost(), as for search(int).
+     * When it runs under solve(), the workers also prune with the control's incumbent, publish their improved tours
+     * to it, and stop together when the control says so.
+     *
+     * @param start -> The starting city index
+     * @param parallelism -> The number of worker threads
+     */
+    public void searchParallel(int start, int parallelism) {
+        if (start < 0 || start >= graph.getNumCities()) {
+            System.err.println("Invalid start city index");
+            return;
+        }
+        if (parallelism <= 0) {
+            System.err.println("Parallelism must be positive");
+            return;
+        }
+        rotateBestPath(start);
+        stopped = false;
+
+        int n = graph.getNumCities();
+        int[] minOut = new int[n]; // Cheapest edge leaving every city, used for the lower bound
+        int minOutSum = 0; // Sum of the cheapest edges of the cities that still have to be left
+        for (int i = 0; i < n; i++) {
+            int min = Integer.MAX_VALUE;
+            for (int j = 0; j < n; j++) {
+                int d = graph.getDistance(i, j);
+                if (i != j && d > 0 && d < min) {
+                    min = d;
+                }
+            }
+            minOut[i] = min == Integer.MAX_VALUE ? 0 : min;
+            minOutSum += minOut[i];
+        }
+
+        AtomicReference<Incumbent> incumbent = new AtomicReference<>(
+                new Incumbent(bestCost, bestPath.isEmpty() ? null : toArray(bestPath))); // Keep a result of a previous run as the initial bound
+
+        NeighborIndex order = NeighborIndex.build(graph, n - 1); // Every city sorted by distance from every city
+
+        int[] path = new int[n];
+        path[0] = start;
+        boolean[] visitedCities = new boolean[n];
+        visitedCities[start] = true;
+
+        ThreadLocal<HeldKarpBound> bounds = useHeldKarp ? ThreadLocal.withInitial(() -> new HeldKarpBound(graph)) : null;
+
+        AtomicBoolean stop = new AtomicBoolean(); // Set by the first worker that sees the control stop the search
+
+        metrics.start();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new DFSTask(graph, order, minOut, incumbent, metrics, bounds, control, new AtomicLong(), stop,
+                    path, visitedCities, 1, 0, minOutSum));
+        } finally {
+            pool.shutdown();
+        }
+
+        stopped = stop.get();
+        Incumbent best = incumbent.get();
+        metrics.finish(n, best.cost == Integer.MAX_VALUE ? Long.MAX_VALUE : best.cost, !stopped);
+        bestCost = best.cost; // Update the best cost
+        if (best.path != null) {
+            bestPath = new ArrayList<>();
+            for (int city : best.path) {
+                bestPath.add(city);
+            }
+            bestPath.add(start); // Add the start city to the end to complete the cycle
+        }
+    }
+
+    /**
+     * Makes the best path (an initial tour or the result of a previous run) start at the start city of the search.
+     *
+     * @param start -> The starting city index
+     */
+    private void rotateBestPath(int start) {
+        if (!bestPath.isEmpty() && bestPath.get(0) != start) {
+            bestPath = TSPConstruction.rotate(bestPath, start);
+        }
+    }
+
+    /**
+     * Converts a closed path (start city repeated at the end) to an open array of cities.
+     *
+     * @param path -> The closed path
+     * @return : The array of cities without the repeated start city
+     */
+    private static int[] toArray(List<Integer> path) {
+        int[] result = new int[path.size() - 1];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = path.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Immutable incumbent (best complete tour found so far), shared between the parallel workers.
+     */
+    private static final class Incumbent {
+        private final int cost; // Cost of the tour
+        private final int[] path; // Cities of the tour, without the return to the start city
+
+        private Incumbent(int cost, int[] path) {
+            this.cost = cost;
+            this.path = path;
+        }
+    }
+
+    /**
+     * ForkJoin task exploring the subtree below a partial path.
+     * Tasks are forked for the children while the path is shorter than SPLIT_DEPTH, deeper levels are explored
+     * sequentially on the task's own copy of the path and visited arrays.
+     */
+    private static final class DFSTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Graph graph; // The graph representing the cities and distances
+        private final NeighborIndex order; // The other cities of every city, nearest first
+        private final int[] minOut; // Cheapest edge leaving every city
+        private final AtomicReference<Incumbent> incumbent; // Shared best tour
+        private final SearchMetrics metrics; // Shared metrics of the search
+        private final ThreadLocal<HeldKarpBound> bounds; // Held-Karp bound of every worker thread (null if off)
+        private final SolveControl control; // Limits and shared incumbent of the solve (null for searchParallel)
+        private final AtomicLong nodes; // Nodes expanded by all the workers, checked against the control
+        private final AtomicBoolean stopped; // True once the control stopped the search
+        private HeldKarpBound heldKarp; // Held-Karp bound of the thread running the task (null if off)
+        private final int[] path; // Current path of cities (owned by this task)
+        private final boolean[] visited; // Visited cities (owned by this task)
+        private final int depth; // Number of cities in the path
+        private final int cost; // Cost of the path
+        private final int remainingMinOut; // Sum of the cheapest leaving edges of the last city and the unvisited cities
+        private long expanded; // Expanded nodes not yet flushed to the metrics
+        private long generated; // Generated nodes not yet flushed to the metrics
+        private long pruned; // Pruned nodes not yet flushed to the metrics
+
+        private DFSTask(Graph graph, NeighborIndex order, int[] minOut, AtomicReference<Incumbent> incumbent,
+                        SearchMetrics metrics, ThreadLocal<HeldKarpBound> bounds, SolveControl control, AtomicLong nodes,
+                        AtomicBoolean stopped, int[] path, boolean[] visited, int depth, int cost, int remainingMinOut) {
+            this.graph = graph;
+            this.order = order;
+            this.minOut = minOut;
+            this.incumbent = incumbent;
+            this.metrics = metrics;
+            this.bounds = bounds;
+            this.control = control;
+            this.nodes = nodes;
+            this.stopped = stopped;
+            this.path = path;
+            this.visited = visited;
+            this.depth = depth;
+            this.cost = cost;
+            this.remainingMinOut = remainingMinOut;
+        }
+
+        @Override
+        protected void compute() {
+            if (stopped.get()) {
+                return;
+            }
+            if (depth >= SPLIT_DEPTH || depth == graph.getNumCities()) {
+                long mask = 0;
+                for (int i = 0; i < depth; i++) {
+                    mask |= 1L << path[i];
+                }
+                heldKarp = bounds == null ? null : bounds.get();
+                dfs(path[depth - 1], depth, cost, remainingMinOut, mask);
+                flushMetrics(depth);
+                return;
+            }
+            expanded++;
+
+            int current = path[depth - 1];
+            List<DFSTask> tasks = new ArrayList<>();
+            for (int rank = 0; rank < order.getK(); rank++) {
+                int i = order.getNeighbor(current, rank);
+                int d = graph.getDistance(current, i);
+                if (visited[i] || d <= 0) {
+                    continue;
+                }
+                int remaining = remainingMinOut - minOut[current];
+                generated++;
+                if (cost + d + remaining >= bound()) {
+                    pruned++;
+                    continue; // The branch cannot improve the incumbent
+                }
+                int[] childPath = Arrays.copyOf(path, path.length);
+                boolean[] childVisited = Arrays.copyOf(visited, visited.length);
+                childPath[depth] = i;
+                childVisited[i] = true;
+                tasks.add(new DFSTask(graph, order, minOut, incumbent, metrics, bounds, control, nodes, stopped,
+                        childPath, childVisited, depth + 1, cost + d, remaining));
+            }
+            flushMetrics(depth);
+            invokeAll(tasks);
+        }
+
+        /**
+         * Adds the local counters of the task to the shared metrics, and checks if the control stops the search.
+         *
+         * @param depth -> The deepest path of the task since the last flush
+         */
+        private void flushMetrics(int depth) {
+            metrics.addNodes(expanded, generated, pruned);
+            metrics.updatePeakFrontier(depth);
+            long total = nodes.addAndGet(expanded);
+            expanded = 0;
+            generated = 0;
+            pruned = 0;
+            if (control != null && control.shouldStop(total)) {
+                stopped.set(true); // Every worker returns at its next node, keeping the incumbent found so far
+            }
+        }
+
+        /**
+         * Gets the upper bound of the search: the shared incumbent, or the control's incumbent if lower.
+         *
+         * @return : The upper bound
+         */
+        private int bound() {
+            int cost = incumbent.get().cost;
+            if (control == null) {
+                return cost;
+            }
+            return (int) Math.min(cost, control.getIncumbentCost());
+        }
+
+        /**
+         * Sequential branch-and-bound depth-first search below the task's split level.
+         *
+         * @param current -> The current city index
+         * @param depth -> The number of cities in the path
+         * @param cost -> The current cost of the path
+         * @param remainingMinOut -> Lower bound on the cost still needed to complete the tour
+         * @param mask -> The bitmask of the visited cities (used by the Held-Karp bound)
+         */
+        private void dfs(int current, int depth, int cost, int remainingMinOut, long mask) {
+            int n = graph.getNumCities();
+            if ((++expanded & SolveControl.CHECK_MASK) == 0) {
+                flushMetrics(depth);
+            }
+            if (stopped.get()) {
+                return;
+            }
+            if (depth == n) {
+                int back = graph.getDistance(current, path[0]);
+                if (back > 0 || n == 1) {
+                    offer(cost + back);
+                }
+                return;
+            }
+
+            int remaining = remainingMinOut - minOut[current];
+            for (int rank = 0; rank < order.getK(); rank++) {
+                int i = order.getNeighbor(current, rank); // Nearest cities first
+                int d = graph.getDistance(current, i);
+                if (visited[i] || d <= 0) {
+                    continue;
+                }
+                generated++;
+                if (cost + d + remaining >= bound()) {
+                    pruned++;
+                    continue; // Cut the branch: it cannot improve the incumbent
+                }
+                if (heldKarp != null && depth + 1 < n) {
+                    int cutoff = bound() - cost - d;
+                    int lowerBound = heldKarp.lowerBound(i, path[0], mask | (1L << i), depth + 1, cutoff);
+                    if (lowerBound >= cutoff || lowerBound >= HeldKarpBound.INFEASIBLE) {
+                        pruned++;
+                        continue; // The rest of the tour costs at least the Held-Karp bound
+                    }
+                }
+                visited[i] = true; // Mark the city as visited
+                path[depth] = i; // Add the city to the path
+                dfs(i, depth + 1, cost + d, remaining, mask | (1L << i));
+                visited[i] = false; // Unmark the city
+            }
+        }
+
+        /**
+         * Publishes a complete tour if it improves the shared incumbent (lock-free compare-and-set loop).
+         *
+         * @param tourCost -> The cost of the complete tour stored in path
+         */
+        private void offer(int tourCost) {
+            Incumbent current = incumbent.get();
+            if (tourCost >= current.cost) {
+                return;
+            }
+            Incumbent improved = new Incumbent(tourCost, path.clone());
+            while (tourCost < current.cost) {
+                if (incumbent.compareAndSet(current, improved)) {
+                    metrics.recordIncumbent(tourCost);
+                    if (control != null) {
+                        List<Integer> tour = new ArrayList<>(improved.path.length + 1);
+                        for (int city : improved.path) {
+                            tour.add(city);
+                        }
+                        tour.add(improved.path[0]); // Return to the start city
+                        control.offer(new Tour(tour, tourCost, false)); // Publish the improved tour
+                    }
+                    return;
+                }
+                current = incumbent.get();
+            }
+        }
+    }
+
+    /**
+     * Gets the metrics of the last search (live while a search is running).
+     *
+     * @return : The metrics
+     */
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Gets the best path found by the algorithm.
      *
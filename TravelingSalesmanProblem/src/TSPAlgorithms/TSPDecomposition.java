@@ -0,0 +1,755 @@
+package TSPAlgorithms;
+
+import Graphs.CoordinateGraph;
+import Graphs.Graph;
+import Graphs.NeighborIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * The TSPDecomposition class solves instances far too large for a single solver by divide and conquer:
+ * 1. Partition: the cities are split into clusters of about clusterSize cities. Coordinate instances are cut along
+ * a Hilbert curve (HILBERT) or clustered by k-means started from the Hilbert cut (KMEANS); other graphs are split
+ * around random seed cities (every city goes to its nearest seed).
+ * 2. Solve: every cluster is solved on its own sub-graph by a cluster solver (Chained Lin-Kernighan by default),
+ * the clusters running concurrently on a thread pool.
+ * 3. Stitch: the cluster tours are merged one by one into a single tour (in Hilbert order of their centroids, or in
+ * nearest-seed order): each merge removes one edge of the tour and one edge of the cluster tour and reconnects them
+ * with the cheapest pair of edges, searched among the candidate neighbours of the cluster cities.
+ * 4. Repair: 2-opt and Or-opt moves are run from the cities near a cluster boundary only (don't-look bits), which
+ * removes the detours left by the partition without touching the interior of the clusters.
+ * The cost of the partition and the repair grows almost linearly with the number of cities, and the solve phase
+ * scales with the number of cores. The result is never proven optimal.
+ */
+public class TSPDecomposition implements TSPSolver {
+    /**
+     * Partition methods of coordinate instances.
+     */
+    public enum Partition {
+        HILBERT,
+        KMEANS
+    }
+
+    private static final int HILBERT_ORDER = 16; // Bits per axis of the Hilbert curve grid
+    private static final int KMEANS_ITERATIONS = 8; // Lloyd iterations of the k-means partition
+    private static final int CENTER_NEIGHBORS = 8; // Nearest centers considered when a city is reassigned
+
+    private final Graph graph; // The graph representing the cities and distances
+    private int clusterSize = 1000; // Target number of cities per cluster
+    private Partition partition = Partition.HILBERT; // Partition method of coordinate instances
+    private int parallelism = Runtime.getRuntime().availableProcessors(); // Number of clusters solved concurrently
+    private long clusterTimeLimit = 100; // Time budget of the default cluster solver, in milliseconds
+    private long seed = 42; // Seed of the seed cities of non-coordinate graphs
+    private Function<Graph, TSPSolver> clusterSolver; // Creates the solver of a cluster (null for the default)
+    private long bestCost; // Cost of the best tour
+    private List<Integer> bestPath; // Best tour
+    private int numClusters; // Number of clusters of the last solve
+    private long repairGain; // Gain of the boundary repair of the last solve
+
+    /**
+     * Constructor for TSPDecomposition.
+     *
+     * @param graph -> The graph on which the algorithm will run
+     */
+    public TSPDecomposition(Graph graph) {
+        this.graph = graph;
+        if (graph == null) {
+            System.err.println("Graph cannot be null");
+        }
+        this.bestCost = Long.MAX_VALUE;
+        this.bestPath = new ArrayList<>();
+    }
+
+    /**
+     * Sets the target number of cities per cluster.
+     *
+     * @param clusterSize -> The number of cities per cluster (at least 2)
+     */
+    public void setClusterSize(int clusterSize) {
+        if (clusterSize < 2) {
+            System.err.println("Cluster size must be at least 2");
+            return;
+        }
+        this.clusterSize = clusterSize;
+    }
+
+    /**
+     * Sets the partition method of coordinate instances.
+     *
+     * @param partition -> HILBERT (fastest) or KMEANS (rounder clusters)
+     */
+    public void setPartition(Partition partition) {
+        if (partition == null) {
+            System.err.println("Partition cannot be null");
+            return;
+        }
+        this.partition = partition;
+    }
+
+    /**
+     * Sets the number of clusters solved concurrently.
+     *
+     * @param parallelism -> The number of worker threads
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            System.err.println("Parallelism must be positive");
+            return;
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the time budget of the default cluster solver (the kicks phase of Chained Lin-Kernighan).
+     *
+     * @param clusterTimeLimit -> The time budget per cluster in milliseconds
+     */
+    public void setClusterTimeLimit(long clusterTimeLimit) {
+        this.clusterTimeLimit = clusterTimeLimit;
+    }
+
+    /**
+     * Sets the seed used to choose the seed cities of non-coordinate graphs.
+     *
+     * @param seed -> The seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the solver of the clusters. The factory is called once per cluster, from the worker threads, with the
+     * sub-graph of the cluster (cities numbered from 0), and must return a new solver every time.
+     *
+     * @param clusterSolver -> The factory of cluster solvers (null for Chained Lin-Kernighan)
+     */
+    public void setClusterSolver(Function<Graph, TSPSolver> clusterSolver) {
+        this.clusterSolver = clusterSolver;
+    }
+
+    /**
+     * Solves the problem by decomposition and publishes the result to the control. Once the control says to stop,
+     * the clusters not yet solved keep their partition order, so the solve still returns a complete tour.
+     *
+     * @param start -> The starting city index
+     * @param control -> The limits of the solve and the shared incumbent
+     * @return : The tour found, or null if none
+     */
+    @Override
+    public Tour solve(int start, SolveControl control) {
+        if (graph == null || start < 0 || start >= graph.getNumCities()) {
+            System.err.println("Invalid start city index");
+            return null;
+        }
+        int n = graph.getNumCities();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            int[][] clusters = partition(executor);
+            numClusters = clusters.length;
+            int[][] tours = solveClusters(clusters, control, executor);
+            int[] clusterOf = new int[n];
+            for (int c = 0; c < clusters.length; c++) {
+                for (int city : clusters[c]) {
+                    clusterOf[city] = c;
+                }
+            }
+
+            NeighborIndex neighbors = NeighborIndex.build(graph, TSPLocalSearch.DEFAULT_NEIGHBORS);
+            int[] joints = new int[4 * tours.length]; // End cities of the edges added by the merges
+            ArrayTour tour = stitch(tours, clusterOf, neighbors, joints);
+            long cost = tour.cost(graph);
+
+            // Repair: local search from the cities with a candidate neighbour in another cluster
+            int[] active = Arrays.copyOf(joints, n + joints.length);
+            int count = joints.length;
+            for (int city = 0; city < n; city++) {
+                for (int r = 0; r < neighbors.getK(); r++) {
+                    int other = neighbors.getNeighbor(city, r);
+                    if (clusterOf[other] != clusterOf[city]) {
+                        active[count++] = city;
+                        break;
+                    }
+                }
+            }
+            repairGain = new TSPLocalSearch(graph, neighbors).optimize(tour, active, count);
+            bestCost = cost - repairGain;
+            bestPath = tour.toPath(start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return control.result(start, null, Long.MAX_VALUE, false);
+        } catch (ExecutionException e) {
+            System.err.println("A cluster solve failed: " + e.getCause());
+            return control.result(start, null, Long.MAX_VALUE, false);
+        } finally {
+            executor.shutdownNow();
+        }
+        return control.result(start, bestPath, bestCost, false);
+    }
+
+    /**
+     * Gets the name of the solver.
+     *
+     * @return : The name of the solver
+     */
+    @Override
+    public String getName() {
+        return "Decomposition";
+    }
+
+    /**
+     * Splits the cities into clusters, in merge order.
+     *
+     * @param executor -> The worker threads
+     * @return : The cities of every cluster (no cluster is empty)
+     * @throws InterruptedException -> If the thread is interrupted
+     * @throws ExecutionException -> If a worker fails
+     */
+    private int[][] partition(ExecutorService executor) throws InterruptedException, ExecutionException {
+        int n = graph.getNumCities();
+        int k = Math.max(1, (n + clusterSize - 1) / clusterSize);
+        if (!(graph instanceof CoordinateGraph)) {
+            return partitionBySeeds(k);
+        }
+
+        // Hilbert order of the cities, cut into k runs of consecutive cities
+        CoordinateGraph coordinates = (CoordinateGraph) graph;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = coordinates.getX(i);
+            y[i] = coordinates.getY(i);
+        }
+        int[] order = hilbertOrder(x, y, n);
+        int[][] clusters = new int[k][];
+        for (int c = 0; c < k; c++) {
+            clusters[c] = Arrays.copyOfRange(order, (int) ((long) c * n / k), (int) ((long) (c + 1) * n / k));
+        }
+        if (partition == Partition.KMEANS && k > 1) {
+            clusters = kMeans(x, y, clusters, executor);
+        }
+        return clusters;
+    }
+
+    /**
+     * Sorts points along a Hilbert curve over their bounding box.
+     *
+     * @param x -> The x coordinate of every point
+     * @param y -> The y coordinate of every point
+     * @param count -> The number of points
+     * @return : The points in curve order
+     */
+    private static int[] hilbertOrder(double[] x, double[] y, int count) {
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            minX = Math.min(minX, x[i]);
+            maxX = Math.max(maxX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        int side = 1 << HILBERT_ORDER;
+        double scale = (side - 1) / Math.max(Math.max(maxX - minX, maxY - minY), 1e-9);
+
+        // Sort (curve index, point) pairs packed in a long: the index uses 2 * HILBERT_ORDER = 32 bits
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            int gx = (int) ((x[i] - minX) * scale);
+            int gy = (int) ((y[i] - minY) * scale);
+            keys[i] = hilbertIndex(gx, gy, side) << 31 | i;
+        }
+        Arrays.parallelSort(keys);
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = (int) (keys[i] & Integer.MAX_VALUE);
+        }
+        return order;
+    }
+
+    /**
+     * Gets the position of a grid cell along the Hilbert curve.
+     *
+     * @param gx -> The column of the cell
+     * @param gy -> The row of the cell
+     * @param side -> The side of the grid (a power of 2)
+     * @return : The curve index of the cell
+     */
+    private static long hilbertIndex(int gx, int gy, int side) {
+        long d = 0;
+        for (int s = side / 2; s > 0; s /= 2) {
+            int rx = (gx & s) > 0 ? 1 : 0;
+            int ry = (gy & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            // Rotate the quadrant so the sub-curve has the standard orientation
+            if (ry == 0) {
+                if (rx == 1) {
+                    gx = side - 1 - gx;
+                    gy = side - 1 - gy;
+                }
+                int t = gx;
+                gx = gy;
+                gy = t;
+            }
+        }
+        return d;
+    }
+
+    /**
+     * Refines a partition with Lloyd iterations of k-means. A city is only compared with the center of its cluster
+     * and the CENTER_NEIGHBORS centers nearest to it, so an iteration costs O(n) instead of O(n * k).
+     * The clusters are returned in Hilbert order of their centers.
+     *
+     * @param x -> The x coordinate of every city
+     * @param y -> The y coordinate of every city
+     * @param initial -> The initial clusters
+     * @param executor -> The worker threads of the assignment step
+     * @return : The refined clusters (no cluster is empty)
+     * @throws InterruptedException -> If the thread is interrupted
+     * @throws ExecutionException -> If a worker fails
+     */
+    private int[][] kMeans(double[] x, double[] y, int[][] initial, ExecutorService executor)
+            throws InterruptedException, ExecutionException {
+        int n = x.length;
+        int k = initial.length;
+        int[] assignment = new int[n];
+        for (int c = 0; c < k; c++) {
+            for (int city : initial[c]) {
+                assignment[city] = c;
+            }
+        }
+        double[] centerX = new double[k];
+        double[] centerY = new double[k];
+        int[] sizes = new int[k];
+        int near = Math.min(CENTER_NEIGHBORS, k - 1);
+        int[] nearCenters = new int[k * near];
+        double[] d = new double[k];
+
+        for (int iteration = 0; iteration < KMEANS_ITERATIONS; iteration++) {
+            // Update: every center moves to the centroid of its cities (an empty cluster keeps its center)
+            double[] sumX = new double[k];
+            double[] sumY = new double[k];
+            Arrays.fill(sizes, 0);
+            for (int i = 0; i < n; i++) {
+                sumX[assignment[i]] += x[i];
+                sumY[assignment[i]] += y[i];
+                sizes[assignment[i]]++;
+            }
+            for (int c = 0; c < k; c++) {
+                if (sizes[c] > 0) {
+                    centerX[c] = sumX[c] / sizes[c];
+                    centerY[c] = sumY[c] / sizes[c];
+                }
+            }
+
+            // Nearest centers of every center (partial selection sort of a k-long distance array)
+            for (int c = 0; c < k; c++) {
+                for (int o = 0; o < k; o++) {
+                    d[o] = o == c ? Double.MAX_VALUE : squared(centerX[c] - centerX[o], centerY[c] - centerY[o]);
+                }
+                for (int r = 0; r < near; r++) {
+                    int best = 0;
+                    for (int o = 1; o < k; o++) {
+                        if (d[o] < d[best]) {
+                            best = o;
+                        }
+                    }
+                    nearCenters[c * near + r] = best;
+                    d[best] = Double.MAX_VALUE;
+                }
+            }
+
+            // Assignment: every city moves to the nearest of its center and the centers near it, in parallel blocks
+            int blocks = Math.min(parallelism, n);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int b = 0; b < blocks; b++) {
+                int from = (int) ((long) b * n / blocks);
+                int to = (int) ((long) (b + 1) * n / blocks);
+                futures.add(executor.submit(() -> {
+                    for (int i = from; i < to; i++) {
+                        int current = assignment[i];
+                        int best = current;
+                        double bestDistance = squared(x[i] - centerX[current], y[i] - centerY[current]);
+                        for (int r = 0; r < near; r++) {
+                            int other = nearCenters[current * near + r];
+                            double distance = squared(x[i] - centerX[other], y[i] - centerY[other]);
+                            if (distance < bestDistance) {
+                                bestDistance = distance;
+                                best = other;
+                            }
+                        }
+                        assignment[i] = best;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        // Group the cities by cluster, dropping the empty clusters, in Hilbert order of the centers
+        Arrays.fill(sizes, 0);
+        for (int i = 0; i < n; i++) {
+            sizes[assignment[i]]++;
+        }
+        int[][] members = new int[k][];
+        for (int c = 0; c < k; c++) {
+            members[c] = new int[sizes[c]];
+        }
+        int[] fill = new int[k];
+        for (int i = 0; i < n; i++) {
+            int c = assignment[i];
+            members[c][fill[c]++] = i;
+        }
+        List<int[]> clusters = new ArrayList<>();
+        for (int c : hilbertOrder(centerX, centerY, k)) {
+            if (sizes[c] > 0) {
+                clusters.add(members[c]);
+            }
+        }
+        return clusters.toArray(new int[0][]);
+    }
+
+    /**
+     * Splits the cities of a graph without coordinates around k random seed cities: every city goes to its nearest
+     * seed. The clusters are returned in nearest-neighbour order of their seeds.
+     *
+     * @param k -> The number of clusters
+     * @return : The cities of every cluster (no cluster is empty)
+     */
+    private int[][] partitionBySeeds(int k) {
+        int n = graph.getNumCities();
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] cities = new int[n];
+        for (int i = 0; i < n; i++) {
+            cities[i] = i;
+        }
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(n - i); // Partial Fisher-Yates shuffle: the first k cities are the seeds
+            int tmp = cities[i];
+            cities[i] = cities[j];
+            cities[j] = tmp;
+        }
+        int[] seeds = Arrays.copyOf(cities, k);
+
+        // Chain the seeds from the first one, always to the nearest seed not chained yet
+        boolean[] chained = new boolean[k];
+        int[] rank = new int[k];
+        int last = 0;
+        chained[0] = true;
+        for (int r = 1; r < k; r++) {
+            int next = -1;
+            for (int s = 0; s < k; s++) {
+                if (!chained[s] && (next == -1
+                        || graph.getDistance(seeds[last], seeds[s]) < graph.getDistance(seeds[last], seeds[next]))) {
+                    next = s;
+                }
+            }
+            chained[next] = true;
+            rank[next] = r;
+            last = next;
+        }
+
+        int[] assignment = new int[n];
+        int[] sizes = new int[k];
+        for (int i = 0; i < n; i++) {
+            int best = 0;
+            for (int s = 1; s < k; s++) {
+                if (graph.getDistance(i, seeds[s]) < graph.getDistance(i, seeds[best])) {
+                    best = s;
+                }
+            }
+            assignment[i] = rank[best];
+            sizes[rank[best]]++;
+        }
+        int[][] clusters = new int[k][];
+        int[] fill = new int[k];
+        for (int c = 0; c < k; c++) {
+            clusters[c] = new int[sizes[c]];
+        }
+        for (int i = 0; i < n; i++) {
+            clusters[assignment[i]][fill[assignment[i]]++] = i;
+        }
+        return clusters; // Every seed is in its own cluster, so none is empty
+    }
+
+    /**
+     * Solves every cluster on its sub-graph, concurrently.
+     *
+     * @param clusters -> The cities of every cluster
+     * @param control -> The control of the whole solve (clusters started after it stops keep their partition order)
+     * @param executor -> The worker threads
+     * @return : The tour of every cluster, as global cities in tour order
+     * @throws InterruptedException -> If the thread is interrupted
+     * @throws ExecutionException -> If a cluster solve fails
+     */
+    private int[][] solveClusters(int[][] clusters, SolveControl control, ExecutorService executor)
+            throws InterruptedException, ExecutionException {
+        List<Future<int[]>> futures = new ArrayList<>();
+        for (int[] cluster : clusters) {
+            futures.add(executor.submit(() -> solveCluster(cluster, control)));
+        }
+        int[][] tours = new int[clusters.length][];
+        for (int c = 0; c < clusters.length; c++) {
+            tours[c] = futures.get(c).get();
+        }
+        return tours;
+    }
+
+    /**
+     * Solves one cluster.
+     *
+     * @param cluster -> The cities of the cluster
+     * @param control -> The control of the whole solve
+     * @return : The cities of the cluster in tour order
+     */
+    private int[] solveCluster(int[] cluster, SolveControl control) {
+        if (cluster.length <= 3 || control.shouldStop(0)) {
+            return cluster; // Every order is optimal, or no time is left
+        }
+        Graph subGraph;
+        if (graph instanceof CoordinateGraph) {
+            CoordinateGraph coordinates = (CoordinateGraph) graph;
+            double[] x = new double[cluster.length];
+            double[] y = new double[cluster.length];
+            for (int i = 0; i < cluster.length; i++) {
+                x[i] = coordinates.getX(cluster[i]);
+                y[i] = coordinates.getY(cluster[i]);
+            }
+            subGraph = new CoordinateGraph(x, y, coordinates.getDistanceType());
+        } else {
+            subGraph = new SubGraph(graph, cluster);
+        }
+
+        TSPSolver solver;
+        if (clusterSolver != null) {
+            solver = clusterSolver.apply(subGraph);
+        } else {
+            TSPLinKernighan linKernighan = new TSPLinKernighan(subGraph);
+            linKernighan.setTimeLimit(clusterTimeLimit);
+            solver = linKernighan;
+        }
+        SolveControl clusterControl = control.child(); // Stops with the whole solve
+        clusterControl.setGraph(subGraph);
+        Tour result = solver.solve(0, clusterControl);
+        if (result == null || result.getPath().size() != cluster.length + 1) {
+            return cluster; // No tour of the sub-graph: keep the partition order
+        }
+        int[] order = new int[cluster.length];
+        for (int i = 0; i < cluster.length; i++) {
+            order[i] = cluster[result.getPath().get(i)];
+        }
+        return order;
+    }
+
+    /**
+     * Merges the cluster tours into one tour. Each cluster tour C is joined to the tour T built so far by removing
+     * an edge (x, y) of T and an edge (u, v) of C and adding either (x, u) and (v, y) or (x, v) and (u, y),
+     * whichever pair is cheapest. The candidate edges of T are the edges at the merged candidate neighbours of the
+     * cities of C; if no city of C has one, every edge of T is tried with the first city of C.
+     *
+     * @param tours -> The tour of every cluster, in merge order
+     * @param clusterOf -> The cluster of every city
+     * @param neighbors -> The candidate neighbours of every city
+     * @param joints -> Receives the four end cities of the added edges of every merge
+     * @return : The merged tour
+     */
+    private ArrayTour stitch(int[][] tours, int[] clusterOf, NeighborIndex neighbors, int[] joints) {
+        int n = graph.getNumCities();
+        int[] next = new int[n]; // Successor of every merged city in T
+        int[] prev = new int[n]; // Predecessor of every merged city in T
+        boolean[] merged = new boolean[tours.length];
+        int[] first = tours[0];
+        for (int i = 0; i < first.length; i++) {
+            next[first[i]] = first[(i + 1) % first.length];
+            prev[first[i]] = first[(i + first.length - 1) % first.length];
+        }
+        merged[0] = true;
+        Arrays.fill(joints, first[0]);
+
+        for (int c = 1; c < tours.length; c++) {
+            int[] cycle = tours[c];
+            int m = cycle.length;
+            long bestDelta = Long.MAX_VALUE;
+            int bestX = -1; // Edge (bestX, next[bestX]) of T
+            int bestU = -1; // Index in the cycle of the edge (cycle[bestU], cycle[bestU + 1]) of C
+            boolean bestReversed = false; // True for (x, u) and (v, y), false for (x, v) and (u, y)
+
+            for (int i = 0; i < m; i++) {
+                for (int r = 0; r < neighbors.getK(); r++) {
+                    int a = neighbors.getNeighbor(cycle[i], r);
+                    if (!merged[clusterOf[a]]) {
+                        continue;
+                    }
+                    for (int xCity : new int[]{a, prev[a]}) {
+                        for (int u : new int[]{i, (i + m - 1) % m}) {
+                            long delta = joinDelta(xCity, next[xCity], cycle[u], cycle[(u + 1) % m], true);
+                            if (delta < bestDelta) {
+                                bestDelta = delta;
+                                bestX = xCity;
+                                bestU = u;
+                                bestReversed = true;
+                            }
+                            delta = joinDelta(xCity, next[xCity], cycle[u], cycle[(u + 1) % m], false);
+                            if (delta < bestDelta) {
+                                bestDelta = delta;
+                                bestX = xCity;
+                                bestU = u;
+                                bestReversed = false;
+                            }
+                        }
+                    }
+                }
+            }
+            if (bestX < 0) {
+                // No candidate neighbour merged yet: try every edge of T with the first city of C
+                int xCity = tours[0][0];
+                do {
+                    for (boolean reversed : new boolean[]{true, false}) {
+                        long delta = joinDelta(xCity, next[xCity], cycle[0], cycle[1 % m], reversed);
+                        if (delta < bestDelta) {
+                            bestDelta = delta;
+                            bestX = xCity;
+                            bestU = 0;
+                            bestReversed = reversed;
+                        }
+                    }
+                    xCity = next[xCity];
+                } while (xCity != tours[0][0]);
+            }
+
+            // Splice C between bestX and its successor, starting at u and walking backwards to v, or
+            // starting at v and walking forwards to u
+            int y = next[bestX];
+            int step = bestReversed ? m - 1 : 1;
+            int index = bestReversed ? bestU : (bestU + 1) % m;
+            int last = bestX;
+            for (int i = 0; i < m; i++) {
+                int city = cycle[index];
+                next[last] = city;
+                prev[city] = last;
+                last = city;
+                index = (index + step) % m;
+            }
+            next[last] = y;
+            prev[y] = last;
+            merged[c] = true;
+            joints[4 * c] = bestX;
+            joints[4 * c + 1] = y;
+            joints[4 * c + 2] = cycle[bestU];
+            joints[4 * c + 3] = cycle[(bestU + 1) % m];
+        }
+
+        int[] order = new int[n];
+        int city = first[0];
+        for (int i = 0; i < n; i++) {
+            order[i] = city;
+            city = next[city];
+        }
+        return new ArrayTour(order);
+    }
+
+    /**
+     * Calculates the cost change of joining a cycle C into the tour T through the edges (x, y) of T and (u, v) of C.
+     * When T or C is a single city, its edge is a loop of length 0 and the join is an insertion.
+     * A missing edge costs TSPLocalSearch.MISSING_EDGE, so the stitch only uses one when it has no other choice.
+     *
+     * @param x -> The first city of the edge of T
+     * @param y -> The second city of the edge of T
+     * @param u -> The first city of the edge of C
+     * @param v -> The second city of the edge of C
+     * @param reversed -> True to add (x, u) and (v, y), false to add (x, v) and (u, y)
+     * @return : The cost change of the join
+     */
+    private long joinDelta(int x, int y, int u, int v, boolean reversed) {
+        long added = reversed ? TSPLocalSearch.edgeCost(graph, x, u) + TSPLocalSearch.edgeCost(graph, v, y)
+                : TSPLocalSearch.edgeCost(graph, x, v) + TSPLocalSearch.edgeCost(graph, u, y);
+        return added - TSPLocalSearch.edgeCost(graph, x, y) - TSPLocalSearch.edgeCost(graph, u, v);
+    }
+
+    /**
+     * Gets the squared length of a vector.
+     *
+     * @param dx -> The x component
+     * @param dy -> The y component
+     * @return : The squared length
+     */
+    private static double squared(double dx, double dy) {
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Gets the best path found by the algorithm.
+     *
+     * @return : The list of cities representing the best path
+     */
+    public List<Integer> getBestPath() {
+        if (bestPath.isEmpty()) {
+            System.err.println("No path found. Please run the solve method first.");
+            return new ArrayList<>();
+        }
+        return bestPath;
+    }
+
+    /**
+     * Gets the cost of the best path found by the algorithm
+     *
+     * @return : The cost of the best path
+     */
+    public long getBestCost() {
+        if (bestCost == Long.MAX_VALUE) {
+            System.err.println("No path found. Please run the solve method first.");
+        }
+        return bestCost;
+    }
+
+    /**
+     * Gets the number of clusters of the last solve.
+     *
+     * @return : The number of clusters
+     */
+    public int getNumClusters() {
+        return numClusters;
+    }
+
+    /**
+     * Gets the cost removed by the boundary repair of the last solve.
+     *
+     * @return : The gain of the repair
+     */
+    public long getRepairGain() {
+        return repairGain;
+    }
+
+    /**
+     * The SubGraph class is the graph of a cluster of a graph without coordinates: city i of the sub-graph is
+     * city cities[i] of the graph, and the distances are read from the graph.
+     */
+    private static final class SubGraph implements Graph {
+        private final Graph graph; // The whole graph
+        private final int[] cities; // The city of the graph of every sub-graph city
+
+        SubGraph(Graph graph, int[] cities) {
+            this.graph = graph;
+            this.cities = cities;
+        }
+
+        @Override
+        public int getDistance(int from, int to) {
+            return graph.getDistance(cities[from], cities[to]);
+        }
+
+        @Override
+        public int getNumCities() {
+            return cities.length;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package TSPAlgorithms;
+
+import Graphs.Graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * The TSPHeldKarp class implements the Held-Karp dynamic programming algorithm for solving the Traveling Salesman Problem (TSP).
+ * The DP runs in O(2^n * n^2) time over primitive tables indexed by (visited mask, last city), so exact answers
+ * for 20-25 city instances become practical where the search based solvers never finish.
+ */
+public class TSPHeldKarp {
+    private static final int MAX_CITIES = 30; // Upper limit for the number of cities (table size grows with 2^n)
+    private static final int INF = Integer.MAX_VALUE; // Marker for unreachable (mask, last city) states
+    private static final int NONE = -1; // Marker for a missing parent
+
+    private final Graph graph; // The graph representing the cities and distances
+    private int bestCost; // Minimum cost found
+    private List<Integer> bestPath; // Best path found
+
+    /**
+     * Constructor for TSPHeldKarp.
+     *
+     * @param graph -> The graph on which the algorithm will run
+     */
+    public TSPHeldKarp(Graph graph) {
+        this.graph = graph;
+        if (graph == null) {
+            System.err.println("Graph cannot be null");
+        }
+        this.bestCost = Integer.MAX_VALUE; // Initialize the best cost to a very high value
+        this.bestPath = new ArrayList<>(); // Initialize the best path as an empty list
+    }
+
+    /**
+     * Solves the TSP exactly starting (and ending) in the specified city.
+     * The cities other than the start city are renumbered 0..m-1, and dp[mask * m + j] holds the cheapest
+     * path that leaves the start city, visits exactly the cities in mask and ends in city j.
+     * The table is filled layer by layer (by subset size), each layer in parallel, since every state of a layer
+     * only depends on states of the previous layer.
+     *
+     * @param start -> The starting city index
+     */
+    public void search(int start) {
+        if (graph == null) {
+            System.err.println("Graph cannot be null");
+            return;
+        }
+        int n = graph.getNumCities();
+        if (start < 0 || start >= n) {
+            System.err.println("Invalid start city index");
+            return;
+        }
+        if (n > MAX_CITIES) {
+            System.err.println("Held-Karp supports at most " + MAX_CITIES + " cities");
+            return;
+        }
+
+        bestCost = Integer.MAX_VALUE;
+        bestPath = new ArrayList<>();
+
+        if (n == 1) {
+            bestCost = 0;
+            bestPath.add(start);
+            bestPath.add(start);
+            return;
+        }
+
+        int m = n - 1; // Number of cities other than the start city
+        int[] city = new int[m]; // Maps the compact index to the real city index
+        for (int i = 0, k = 0; i < n; i++) {
+            if (i != start) {
+                city[k++] = i;
+            }
+        }
+
+        long size = (1L << m) * m;
+        if (size > Integer.MAX_VALUE - 8) {
+            System.err.println("Graph is too large for the Held-Karp tables");
+            return;
+        }
+
+        int[] dist = new int[m * m]; // Distances between the compact cities, copied once for locality
+        int[] fromStart = new int[m]; // Distances from the start city to every compact city
+        int[] toStart = new int[m]; // Distances from every compact city back to the start city
+        for (int i = 0; i < m; i++) {
+            fromStart[i] = graph.getDistance(start, city[i]);
+            toStart[i] = graph.getDistance(city[i], start);
+            for (int j = 0; j < m; j++) {
+                dist[i * m + j] = graph.getDistance(city[i], city[j]);
+            }
+        }
+
+        int[] dp = new int[(int) size]; // Cost table indexed by (mask, last city)
+        byte[] parent = new byte[(int) size]; // Compact parent table: the city visited before the last one
+
+        // Layer 1: paths that go directly from the start city to a single city
+        for (int j = 0; j < m; j++) {
+            int index = (1 << j) * m + j;
+            dp[index] = fromStart[j] > 0 ? fromStart[j] : INF; // A distance of 0 means there is no path
+            parent[index] = NONE;
+        }
+
+        // Layers 2..m: each mask only reads masks with one city less, so a whole layer can be filled in parallel
+        int fullMask = (1 << m) - 1;
+        for (int layer = 2; layer <= m; layer++) {
+            final int bits = layer;
+            IntStream.rangeClosed(1, fullMask).parallel()
+                    .filter(mask -> Integer.bitCount(mask) == bits)
+                    .forEach(mask -> fillState(mask, m, dist, dp, parent));
+        }
+
+        // Close the tour by returning to the start city
+        int bestLast = NONE;
+        for (int j = 0; j < m; j++) {
+            int cost = dp[fullMask * m + j];
+            if (cost == INF || toStart[j] <= 0) {
+                continue;
+            }
+            if (cost + toStart[j] < bestCost) {
+                bestCost = cost + toStart[j];
+                bestLast = j;
+            }
+        }
+
+        if (bestLast == NONE) {
+            bestCost = Integer.MAX_VALUE;
+            return;
+        }
+
+        // Rebuild the tour from the parent table, walking backwards from the last city
+        int[] reversed = new int[m];
+        int mask = fullMask;
+        int last = bestLast;
+        for (int k = m - 1; k >= 0; k--) {
+            reversed[k] = city[last];
+            int previous = parent[mask * m + last];
+            mask &= ~(1 << last);
+            last = previous;
+        }
+
+        bestPath.add(start);
+        for (int c : reversed) {
+            bestPath.add(c);
+        }
+        bestPath.add(start); // Add the start city to the end to complete the cycle
+    }
+
+    /**
+     * Computes every dp entry of a single mask from the entries of the mask without the last city.
+     *
+     * @param mask -> The set of visited compact cities
+     * @param m -> The number of compact cities
+     * @param dist -> The compact distance matrix
+     * @param dp -> The cost table
+     * @param parent -> The parent table
+     */
+    private static void fillState(int mask, int m, int[] dist, int[] dp, byte[] parent) {
+        for (int j = 0; j < m; j++) {
+            if ((mask & (1 << j)) == 0) {
+                continue;
+            }
+            int previousMask = mask & ~(1 << j);
+            int previousBase = previousMask * m;
+            int best = INF;
+            int bestParent = NONE;
+
+            for (int i = 0; i < m; i++) {
+                if ((previousMask & (1 << i)) == 0) {
+                    continue;
+                }
+                int cost = dp[previousBase + i];
+                int d = dist[i * m + j];
+                if (cost == INF || d <= 0) {
+                    continue; // Unreachable state or no path between the cities
+                }
+                if (cost + d < best) {
+                    best = cost + d;
+                    bestParent = i;
+                }
+            }
+
+            dp[mask * m + j] = best;
+            parent[mask * m + j] = (byte) bestParent;
+        }
+    }
+
+    /**
+     * Gets the best path found by the algorithm.
+     *
+     * @return : The list of cities representing the best path
+     */
+    public List<Integer> getBestPath() {
+        if (bestPath.isEmpty()) {
+            System.err.println("No path found. Please run the search method first.");
+            return new ArrayList<>();
+        }
+        return bestPath;
+    }
+
+    /**
+     * Gets the minimum cost found by the algorithm
+     *
+     * @return : The minimum cost
+     */
+    public int getBestCost() {
+        if (bestCost == Integer.MAX_VALUE) {
+            System.err.println("No path found. Please run the search method first.");
+            return Integer.MAX_VALUE;
+        }
+        return bestCost;
+    }
+}
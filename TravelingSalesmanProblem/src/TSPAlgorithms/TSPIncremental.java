@@ -0,0 +1,196 @@
+package TSPAlgorithms;
+
+import Graphs.MatrixGraph;
+import Graphs.NeighborIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The TSPIncremental class keeps a tour of a graph whose distances change a few edges at a time (for example
+ * traffic updates) and re-optimizes it locally instead of solving the graph again. It turns on change tracking
+ * in the MatrixGraph, so every addEdge is recorded. On update, only the tour edges among the changed edges are
+ * re-evaluated (the cost is adjusted by their difference), the candidate neighbours of the changed cities are
+ * recomputed, and 2-opt / Or-opt moves are run from the changed cities and their tour neighbours only.
+ * A few changed edges are repaired in milliseconds, whatever the size of the graph.
+ */
+public class TSPIncremental implements TSPSolver {
+    private final MatrixGraph graph; // The graph representing the cities and distances
+    private final NeighborIndex neighbors; // Candidate neighbours, kept up to date with the changes
+    private final TSPLocalSearch localSearch; // Improver sharing the candidate neighbours
+    private ArrayTour tour; // Current tour (null before the first solve)
+    private long cost; // Cost of the current tour on the current distances
+    private int lastChangedEdges; // Number of changes applied by the last update
+    private long lastUpdateNanos; // Duration of the last update
+
+    /**
+     * Constructor for TSPIncremental. Turns on change tracking in the graph.
+     *
+     * @param graph -> The graph on which the algorithm will run
+     */
+    public TSPIncremental(MatrixGraph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        this.graph = graph;
+        graph.setTrackChanges(true);
+        this.neighbors = NeighborIndex.build(graph, TSPLocalSearch.DEFAULT_NEIGHBORS);
+        this.localSearch = new TSPLocalSearch(graph, neighbors);
+    }
+
+    /**
+     * Sets the current tour, for example the result of a full solve. The changes recorded so far are discarded,
+     * since the tour is evaluated on the current distances.
+     *
+     * @param initialTour -> A closed tour visiting every city exactly once
+     */
+    public void setTour(List<Integer> initialTour) {
+        int n = graph.getNumCities();
+        if (initialTour == null || initialTour.size() != n + 1 || !initialTour.get(0).equals(initialTour.get(n))) {
+            System.err.println("The tour must be closed and visit all the " + n + " cities");
+            return;
+        }
+        int[] order = new int[n];
+        boolean[] seen = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            int city = initialTour.get(i);
+            if (city < 0 || city >= n || seen[city]) {
+                System.err.println("The tour must visit every city exactly once");
+                return;
+            }
+            seen[city] = true;
+            order[i] = city;
+        }
+        graph.drainChangedEdges();
+        tour = new ArrayTour(order);
+        cost = tour.cost(graph);
+    }
+
+    /**
+     * Solves the problem: the first call builds a tour with Chained Lin-Kernighan (unless a tour was set), and
+     * every later call only repairs the current tour around the edges changed since the previous call.
+     * The result is never proven optimal.
+     *
+     * @param start -> The starting city index
+     * @param control -> The limits of the first solve and the shared incumbent
+     * @return : The current tour, or null if none
+     */
+    @Override
+    public Tour solve(int start, SolveControl control) {
+        if (start < 0 || start >= graph.getNumCities()) {
+            System.err.println("Invalid start city index");
+            return null;
+        }
+        if (tour == null) {
+            Tour initial = new TSPLinKernighan(graph).solve(start, control);
+            if (initial == null) {
+                return null;
+            }
+            setTour(initial.getPath());
+        } else {
+            update();
+        }
+        Tour current = new Tour(tour.toPath(start), cost, false);
+        control.offer(current);
+        return current;
+    }
+
+    /**
+     * Gets the name of the solver.
+     *
+     * @return : The name of the solver
+     */
+    @Override
+    public String getName() {
+        return "Incremental";
+    }
+
+    /**
+     * Repairs the current tour after the edges changed since the last update.
+     *
+     * @return : The cost of the repaired tour
+     */
+    public long update() {
+        if (tour == null) {
+            System.err.println("No tour to update. Please run the solve method or set a tour first.");
+            return Long.MAX_VALUE;
+        }
+        long startTime = System.nanoTime();
+        List<MatrixGraph.EdgeChange> changes = graph.drainChangedEdges();
+        lastChangedEdges = changes.size();
+
+        // Re-evaluate the tour edges that changed, and activate the changed cities and their tour neighbours
+        int[] active = new int[changes.size() * 6];
+        int count = 0;
+        for (MatrixGraph.EdgeChange change : changes) {
+            int a = change.getFrom();
+            int b = change.getTo();
+            if (tour.next(a) == b || tour.prev(a) == b) {
+                cost += edgeCost(change.getDistance()) - edgeCost(change.getPreviousDistance());
+            }
+            neighbors.update(graph, a);
+            neighbors.update(graph, b);
+            active[count++] = a;
+            active[count++] = b;
+            active[count++] = tour.prev(a);
+            active[count++] = tour.next(a);
+            active[count++] = tour.prev(b);
+            active[count++] = tour.next(b);
+        }
+
+        cost -= localSearch.optimize(tour, active, count);
+        lastUpdateNanos = System.nanoTime() - startTime;
+        return cost;
+    }
+
+    /**
+     * Gets the current tour.
+     *
+     * @param start -> The city the path starts and ends at
+     * @return : The closed path of the current tour, or an empty list if there is none
+     */
+    public List<Integer> getBestPath(int start) {
+        if (tour == null) {
+            System.err.println("No path found. Please run the solve method first.");
+            return new ArrayList<>();
+        }
+        return tour.toPath(start);
+    }
+
+    /**
+     * Gets the cost of a tour edge from its distance, as the local search counts it (see TSPLocalSearch.edgeCost).
+     *
+     * @param distance -> The distance of the edge
+     * @return : The cost of the edge
+     */
+    private static long edgeCost(int distance) {
+        return distance > 0 ? distance : TSPLocalSearch.MISSING_EDGE;
+    }
+
+    /**
+     * Gets the cost of the current tour on the current distances.
+     *
+     * @return : The cost of the current tour
+     */
+    public long getBestCost() {
+        return cost;
+    }
+
+    /**
+     * Gets the number of edge changes applied by the last update.
+     *
+     * @return : The number of changes
+     */
+    public int getLastChangedEdges() {
+        return lastChangedEdges;
+    }
+
+    /**
+     * Gets the duration of the last update.
+     *
+     * @return : The duration in nanoseconds
+     */
+    public long getLastUpdateNanos() {
+        return lastUpdateNanos;
+    }
+}
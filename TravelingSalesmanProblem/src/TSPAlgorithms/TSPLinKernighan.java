@@ -0,0 +1,501 @@
+package TSPAlgorithms;
+
+import Graphs.Graph;
+import Graphs.NeighborIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The TSPLinKernighan class implements a Lin-Kernighan style variable-depth local search for the Traveling Salesman
+ * Problem (TSP), restarted with double-bridge kicks (Chained Lin-Kernighan).
+ * An LK move is a chain of 2-opt moves that keeps one end city t1 fixed: every step breaks the edge at the free end,
+ * adds an edge to a candidate neighbour, and the chain is closed at the step with the best total gain. The first levels
+ * of the chain try several alternatives (breadth), so the sequential moves found include 3-opt and 5-opt moves.
+ * The tour is an array with position index, where every step is a reversal of the shorter side.
+ * After the local optimum is reached, a double-bridge kick perturbs a small window of the tour, LK re-optimizes the
+ * cities around it, and the kick is kept only if the tour got shorter.
+ */
+public class TSPLinKernighan implements TSPSolver {
+    public static final int DEFAULT_NEIGHBORS = 8; // Default number of candidate neighbours per city
+    private static final int[] BREADTH = {5, 3, 1}; // Alternatives tried at the first levels of a chain, then 1
+    private static final int MAX_DEPTH = 50; // Maximum number of steps of a chain
+    private static final int KICK_SEGMENT = 50; // Maximum length of the segments swapped by a kick
+
+    private final Graph graph; // The graph representing the cities and distances
+    private NeighborIndex neighbors; // Candidate neighbours of every city (built on first use)
+    private long timeLimitMillis = 1000; // Time budget of the kicks phase
+    private int maxKicks = Integer.MAX_VALUE; // Maximum number of kicks
+    private long seed = 42; // Seed of the kicks
+    private long bestCost; // Cost of the best tour
+    private List<Integer> bestPath; // Best tour
+    private int kicks; // Number of kicks performed by the last run
+    private SolveControl control; // Limits and shared incumbent of the current solve (null for search)
+
+    private ArrayTour tour; // The tour being improved
+    private int[] journal = new int[64]; // Applied 2-opt moves (a, b, c, d), so they can be undone
+    private int journalSize; // Number of ints used in the journal
+    private boolean keepJournal; // True while a kick is being evaluated (its moves may have to be undone)
+    private int[] added = new int[2 * MAX_DEPTH + 2]; // Edges added by the current chain (they must not be broken)
+    private int addedSize; // Number of ints used in 'added'
+    private long bestGain; // Best closing gain of the current chain
+    private int bestJournalSize; // Journal size at the best closing gain
+
+    /**
+     * Constructor for TSPLinKernighan.
+     *
+     * @param graph -> The graph on which the algorithm will run
+     */
+    public TSPLinKernighan(Graph graph) {
+        this(graph, null);
+    }
+
+    /**
+     * Constructor for TSPLinKernighan with a precomputed candidate-neighbour index.
+     *
+     * @param graph -> The graph on which the algorithm will run
+     * @param neighbors -> The candidate neighbours of every city (null to build them with DEFAULT_NEIGHBORS)
+     */
+    public TSPLinKernighan(Graph graph, NeighborIndex neighbors) {
+        this.graph = graph;
+        if (graph == null) {
+            System.err.println("Graph cannot be null");
+        }
+        this.neighbors = neighbors;
+        this.bestCost = Long.MAX_VALUE;
+        this.bestPath = new ArrayList<>();
+    }
+
+    /**
+     * Sets the time budget of the kicks phase (the first LK descent always runs to its local optimum).
+     *
+     * @param timeLimitMillis -> The time budget in milliseconds
+     */
+    public void setTimeLimit(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    /**
+     * Sets the maximum number of kicks.
+     *
+     * @param maxKicks -> The maximum number of kicks (0 for plain LK)
+     */
+    public void setMaxKicks(int maxKicks) {
+        this.maxKicks = maxKicks;
+    }
+
+    /**
+     * Sets the seed of the random kicks, so runs are reproducible.
+     *
+     * @param seed -> The seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Builds a 2-opt / Or-opt tour from a specified city and improves it.
+     *
+     * @param start -> The starting city index
+     */
+    public void search(int start) {
+        if (graph == null || start < 0 || start >= graph.getNumCities()) {
+            System.err.println("Invalid start city index");
+            return;
+        }
+        if (neighbors == null) {
+            neighbors = NeighborIndex.build(graph, DEFAULT_NEIGHBORS);
+        }
+        TSPLocalSearch localSearch = new TSPLocalSearch(graph, neighbors);
+        localSearch.search(start);
+        improve(localSearch.getBestPath());
+    }
+
+    /**
+     * Solves the problem with Chained Lin-Kernighan, bounded by a control: the kicks also stop when the control
+     * says so. The tour of the first LK descent is published to the control as soon as it is found.
+     * The result is never proven optimal.
+     *
+     * @param start -> The starting city index
+     * @param control -> The limits of the solve and the shared incumbent
+     * @return : The best tour known when the search ends, or null if none
+     */
+    @Override
+    public Tour solve(int start, SolveControl control) {
+        if (graph == null || start < 0 || start >= graph.getNumCities()) {
+            System.err.println("Invalid start city index");
+            return null;
+        }
+        this.control = control;
+        try {
+            search(start);
+        } finally {
+            this.control = null;
+        }
+        return control.result(start, bestPath.isEmpty() ? null : TSPConstruction.rotate(bestPath, start), bestCost, false);
+    }
+
+    /**
+     * Gets the name of the solver.
+     *
+     * @return : The name of the solver
+     */
+    @Override
+    public String getName() {
+        return "Lin-Kernighan";
+    }
+
+    /**
+     * Improves a tour. The tour may be closed (start city repeated at the end, as returned by the other solvers)
+     * or open, and must visit every city exactly once.
+     *
+     * @param initialTour -> The tour to improve
+     */
+    public void improve(List<Integer> initialTour) {
+        if (graph == null || initialTour == null || initialTour.isEmpty()) {
+            System.err.println("Tour cannot be empty");
+            return;
+        }
+        int n = graph.getNumCities();
+        int size = initialTour.size();
+        if (size == n + 1 && initialTour.get(0).equals(initialTour.get(n))) {
+            size = n; // Drop the repeated start city of a closed tour
+        }
+        if (size != n) {
+            System.err.println("The tour must visit all the " + n + " cities");
+            return;
+        }
+        if (neighbors == null) {
+            neighbors = NeighborIndex.build(graph, DEFAULT_NEIGHBORS);
+        }
+
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = initialTour.get(i);
+        }
+        tour = new ArrayTour(order);
+        kicks = 0;
+
+        long deadline = System.nanoTime() + timeLimitMillis * 1_000_000L;
+        if (n >= 5) {
+            optimize(order.clone(), n); // All the cities are initially active
+        }
+        if (control != null) {
+            control.offer(new Tour(tour.toPath(order[0]), tour.cost(graph), false)); // Publish the local optimum
+        }
+        if (n >= 8) {
+            kickLoop(deadline); // The kick needs two segments and three other cities
+        }
+
+        bestCost = tour.cost(graph);
+        bestPath = tour.toPath(order[0]);
+        tour = null;
+    }
+
+    /**
+     * Repeats double-bridge kicks followed by a local LK re-optimization, keeping only the kicks that shorten the tour.
+     *
+     * @param deadline -> The System.nanoTime() value at which the kicks stop
+     */
+    private void kickLoop(long deadline) {
+        int n = tour.size();
+        int segment = Math.max(1, Math.min(KICK_SEGMENT, (n - 2) / 3));
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] dirty = new int[6];
+
+        while (kicks < maxKicks && System.nanoTime() < deadline && (control == null || !control.shouldStop(kicks))) {
+            kicks++;
+            // Pick two adjacent segments inside the array, without wrap-around
+            int lengthA = 1 + random.nextInt(segment);
+            int lengthB = 1 + random.nextInt(segment);
+            int i = random.nextInt(n - lengthA - lengthB - 1);
+            int j = i + lengthA;
+            int k = j + lengthB;
+            int before = tour.cityAt(i);
+            int firstA = tour.cityAt(i + 1);
+            int lastA = tour.cityAt(j);
+            int firstB = tour.cityAt(j + 1);
+            int lastB = tour.cityAt(k);
+            int after = tour.cityAt(k + 1 == n ? 0 : k + 1);
+
+            long delta = edgeCost(before, firstB) + edgeCost(lastB, firstA) + edgeCost(lastA, after)
+                    - edgeCost(before, firstA) - edgeCost(lastA, firstB) - edgeCost(lastB, after);
+            tour.swapAdjacentSegments(i, j, k);
+
+            journalSize = 0;
+            keepJournal = true;
+            dirty[0] = before;
+            dirty[1] = firstA;
+            dirty[2] = lastA;
+            dirty[3] = firstB;
+            dirty[4] = lastB;
+            dirty[5] = after;
+            long gain = optimize(dirty, dirty.length);
+
+            if (gain - delta < 0) {
+                // The kick made the tour longer: undo the LK moves, then the kick
+                undoTo(0);
+                tour.swapAdjacentSegments(i, i + lengthB, k);
+            }
+        }
+        journalSize = 0;
+        keepJournal = false;
+    }
+
+    /**
+     * Runs LK moves from a set of active cities until no improving move is left (don't-look bits).
+     *
+     * @param active -> The cities that are initially active
+     * @param count -> The number of active cities
+     * @return : The total gain of the applied moves
+     */
+    private long optimize(int[] active, int count) {
+        int n = tour.size();
+        int[] queue = new int[n];
+        boolean[] queued = new boolean[n];
+        int head = 0;
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            if (!queued[active[i]]) {
+                queued[active[i]] = true;
+                queue[size++] = active[i];
+            }
+        }
+
+        long total = 0;
+        while (size > 0) {
+            int t1 = queue[head];
+            head = head + 1 == n ? 0 : head + 1;
+            size--;
+            queued[t1] = false;
+
+            int start = journalSize;
+            long gain = improveCity(t1);
+            if (gain > 0) {
+                total += gain;
+                // Wake up the endpoints of every edge changed by the move
+                for (int e = start; e < journalSize; e++) {
+                    int c = journal[e];
+                    if (!queued[c]) {
+                        queued[c] = true;
+                        queue[(head + size) % n] = c;
+                        size++;
+                    }
+                }
+                if (!queued[t1]) {
+                    queued[t1] = true;
+                    queue[(head + size) % n] = t1;
+                    size++;
+                }
+                if (!keepJournal) {
+                    journalSize = 0; // The move is final, it will never be undone
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Looks for an improving LK move starting at a city, with both tour neighbours as the first broken edge.
+     *
+     * @param t1 -> The fixed end of the chain
+     * @return : The gain of the applied move, or 0 if none was found
+     */
+    private long improveCity(int t1) {
+        for (int direction = 0; direction < 2; direction++) {
+            int t2 = direction == 0 ? tour.next(t1) : tour.prev(t1);
+            bestGain = 0;
+            bestJournalSize = journalSize;
+            addedSize = 0;
+            if (step(t1, t2, edgeCost(t1, t2), 1)) {
+                return bestGain;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * One step of an LK chain: the edge (t1, t2) is currently broken (t2 is the free end), with a cumulative gain g.
+     * The step adds an edge (t2, t3) to a candidate neighbour, breaks the edge (t3, t4) and closes the tour with
+     * (t4, t1) as a 2-opt move; then continues from t4. The best closing point of the chain is kept.
+     *
+     * @param t1 -> The fixed end of the chain
+     * @param t2 -> The free end of the chain
+     * @param g -> The cumulative gain: removed minus added edge lengths, without the closing edge
+     * @param level -> The depth of the step (1 for the first step)
+     * @return : True if an improving chain was applied, False if every step was undone
+     */
+    private boolean step(int t1, int t2, long g, int level) {
+        if (level > MAX_DEPTH) {
+            return false;
+        }
+        int breadth = level <= BREADTH.length ? BREADTH[level - 1] : BREADTH[BREADTH.length - 1];
+        int k = neighbors.getK();
+
+        // Select the 'breadth' best candidates t3, ranked by g1 + d(t3, t4)
+        int[] candidates = new int[breadth];
+        long[] scores = new long[breadth];
+        int found = 0;
+        boolean forward = tour.next(t1) == t2;
+        for (int rank = 0; rank < k; rank++) {
+            int t3 = neighbors.getNeighbor(t2, rank);
+            long g1 = g - edgeCost(t2, t3);
+            if (g1 <= 0) {
+                break; // The candidates are sorted by distance: no further one has a positive gain
+            }
+            if (t3 == t1 || t3 == tour.next(t2) || t3 == tour.prev(t2)) {
+                continue; // The edge (t2, t3) is already in the tour
+            }
+            int t4 = forward ? tour.prev(t3) : tour.next(t3);
+            if (isAdded(t3, t4)) {
+                continue; // Do not break an edge added by this chain
+            }
+            long score = g1 + edgeCost(t3, t4);
+            // Insertion into the small sorted list of the best candidates
+            int slot = found < breadth ? found++ : breadth;
+            while (slot > 0 && scores[slot - 1] < score) {
+                if (slot < breadth) {
+                    scores[slot] = scores[slot - 1];
+                    candidates[slot] = candidates[slot - 1];
+                }
+                slot--;
+            }
+            if (slot < breadth) {
+                scores[slot] = score;
+                candidates[slot] = t3;
+            }
+        }
+
+        for (int alternative = 0; alternative < found; alternative++) {
+            int t3 = candidates[alternative];
+            forward = tour.next(t1) == t2; // The orientation may have changed while exploring other alternatives
+            int t4 = forward ? tour.prev(t3) : tour.next(t3);
+            long gNext = g - edgeCost(t2, t3) + edgeCost(t3, t4);
+
+            // 2-opt move: remove (t1, t2) and (t4, t3), add (t2, t3) and (t1, t4)
+            if (forward) {
+                apply(t1, t2, t4, t3);
+            } else {
+                apply(t2, t1, t3, t4);
+            }
+            added[addedSize++] = t2;
+            added[addedSize++] = t3;
+
+            long closed = gNext - edgeCost(t4, t1);
+            if (closed > bestGain) {
+                bestGain = closed;
+                bestJournalSize = journalSize;
+            }
+
+            if (step(t1, t4, gNext, level + 1)) {
+                return true;
+            }
+            if (bestGain > 0) {
+                undoTo(bestJournalSize); // Keep the chain up to its best closing point
+                return true;
+            }
+
+            addedSize -= 2;
+            undoTo(journalSize - 4); // Undo this step and try the next alternative
+        }
+        return false;
+    }
+
+    /**
+     * Gets the cost of an edge for the moves (see TSPLocalSearch.edgeCost): missing edges are never added.
+     *
+     * @param a -> One city of the edge
+     * @param b -> The other city of the edge
+     * @return : The cost of the edge
+     */
+    private long edgeCost(int a, int b) {
+        return TSPLocalSearch.edgeCost(graph, a, b);
+    }
+
+    /**
+     * Checks if an edge was added by the current chain.
+     *
+     * @param a -> One city of the edge
+     * @param b -> The other city of the edge
+     * @return : True if the edge was added by the chain, False otherwise
+     */
+    private boolean isAdded(int a, int b) {
+        for (int i = 0; i < addedSize; i += 2) {
+            if ((added[i] == a && added[i + 1] == b) || (added[i] == b && added[i + 1] == a)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Applies a 2-opt move and records it in the journal.
+     *
+     * @param a -> The first city of the first removed edge
+     * @param b -> The second city of the first removed edge
+     * @param c -> The first city of the second removed edge
+     * @param d -> The second city of the second removed edge
+     */
+    private void apply(int a, int b, int c, int d) {
+        tour.move2opt(a, b, c, d);
+        if (journalSize + 4 > journal.length) {
+            journal = Arrays.copyOf(journal, journal.length * 2);
+        }
+        journal[journalSize++] = a;
+        journal[journalSize++] = b;
+        journal[journalSize++] = c;
+        journal[journalSize++] = d;
+    }
+
+    /**
+     * Undoes the journaled 2-opt moves, most recent first, until the journal has the specified size.
+     * The move that removed (a, b) and (c, d) and added (a, c) and (b, d) is undone by the inverse 2-opt move.
+     *
+     * @param size -> The journal size to go back to
+     */
+    private void undoTo(int size) {
+        while (journalSize > size) {
+            int d = journal[--journalSize];
+            int c = journal[--journalSize];
+            int b = journal[--journalSize];
+            int a = journal[--journalSize];
+            tour.move2opt(a, c, b, d);
+        }
+    }
+
+    /**
+     * Gets the best path found by the algorithm.
+     *
+     * @return : The list of cities representing the best path
+     */
+    public List<Integer> getBestPath() {
+        if (bestPath.isEmpty()) {
+            System.err.println("No path found. Please run the search method first.");
+            return new ArrayList<>();
+        }
+        return bestPath;
+    }
+
+    /**
+     * Gets the cost of the best path found by the algorithm
+     *
+     * @return : The cost of the best path
+     */
+    public long getBestCost() {
+        if (bestCost == Long.MAX_VALUE) {
+            System.err.println("No path found. Please run the search method first.");
+        }
+        return bestCost;
+    }
+
+    /**
+     * Gets the number of kicks performed by the last run.
+     *
+     * @return : The number of kicks
+     */
+    public int getKicks() {
+        return kicks;
+    }
+}
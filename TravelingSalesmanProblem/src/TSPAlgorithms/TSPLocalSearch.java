@@ -0,0 +1,473 @@
+package TSPAlgorithms;
+
+import Graphs.Graph;
+import Graphs.NeighborIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The TSPLocalSearch class improves a tour with 2-opt and Or-opt moves until no improving move is left.
+ * Moves are only searched between a city and its candidate neighbours (NeighborIndex), the gain of every move is
+ * evaluated in O(1) from the distances of the edges it removes and adds, and don't-look bits (a queue of active
+ * cities) make the search skip the cities whose surroundings did not change. This gives near-optimal tours for
+ * instances with tens of thousands of cities, far beyond the reach of the exact solvers.
+ * A missing edge (distance 0 between two cities) costs MISSING_EDGE, so no move ever adds one, and a tour that
+ * had to use one sheds it as soon as a move can.
+ */
+public class TSPLocalSearch implements TSPSolver {
+    public static final int DEFAULT_NEIGHBORS = 10; // Default number of candidate neighbours per city
+    static final long MISSING_EDGE = 1L << 40; // Cost of a missing edge: longer than any tour, without overflow
+    private static final int MAX_SEGMENT = 3; // Longest segment moved by Or-opt
+
+    private final Graph graph; // The graph representing the cities and distances
+    private NeighborIndex neighbors; // Candidate neighbours of every city (built on first use)
+    private long bestCost; // Cost of the improved tour
+    private List<Integer> bestPath; // Improved tour
+    private long moves; // Number of improving moves applied
+    private long lastGain; // Gain of the last move applied
+
+    /**
+     * Constructor for TSPLocalSearch.
+     *
+     * @param graph -> The graph on which the algorithm will run
+     */
+    public TSPLocalSearch(Graph graph) {
+        this(graph, null);
+    }
+
+    /**
+     * Constructor for TSPLocalSearch with a precomputed candidate-neighbour index.
+     *
+     * @param graph -> The graph on which the algorithm will run
+     * @param neighbors -> The candidate neighbours of every city (null to build them with DEFAULT_NEIGHBORS)
+     */
+    public TSPLocalSearch(Graph graph, NeighborIndex neighbors) {
+        this.graph = graph;
+        if (graph == null) {
+            System.err.println("Graph cannot be null");
+        }
+        this.neighbors = neighbors;
+        this.bestCost = Long.MAX_VALUE;
+        this.bestPath = new ArrayList<>();
+    }
+
+    /**
+     * Builds a nearest-neighbour tour from a specified city and improves it.
+     *
+     * @param start -> The starting city index
+     */
+    public void search(int start) {
+        if (graph == null || start < 0 || start >= graph.getNumCities()) {
+            System.err.println("Invalid start city index");
+            return;
+        }
+        improve(nearestNeighborTour(start), start);
+    }
+
+    /**
+     * Solves the problem with a nearest-neighbour tour improved by 2-opt and Or-opt, and publishes the result to
+     * the control. The local search is not interrupted by the control, and the result is never proven optimal.
+     *
+     * @param start -> The starting city index
+     * @param control -> The shared incumbent
+     * @return : The best tour known when the search ends, or null if none
+     */
+    @Override
+    public Tour solve(int start, SolveControl control) {
+        if (graph == null || start < 0 || start >= graph.getNumCities()) {
+            System.err.println("Invalid start city index");
+            return null;
+        }
+        search(start);
+        return control.result(start, bestPath, bestCost, false);
+    }
+
+    /**
+     * Gets the name of the solver.
+     *
+     * @return : The name of the solver
+     */
+    @Override
+    public String getName() {
+        return "Local search";
+    }
+
+    /**
+     * Improves a tour. The tour may be closed (start city repeated at the end, as returned by the other solvers)
+     * or open, and must visit every city exactly once.
+     *
+     * @param initialTour -> The tour to improve
+     */
+    public void improve(List<Integer> initialTour) {
+        if (graph == null || initialTour == null || initialTour.isEmpty()) {
+            System.err.println("Tour cannot be empty");
+            return;
+        }
+        int n = graph.getNumCities();
+        int size = initialTour.size();
+        if (size == n + 1 && initialTour.get(0).equals(initialTour.get(n))) {
+            size = n; // Drop the repeated start city of a closed tour
+        }
+        if (size != n) {
+            System.err.println("The tour must visit all the " + n + " cities");
+            return;
+        }
+
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = initialTour.get(i);
+        }
+        improve(order, order[0]);
+    }
+
+    /**
+     * Improves a tour given as an array of cities and stores the result.
+     *
+     * @param order -> The cities in tour order
+     * @param start -> The city the resulting path starts and ends at
+     */
+    private void improve(int[] order, int start) {
+        ArrayTour tour = new ArrayTour(order);
+        optimize(tour);
+        bestCost = tour.cost(graph);
+        bestPath = tour.toPath(start);
+    }
+
+    /**
+     * Runs 2-opt and Or-opt moves on a tour until no improving move is left.
+     *
+     * @param tour -> The tour to improve in place
+     */
+    void optimize(ArrayTour tour) {
+        int n = tour.size();
+        optimize(tour, tour.toArray(), n); // All the cities are initially active
+    }
+
+    /**
+     * Runs 2-opt and Or-opt moves from a set of active cities until no improving move is left.
+     * The other cities only become active when a move changes one of their edges, so a tour that was already
+     * locally optimal before a few edges changed is repaired around those edges only.
+     *
+     * @param tour -> The tour to improve in place
+     * @param active -> The cities that are initially active
+     * @param count -> The number of active cities
+     * @return : The total gain of the applied moves
+     */
+    long optimize(ArrayTour tour, int[] active, int count) {
+        int n = tour.size();
+        if (n < 4) {
+            return 0; // All the tours of 3 cities or less have the same cost
+        }
+        if (neighbors == null) {
+            neighbors = NeighborIndex.build(graph, DEFAULT_NEIGHBORS);
+        }
+
+        // Queue of active cities (the don't-look bit of a city is off while it is queued)
+        int[] queue = new int[n];
+        boolean[] queued = new boolean[n];
+        int head = 0;
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            if (!queued[active[i]]) {
+                queued[active[i]] = true;
+                queue[size++] = active[i];
+            }
+        }
+
+        long total = 0;
+        int[] touched = new int[8]; // Endpoints of the edges changed by the last move
+        while (size > 0) {
+            int city = queue[head];
+            head = head + 1 == n ? 0 : head + 1;
+            size--;
+            queued[city] = false;
+
+            int changed = improveCity(tour, city, touched);
+            if (changed > 0) {
+                moves++;
+                total += lastGain;
+                // Wake up the endpoints of the changed edges (including the current city)
+                for (int t = 0; t < changed; t++) {
+                    int c = touched[t];
+                    if (!queued[c]) {
+                        queued[c] = true;
+                        queue[(head + size) % n] = c;
+                        size++;
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Looks for an improving 2-opt or Or-opt move around a city and applies the first one found.
+     *
+     * @param tour -> The tour
+     * @param t1 -> The city
+     * @param touched -> Receives the endpoints of the changed edges
+     * @return : The number of touched cities, or 0 if no improving move was found
+     */
+    private int improveCity(ArrayTour tour, int t1, int[] touched) {
+        int changed = twoOpt(tour, t1, touched);
+        if (changed > 0) {
+            return changed;
+        }
+        return orOpt(tour, t1, touched);
+    }
+
+    /**
+     * 2-opt: removes the edge (t1, t2) and another edge (t4, t3) such that t3 is a candidate neighbour of t2,
+     * and reconnects the tour with the edges (t2, t3) and (t1, t4). Both tour neighbours of t1 are tried as t2.
+     * Since the candidates are sorted by distance, the scan stops as soon as d(t2, t3) >= d(t1, t2).
+     *
+     * @param tour -> The tour
+     * @param t1 -> The city
+     * @param touched -> Receives the endpoints of the changed edges
+     * @return : The number of touched cities, or 0 if no improving move was found
+     */
+    private int twoOpt(ArrayTour tour, int t1, int[] touched) {
+        int k = neighbors.getK();
+        for (int direction = 0; direction < 2; direction++) {
+            boolean forward = direction == 0;
+            int t2 = forward ? tour.next(t1) : tour.prev(t1);
+            long d12 = edgeCost(graph, t1, t2);
+
+            for (int rank = 0; rank < k; rank++) {
+                int t3 = neighbors.getNeighbor(t2, rank);
+                long d23 = edgeCost(graph, t2, t3);
+                if (d23 >= d12) {
+                    break; // No further candidate can give a positive gain
+                }
+                int t4 = forward ? tour.prev(t3) : tour.next(t3);
+                if (t3 == t1 || t4 == t2) {
+                    continue; // Degenerate move
+                }
+                long gain = d12 + edgeCost(graph, t3, t4) - d23 - edgeCost(graph, t4, t1);
+                if (gain > 0) {
+                    lastGain = gain;
+                    if (forward) {
+                        tour.move2opt(t1, t2, t4, t3);
+                    } else {
+                        tour.move2opt(t2, t1, t3, t4);
+                    }
+                    touched[0] = t1;
+                    touched[1] = t2;
+                    touched[2] = t3;
+                    touched[3] = t4;
+                    return 4;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Or-opt: moves a segment of 1 to MAX_SEGMENT cities starting or ending at a city between two other adjacent
+     * cities, possibly reversed. The insertion points are searched around the candidate neighbours of the
+     * segment ends. The move is carried out as two or three 2-opt moves.
+     *
+     * @param tour -> The tour
+     * @param city -> The city
+     * @param touched -> Receives the endpoints of the changed edges
+     * @return : The number of touched cities, or 0 if no improving move was found
+     */
+    private int orOpt(ArrayTour tour, int city, int[] touched) {
+        int n = tour.size();
+        for (int length = 1; length <= MAX_SEGMENT && length + 3 <= n; length++) {
+            for (int side = 0; side < 2; side++) {
+                // The segment s1..s2 (in tour direction) either starts or ends at the city
+                int s1 = city;
+                int s2 = city;
+                for (int i = 1; i < length; i++) {
+                    if (side == 0) {
+                        s2 = tour.next(s2);
+                    } else {
+                        s1 = tour.prev(s1);
+                    }
+                }
+                if (side == 1 && length == 1) {
+                    continue; // Same segment as side 0
+                }
+                int changed = moveSegment(tour, s1, s2, touched);
+                if (changed > 0) {
+                    return changed;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Tries to move the segment s1..s2 between two adjacent cities (c, e) near the segment ends.
+     *
+     * @param tour -> The tour
+     * @param s1 -> The first city of the segment
+     * @param s2 -> The last city of the segment
+     * @param touched -> Receives the endpoints of the changed edges
+     * @return : The number of touched cities, or 0 if no improving move was found
+     */
+    private int moveSegment(ArrayTour tour, int s1, int s2, int[] touched) {
+        int p = tour.prev(s1);
+        int nx = tour.next(s2);
+        long removeGain = edgeCost(graph, p, s1) + edgeCost(graph, s2, nx) - edgeCost(graph, p, nx);
+        if (removeGain <= 0) {
+            return 0; // Removing the segment does not save anything
+        }
+
+        int k = neighbors.getK();
+        for (int end = 0; end < 2; end++) {
+            int s = end == 0 ? s1 : s2;
+            for (int rank = 0; rank < k; rank++) {
+                int c = neighbors.getNeighbor(s, rank);
+                if (edgeCost(graph, s, c) >= removeGain) {
+                    break; // Inserting next to c cannot pay for the new edge alone
+                }
+                if (tour.between(s1, c, s2)) {
+                    continue; // c is inside the segment
+                }
+                // Try the two tour edges around c as the insertion edge (u, v) with v = next(u)
+                for (int which = 0; which < 2; which++) {
+                    int u = which == 0 ? c : tour.prev(c);
+                    int v = which == 0 ? tour.next(c) : c;
+                    if (u == p || u == s2 || v == p) {
+                        continue; // The edge touches the segment or degenerates
+                    }
+                    long addUV = edgeCost(graph, u, v);
+                    long reversed = edgeCost(graph, u, s2) + edgeCost(graph, s1, v) - addUV; // u s2..s1 v
+                    long same = edgeCost(graph, u, s1) + edgeCost(graph, s2, v) - addUV; // u s1..s2 v
+                    boolean keepOrientation = same < reversed;
+                    long insertCost = keepOrientation ? same : reversed;
+                    if (removeGain - insertCost > 0) {
+                        lastGain = removeGain - insertCost;
+                        applySegmentMove(tour, p, s1, s2, nx, u, v, keepOrientation);
+                        touched[0] = p;
+                        touched[1] = s1;
+                        touched[2] = s2;
+                        touched[3] = nx;
+                        touched[4] = u;
+                        touched[5] = v;
+                        return 6;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Moves the segment s1..s2 (between p and nx) between u and v = next(u), as a sequence of 2-opt moves:
+     * p s1..s2 nx..u v  ->  p u..nx s2..s1 v  ->  p nx..u s2..s1 v  (->  p nx..u s1..s2 v).
+     *
+     * @param tour -> The tour
+     * @param p -> The city before the segment
+     * @param s1 -> The first city of the segment
+     * @param s2 -> The last city of the segment
+     * @param nx -> The city after the segment
+     * @param u -> The first city of the insertion edge
+     * @param v -> The second city of the insertion edge
+     * @param keepOrientation -> True to insert the segment as s1..s2, False to insert it reversed
+     */
+    static void applySegmentMove(ArrayTour tour, int p, int s1, int s2, int nx, int u, int v,
+                                 boolean keepOrientation) {
+        tour.move2opt(p, s1, u, v); // p u..nx s2..s1 v
+        if (u != nx) {
+            tour.move2opt(p, u, nx, s2); // p nx..u s2..s1 v
+        }
+        if (keepOrientation) {
+            tour.move2opt(u, s2, s1, v); // p nx..u s1..s2 v
+        }
+    }
+
+    /**
+     * Gets the cost of an edge for the moves: its distance, or MISSING_EDGE if the two cities are not connected.
+     *
+     * @param graph -> The graph representing the cities and distances
+     * @param a -> One city of the edge
+     * @param b -> The other city of the edge
+     * @return : The cost of the edge (0 for a loop)
+     */
+    static long edgeCost(Graph graph, int a, int b) {
+        int distance = graph.getDistance(a, b);
+        return distance > 0 || a == b ? distance : MISSING_EDGE;
+    }
+
+    /**
+     * Builds a nearest-neighbour tour: from the current city, go to the nearest unvisited candidate neighbour,
+     * or to the nearest unvisited city if all the candidates were visited. Missing edges are only taken when
+     * no unvisited city is connected to the current one.
+     *
+     * @param start -> The starting city index
+     * @return : The cities in tour order
+     */
+    private int[] nearestNeighborTour(int start) {
+        int n = graph.getNumCities();
+        if (neighbors == null) {
+            neighbors = NeighborIndex.build(graph, DEFAULT_NEIGHBORS);
+        }
+        boolean[] visited = new boolean[n];
+        int[] order = new int[n];
+        order[0] = start;
+        visited[start] = true;
+        int k = neighbors.getK();
+
+        for (int i = 1; i < n; i++) {
+            int current = order[i - 1];
+            int next = -1;
+            for (int rank = 0; rank < k; rank++) {
+                int candidate = neighbors.getNeighbor(current, rank);
+                if (!visited[candidate] && graph.getDistance(current, candidate) > 0) {
+                    next = candidate;
+                    break;
+                }
+            }
+            if (next == -1) {
+                long best = Long.MAX_VALUE;
+                for (int c = 0; c < n; c++) {
+                    if (!visited[c] && edgeCost(graph, current, c) < best) {
+                        best = edgeCost(graph, current, c);
+                        next = c;
+                    }
+                }
+            }
+            order[i] = next;
+            visited[next] = true;
+        }
+        return order;
+    }
+
+    /**
+     * Gets the best path found by the algorithm.
+     *
+     * @return : The list of cities representing the best path
+     */
+    public List<Integer> getBestPath() {
+        if (bestPath.isEmpty()) {
+            System.err.println("No path found. Please run the search method first.");
+            return new ArrayList<>();
+        }
+        return bestPath;
+    }
+
+    /**
+     * Gets the cost of the best path found by the algorithm
+     *
+     * @return : The cost of the best path
+     */
+    public long getBestCost() {
+        if (bestCost == Long.MAX_VALUE) {
+            System.err.println("No path found. Please run the search method first.");
+        }
+        return bestCost;
+    }
+
+    /**
+     * Gets the number of improving moves applied by the last run.
+     *
+     * @return : The number of moves
+     */
+    public long getMoves() {
+        return moves;
+    }
+}
@@ -0,0 +1,183 @@
+package TSPAlgorithms;
+
+import Graphs.Graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The TSPPortfolio class races several solvers on the same graph, one thread each, and keeps the best result.
+ * All the solvers share one SolveControl, so they share its lock-free incumbent: a tour found by a heuristic is
+ * immediately the upper bound of every exact search. As soon as one solver proves its tour optimal, the control is
+ * cancelled and the other solvers stop. Which algorithm wins depends on the instance, so the portfolio gives the
+ * best wall-clock time without choosing by hand.
+ */
+public class TSPPortfolio implements TSPSolver {
+    private final List<TSPSolver> solvers; // The solvers of the portfolio
+    private final Graph graph; // Graph the tours are checked against (null if the solvers were given)
+    private String winner; // Name of the solver that gave the result of the last solve
+
+    /**
+     * Constructor for a portfolio of the default solvers: Chained Lin-Kernighan (a good incumbent within
+     * milliseconds) and DFS, plus A* and Uniform Cost Search if the graph is small enough for them
+     * (DFS and A* then prune with the Held-Karp bound). The control of each solve only accepts tours of the graph.
+     *
+     * @param graph -> The graph on which the solvers will run
+     */
+    public TSPPortfolio(Graph graph) {
+        this(defaultSolvers(graph), graph);
+    }
+
+    /**
+     * Constructor for a portfolio of specified solvers. Each solver must be a separate instance.
+     * Call setGraph on the control of each solve, so a solver cannot publish a tour using a missing edge.
+     *
+     * @param solvers -> The solvers to race
+     */
+    public TSPPortfolio(List<TSPSolver> solvers) {
+        this(solvers, null);
+    }
+
+    /**
+     * Constructor for a portfolio of specified solvers on a graph. Each solver must be a separate instance.
+     * The control of each solve only accepts tours of the graph.
+     *
+     * @param solvers -> The solvers to race
+     * @param graph -> The graph on which the solvers run (null to leave the control unchanged)
+     */
+    public TSPPortfolio(List<TSPSolver> solvers, Graph graph) {
+        if (solvers == null || solvers.isEmpty()) {
+            throw new IllegalArgumentException("The portfolio needs at least one solver");
+        }
+        this.solvers = new ArrayList<>(solvers);
+        this.graph = graph;
+    }
+
+    /**
+     * Builds the default solvers for a graph, so a caller can tune them before building the portfolio.
+     * A* keeps its frontier within its node limit, and Uniform Cost Search, which has no such limit,
+     * is only added up to TSPUniformCost.MAX_CITIES cities.
+     *
+     * @param graph -> The graph on which the solvers will run
+     * @return : The list of solvers
+     */
+    public static List<TSPSolver> defaultSolvers(Graph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        List<TSPSolver> list = new ArrayList<>();
+        list.add(new TSPLinKernighan(graph));
+        TSPDFS dfs = new TSPDFS(graph);
+        list.add(dfs);
+        if (graph.getNumCities() <= MSTCache.MAX_CITIES) {
+            dfs.setHeldKarpBound(true);
+            TSPAStar aStar = new TSPAStar(graph);
+            aStar.setHeldKarpBound(true);
+            list.add(aStar);
+        }
+        if (graph.getNumCities() <= TSPUniformCost.MAX_CITIES) {
+            list.add(new TSPUniformCost(graph));
+        }
+        return list;
+    }
+
+    /**
+     * Runs all the solvers concurrently until one proves optimality, all of them finish, or the control stops them.
+     * On a large graph where no solver can prove optimality, set a time limit on the control.
+     * The control is cancelled when the portfolio returns, so the solvers still running stop.
+     *
+     * @param start -> The starting city index
+     * @param control -> The limits of the solve and the shared incumbent
+     * @return : The proven optimal tour if a solver found one, otherwise the best tour known, or null if none
+     */
+    @Override
+    public Tour solve(int start, SolveControl control) {
+        if (graph != null) {
+            control.setGraph(graph);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(solvers.size());
+        ExecutorCompletionService<Result> completion = new ExecutorCompletionService<>(executor);
+        for (TSPSolver solver : solvers) {
+            completion.submit(() -> new Result(solver.getName(), solver.solve(start, control)));
+        }
+
+        Result best = null;
+        try {
+            for (int finished = 0; finished < solvers.size(); finished++) {
+                Result result;
+                try {
+                    result = completion.take().get();
+                } catch (ExecutionException e) {
+                    System.err.println("A solver of the portfolio failed: " + e.getCause());
+                    continue;
+                }
+                if (result.tour == null) {
+                    continue;
+                }
+                if (best == null || result.tour.getCost() < best.tour.getCost()
+                        || (result.tour.isOptimal() && !best.tour.isOptimal())) {
+                    best = result;
+                }
+                if (result.tour.isOptimal()) {
+                    break; // Proven optimal: no other solver can do better
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            control.cancel(); // Stop the solvers that are still running
+            executor.shutdown();
+            try {
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // The shared incumbent may be shorter than every returned tour (a solver stopped before returning it)
+        Tour incumbent = control.getIncumbent();
+        if (incumbent != null && (best == null || incumbent.getCost() < best.tour.getCost())) {
+            winner = "incumbent";
+            return incumbent.startingAt(start);
+        }
+        winner = best == null ? null : best.name;
+        return best == null ? null : best.tour;
+    }
+
+    /**
+     * Gets the name of the solver.
+     *
+     * @return : The name of the solver
+     */
+    @Override
+    public String getName() {
+        return "Portfolio";
+    }
+
+    /**
+     * Gets the name of the solver whose tour was returned by the last solve.
+     *
+     * @return : The name of the winning solver, or null if no tour was found
+     */
+    public String getWinner() {
+        return winner;
+    }
+
+    /**
+     * Tour returned by one solver of the portfolio.
+     */
+    private static final class Result {
+        private final String name; // Name of the solver
+        private final Tour tour; // Tour returned by the solver (null if none)
+
+        private Result(String name, Tour tour) {
+            this.name = name;
+            this.tour = tour;
+        }
+    }
+}
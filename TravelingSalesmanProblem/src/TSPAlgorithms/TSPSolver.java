@@ -0,0 +1,36 @@
+package TSPAlgorithms;
+
+/**
+ * The TSPSolver interface is the common API of the solvers for the Traveling Salesman Problem (TSP).
+ * A solve is bounded by its SolveControl (deadline, node budget, cancellation): when it is stopped early,
+ * the solver returns the best tour found so far instead of running to completion.
+ */
+public interface TSPSolver {
+    /**
+     * Solves the problem from a specified city.
+     * Every improved tour is published to the control (and its listener) as soon as it is found, and the control's
+     * incumbent is used as an upper bound, so several solvers sharing a control prune with the best tour of all.
+     *
+     * @param start -> The starting city index
+     * @param control -> The limits of the solve and the shared incumbent
+     * @return : The best tour known when the solve ends (proven optimal if the search completed), or null if none
+     */
+    Tour solve(int start, SolveControl control);
+
+    /**
+     * Solves the problem from a specified city, without limits.
+     *
+     * @param start -> The starting city index
+     * @return : The best tour found, or null if none
+     */
+    default Tour solve(int start) {
+        return solve(start, new SolveControl());
+    }
+
+    /**
+     * Gets the name of the solver, as shown in reports.
+     *
+     * @return : The name of the solver
+     */
+    String getName();
+}
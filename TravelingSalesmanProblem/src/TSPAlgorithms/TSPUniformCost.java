@@ -3,15 +3,19 @@ package TSPAlgorithms;
 import Graphs.Graph;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.PriorityQueue;
 
 /**
  * The TSPUniformCost class implements the Uniform Cost Search algorithm for solving the Traveling Salesman Problem (TSP)
  */
-public class TSPUniformCost {
+public class TSPUniformCost implements TSPSolver {
+    public static final int MAX_CITIES = 12; // Largest graph given to it by the portfolio (the frontier grows factorially)
     private final Graph graph; // The graph on which the search will be performed
+    private List<Integer> initialTour; // Initial tour, its cost is the initial upper bound (null if none)
+    private int initialCost = Integer.MAX_VALUE; // Cost of the initial tour
+    private SolveControl control; // Limits and shared incumbent of the current solve (null for search)
+    private boolean stopped; // True if the current solve was stopped by its control
+    private final SearchMetrics metrics = new SearchMetrics("Uniform Cost Search"); // Metrics of the last search
 
     /**
      * Constructor to initialize the Uniform Cost Search algorithm with the specified graph.
@@ -25,6 +29,61 @@ public class TSPUniformCost {
         }
     }
 
+    /**
+     * Sets an initial tour (for example from TSPConstruction): its cost is the initial upper bound of the search,
+     * so the children that reach it are never queued. The tour is the result if no shorter one exists.
+     *
+     * @param tour -> The closed path of the initial tour (start city repeated at the end)
+     */
+    public void setInitialTour(List<Integer> tour) {
+        if (graph == null || !TSPConstruction.isTour(graph, tour, tour == null || tour.isEmpty() ? -1 : tour.get(0))) {
+            System.err.println("The initial tour must visit every city exactly once, along existing edges");
+            return;
+        }
+        initialTour = new ArrayList<>(tour);
+        initialCost = (int) TSPConstruction.cost(graph, tour);
+    }
+
+    /**
+     * Solves the problem with Uniform Cost Search, bounded by a control.
+     * The control's incumbent (or, if it has none, a construction tour) is the initial upper bound, and every improved
+     * tour is published to it.
+     *
+     * @param start -> The starting city index
+     * @param control -> The limits of the solve and the shared incumbent
+     * @return : The best tour known when the search ends, or null if none
+     */
+    @Override
+    public Tour solve(int start, SolveControl control) {
+        if (graph == null || start < 0 || start >= graph.getNumCities()) {
+            System.err.println("Invalid start city index");
+            return null;
+        }
+        TSPConstruction.seed(graph, start, control); // Initial upper bound, unless the control already has one
+        this.control = control;
+        this.stopped = false;
+        Path path;
+        try {
+            path = search(start);
+        } finally {
+            this.control = null;
+        }
+        if (path == null) {
+            return control.result(start, null, 0, !stopped);
+        }
+        return control.result(start, path.getNodes(), path.getCost(), !stopped);
+    }
+
+    /**
+     * Gets the name of the solver.
+     *
+     * @return : The name of the solver
+     */
+    @Override
+    public String getName() {
+        return "Uniform Cost Search";
+    }
+
     /**
      * Method to search for the minimum cost path
      *
@@ -36,31 +95,118 @@ public class TSPUniformCost {
             System.err.println("Invalid start city index");
             return null;
         }
+        int n = graph.getNumCities();
+        if (n > Long.SIZE) {
+            System.err.println("Uniform Cost Search supports at most " + Long.SIZE + " cities");
+            return null;
+        }
 
-        PriorityQueue<Path> pq = new PriorityQueue<>(Comparator.comparingInt(Path::getCost)); // Priority queue for paths
-        pq.add(new Path(start)); // Add the start path
+        NodeHeap pq = new NodeHeap(n * n); // Priority queue for search nodes, keyed by their cost
+        DominanceTable closed = new DominanceTable(n * n); // Cheapest cost seen for every (visited set, last city) state
+        pq.push(0, new SearchNode(start, 0)); // Add the start node
 
-        Path bestPath = null;
+        SearchNode bestNode = null; // Last node of the best complete path found so far
+        int bestCost = initialCost; // Cost of the best complete path, including the return to the start city
+        long nodes = 0; // Number of nodes taken from the queue
+        long expanded = 0; // Expanded nodes not yet flushed to the metrics
+        long generated = 0; // Generated nodes not yet flushed to the metrics
+        long pruned = 0; // Pruned nodes not yet flushed to the metrics
+        int peak = 1; // Largest queue size
+        metrics.start();
 
         while (!pq.isEmpty()) {
-            Path path = pq.poll(); // Extract the path with the minimum cost
+            SearchNode node = pq.pop(); // Extract the node with the minimum cost
 
-            if (path.visitedAll(graph.getNumCities())) {
-                path.add(start, graph.getDistance(path.getLast(), start)); // Add the return path to the start city
-                if (bestPath == null || path.getCost() < bestPath.getCost()) {
-                    bestPath = path; // Update the best path found so far
+            if ((++nodes & SolveControl.CHECK_MASK) == 0) {
+                metrics.addNodes(expanded, generated, pruned);
+                metrics.updatePeakFrontier(peak);
+                expanded = 0;
+                generated = 0;
+                pruned = 0;
+                if (control != null && control.shouldStop(nodes)) {
+                    stopped = true; // Stop the search and keep the best path found so far
+                    break;
+                }
+            }
+            if (control != null) {
+                bestCost = (int) Math.min(bestCost, control.getIncumbentCost()); // Prune with the shared incumbent
+            }
+
+            // Every node left in the queue costs at least as much, and costs never decrease along a path,
+            // so no remaining node can complete into a cheaper tour: the best tour is optimal
+            if (node.gCost >= bestCost) {
+                break;
+            }
+
+            // Skip nodes superseded by a cheaper path to the same state after they were queued
+            if (closed.isDominated(node.visited, node.city, node.gCost)) {
+                continue;
+            }
+            expanded++;
+
+            if (node.depth == n) {
+                int back = graph.getDistance(node.city, start);
+                int cost = node.gCost + back; // Add the return path to the start city
+                if ((back > 0 || n == 1) && cost < bestCost) { // A path without an edge back is not a tour
+                    bestNode = node; // Update the best path found so far
+                    bestCost = cost;
+                    metrics.recordIncumbent(cost);
+                    if (control != null) {
+                        control.offer(new Tour(closedPath(bestNode, start).getNodes(), cost, false)); // Publish the improved tour
+                    }
                 }
             } else {
-                for (int i = 0; i < graph.getNumCities(); i++) {
-                    if (!path.contains(i) && graph.getDistance(path.getLast(), i) > 0) {
-                        Path newPath = new Path(path);
-                        newPath.add(i, graph.getDistance(path.getLast(), i)); // Add a new node to the path
-                        pq.add(newPath); // Add the new path to the queue
+                for (int i = 0; i < n; i++) {
+                    int distance = graph.getDistance(node.city, i);
+                    if (!node.contains(i) && distance > 0) {
+                        int cost = node.gCost + distance;
+                        generated++;
+                        // Drop the child if it cannot beat the best tour or is dominated by a path to the same state
+                        if (cost < bestCost && closed.offer(node.visited | (1L << i), i, cost)) {
+                            pq.push(cost, new SearchNode(node, i, cost, cost)); // Add the child node to the queue
+                        } else {
+                            pruned++;
+                        }
                     }
                 }
+                peak = Math.max(peak, pq.size());
             }
         }
-        return bestPath; // Return the best path found
+        metrics.addNodes(expanded, generated, pruned);
+        metrics.updatePeakFrontier(peak);
+        metrics.finish(n, bestNode != null ? bestCost : (initialTour != null ? initialCost : Long.MAX_VALUE), !stopped);
+
+        if (bestNode == null) {
+            if (initialTour == null) {
+                return null;
+            }
+            return new Path(TSPConstruction.rotate(initialTour, start), initialCost); // Nothing beats the initial tour
+        }
+
+        // Build the full path only for the winning node
+        return closedPath(bestNode, start); // Return the best path found
+    }
+
+    /**
+     * Gets the metrics of the last search (live while a search is running).
+     *
+     * @return : The metrics
+     */
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Builds the closed path of a complete search node.
+     *
+     * @param node -> The last node of a path visiting all the cities
+     * @param start -> The starting city index
+     * @return : The path, including the return to the start city
+     */
+    private Path closedPath(SearchNode node, int start) {
+        Path path = new Path(node.toList(), node.gCost);
+        path.add(start, graph.getDistance(node.city, start)); // Add the return path to the start city
+        return path;
     }
 
     /**
@@ -103,6 +249,17 @@ public class TSPUniformCost {
             this.cost = path.cost;
         }
 
+        /**
+         * Constructor for a path rebuilt from a list of nodes
+         *
+         * @param nodes -> The nodes (cities) of the path
+         * @param cost -> The total cost of the path
+         */
+        private Path(List<Integer> nodes, int cost) {
+            this.nodes = nodes;
+            this.cost = cost;
+        }
+
         /**
          * Method to add a node and its distance to the path
          *
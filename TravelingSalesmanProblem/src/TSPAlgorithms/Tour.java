@@ -0,0 +1,76 @@
+package TSPAlgorithms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The Tour class is the immutable result shared by all the solvers implementing TSPSolver: a closed path
+ * (start city repeated at the end), its cost, and whether the solver proved that no shorter tour exists.
+ */
+public final class Tour {
+    private final List<Integer> path; // Closed path of the tour (read-only)
+    private final long cost; // Total cost of the tour, including the return to the start city
+    private final boolean optimal; // True if the tour was proven optimal
+
+    /**
+     * Constructor for Tour.
+     *
+     * @param path -> The closed path of the tour (copied)
+     * @param cost -> The total cost of the tour
+     * @param optimal -> True if the tour was proven optimal
+     */
+    public Tour(List<Integer> path, long cost, boolean optimal) {
+        if (path == null) {
+            throw new IllegalArgumentException("Path cannot be null");
+        }
+        this.path = Collections.unmodifiableList(new ArrayList<>(path));
+        this.cost = cost;
+        this.optimal = optimal;
+    }
+
+    /**
+     * Gets the closed path of the tour.
+     *
+     * @return : The read-only list of cities, start city repeated at the end
+     */
+    public List<Integer> getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the cost of the tour.
+     *
+     * @return : The total cost of the tour
+     */
+    public long getCost() {
+        return cost;
+    }
+
+    /**
+     * Checks if the tour was proven optimal.
+     *
+     * @return : True if no shorter tour exists, False if the search was stopped or is a heuristic
+     */
+    public boolean isOptimal() {
+        return optimal;
+    }
+
+    /**
+     * Gets the same tour, starting and ending at a given city.
+     *
+     * @param start -> The city the path must start at
+     * @return : This tour if it already starts at the city, otherwise a rotated copy
+     */
+    public Tour startingAt(int start) {
+        if (path.get(0) == start) {
+            return this;
+        }
+        return new Tour(TSPConstruction.rotate(path, start), cost, optimal);
+    }
+
+    @Override
+    public String toString() {
+        return "Tour{cost=" + cost + (optimal ? ", optimal" : "") + ", path=" + path + "}";
+    }
+}
@@ -0,0 +1,460 @@
+package TSPMain;
+
+import Graphs.*;
+import TSPAlgorithms.*;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The BatchMain class is the non-interactive entry point: it solves every instance of a directory or a manifest
+ * concurrently and streams one result per instance (cost, tour, time, expanded nodes) as JSON Lines or CSV.
+ * Each instance is one task of a fixed thread pool, with its own solver and its own time limit, and at most
+ * two tasks per thread are in flight, so a manifest of thousands of instances keeps every core busy without
+ * queueing them all. The results are written in completion order, as soon as each instance is solved.
+ */
+public class BatchMain {
+    private static final String USAGE = "Usage: java TSPMain.BatchMain <directory | manifest> [--algorithm name]"
+            + " [--threads n] [--time-limit ms] [--format jsonl|csv] [--output file] [--cache file]\n"
+            + "  algorithms: dfs, ucs, astar, local-search, lk (default), aco, annealing, portfolio, decomposition\n"
+            + "  a directory is scanned for .txt, .bin and .tsp files; a manifest lists one graph file per line\n"
+            + "  --cache keeps the tours in a file, so instances already solved are answered without solving";
+    private static final int CACHE_ENTRIES = 1024; // Tours of the solution cache kept in memory
+
+    private static final String CSV_HEADER = "instance,algorithm,cities,status,cost,optimal,timeMs,expandedNodes,tour";
+
+    public static void main(String[] args) {
+        String input = null; // Directory or manifest of the instances
+        String algorithm = "lk"; // Solver used for every instance
+        int threads = Runtime.getRuntime().availableProcessors(); // Number of instances solved at the same time
+        long timeLimit = 10000; // Time limit of each instance in milliseconds
+        String format = "jsonl"; // Output format
+        String output = null; // Output file (null for the standard output)
+        String cacheFile = null; // File of the solution cache (null for no cache)
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                input = arg;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                System.err.println("Missing value for " + arg);
+                System.err.println(USAGE);
+                return;
+            }
+            String value = args[++i];
+            try {
+                switch (arg) {
+                    case "--algorithm":
+                        algorithm = value;
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    case "--time-limit":
+                        timeLimit = Long.parseLong(value);
+                        break;
+                    case "--format":
+                        format = value;
+                        break;
+                    case "--output":
+                        output = value;
+                        break;
+                    case "--cache":
+                        cacheFile = value;
+                        break;
+                    default:
+                        System.err.println("Unknown option: " + arg);
+                        System.err.println(USAGE);
+                        return;
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid number for " + arg + ": " + value);
+                return;
+            }
+        }
+
+        if (input == null) {
+            System.err.println(USAGE);
+            return;
+        }
+        if (threads <= 0 || timeLimit <= 0) {
+            System.err.println("The number of threads and the time limit must be positive");
+            return;
+        }
+        if (!format.equals("jsonl") && !format.equals("csv")) {
+            System.err.println("Unknown format: " + format);
+            return;
+        }
+        if (!Arrays.asList("dfs", "ucs", "astar", "local-search", "lk", "aco", "annealing", "portfolio",
+                "decomposition").contains(algorithm)) {
+            System.err.println("Unknown algorithm: " + algorithm);
+            System.err.println(USAGE);
+            return;
+        }
+
+        List<File> instances = listInstances(new File(input));
+        if (instances == null) {
+            return;
+        }
+
+        SolutionCache cache = cacheFile == null ? null : new SolutionCache(CACHE_ENTRIES, cacheFile);
+        try (Writer writer = output == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out))
+                : new BufferedWriter(new FileWriter(output))) {
+            run(instances, algorithm, threads, timeLimit, format.equals("csv"), cache, writer);
+        } catch (IOException e) {
+            System.err.println("Failed to write the results: " + e.getMessage());
+        } finally {
+            if (cache != null) {
+                cache.close();
+            }
+        }
+    }
+
+    /**
+     * Solves the instances on a fixed thread pool and writes each result as soon as it is ready.
+     *
+     * @param instances -> The graph files to solve
+     * @param algorithm -> The name of the solver
+     * @param threads -> The number of instances solved at the same time
+     * @param timeLimit -> The time limit of each instance in milliseconds
+     * @param csv -> True for CSV, False for JSON Lines
+     * @param cache -> The solution cache shared by the tasks (null for none)
+     * @param writer -> The destination of the results
+     * @throws IOException if the results cannot be written
+     */
+    private static void run(List<File> instances, String algorithm, int threads, long timeLimit, boolean csv,
+                            SolutionCache cache, Writer writer) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        ExecutorCompletionService<Result> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<Result>, File> files = new HashMap<>(); // Input file of every task in flight, to report failures
+        int maxInFlight = threads * 2; // Enough queued tasks to keep every thread busy
+        int submitted = 0;
+        int inFlight = 0;
+        int failed = 0;
+
+        if (csv) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        try {
+            while (submitted < instances.size() || inFlight > 0) {
+                while (submitted < instances.size() && inFlight < maxInFlight) {
+                    File file = instances.get(submitted++);
+                    files.put(completion.submit(() -> solve(file, algorithm, threads, timeLimit, cache)), file);
+                    inFlight++;
+                }
+
+                Future<Result> future = completion.take();
+                File file = files.remove(future);
+                inFlight--;
+                Result result;
+                try {
+                    result = future.get();
+                } catch (ExecutionException e) {
+                    // Only errors escape solve() (e.g. OutOfMemoryError): report them and keep going
+                    result = new Result(file.getPath(), algorithm);
+                    result.status = "error: " + e.getCause();
+                }
+                if (!result.status.equals("ok")) {
+                    failed++;
+                }
+                writer.write(csv ? result.toCsv() : result.toJson());
+                writer.write('\n');
+                writer.flush(); // Stream the result, so a partial run is still usable
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        System.err.println("Solved " + (instances.size() - failed) + " of " + instances.size() + " instances");
+    }
+
+    /**
+     * Reads and solves one instance. Runs on a thread of the pool, with its own solver.
+     *
+     * @param file -> The graph file
+     * @param algorithm -> The name of the solver
+     * @param threads -> The number of instances solved at the same time
+     * @param timeLimit -> The time limit in milliseconds
+     * @param cache -> The solution cache (null for none)
+     * @return : The result of the instance (never null)
+     */
+    private static Result solve(File file, String algorithm, int threads, long timeLimit, SolutionCache cache) {
+        Result result = new Result(file.getPath(), algorithm);
+        long startTime = System.nanoTime();
+        try {
+            Graph graph = readGraph(file);
+            if (graph == null) {
+                result.status = "unreadable";
+                return result;
+            }
+            result.cities = graph.getNumCities();
+
+            TSPSolver solver = createSolver(algorithm, graph, threads, timeLimit);
+            SolveControl control = new SolveControl();
+            control.setTimeLimit(timeLimit);
+            control.setGraph(graph); // Only tours of the graph can become the result
+            Tour tour = cache == null
+                    ? solver.solve(0, control) // Start every tour from city 0
+                    : cache.solve(graph, solver, "timeLimit=" + timeLimit, 0, control);
+
+            result.timeMillis = (System.nanoTime() - startTime) / 1_000_000;
+            result.expandedNodes = expandedNodes(solver);
+            if (tour == null) {
+                result.status = "no tour";
+                return result;
+            }
+            result.status = "ok";
+            result.cost = tour.getCost();
+            result.optimal = tour.isOptimal();
+            result.tour = tour.getPath();
+        } catch (RuntimeException e) {
+            result.status = "error: " + e;
+            result.timeMillis = (System.nanoTime() - startTime) / 1_000_000;
+        }
+        return result;
+    }
+
+    /**
+     * Creates the solver for one instance. The parallel solvers use a single worker, since the batch already
+     * runs one instance per thread. The portfolio still races its solvers on one thread each (up to four, with its
+     * DFS on a single worker), so a portfolio batch should be run with fewer threads than cores.
+     * The frontiers of the best-first searches are bounded, since every thread holds one: A* shares the node budget
+     * of a single search among the threads (beyond it, it continues as IDA*), and Uniform Cost Search, which has no
+     * such fallback, is refused above TSPUniformCost.MAX_CITIES cities.
+     *
+     * @param algorithm -> The name of the solver
+     * @param graph -> The graph of the instance
+     * @param threads -> The number of instances solved at the same time
+     * @param timeLimit -> The time limit in milliseconds
+     * @return : The solver
+     * @throws IllegalArgumentException if the graph is too large for the solver
+     */
+    private static TSPSolver createSolver(String algorithm, Graph graph, int threads, long timeLimit) {
+        int maxNodes = Math.max(1, TSPAStar.defaultMaxNodes() / threads); // Node budget of every A* search
+        switch (algorithm) {
+            case "dfs":
+                TSPDFS dfs = new TSPDFS(graph);
+                dfs.setParallelism(1);
+                return dfs;
+            case "ucs":
+                if (graph.getNumCities() > TSPUniformCost.MAX_CITIES) {
+                    throw new IllegalArgumentException("Uniform Cost Search is limited to "
+                            + TSPUniformCost.MAX_CITIES + " cities, the graph has " + graph.getNumCities());
+                }
+                return new TSPUniformCost(graph);
+            case "astar":
+                TSPAStar aStar = new TSPAStar(graph);
+                aStar.setMaxNodes(maxNodes);
+                return aStar;
+            case "local-search":
+                return new TSPLocalSearch(graph);
+            case "aco":
+                TSPAntColony antColony = new TSPAntColony(graph);
+                antColony.setParallelism(1);
+                antColony.setTimeLimit(timeLimit);
+                return antColony;
+            case "annealing":
+                TSPAnnealing annealing = new TSPAnnealing(graph);
+                annealing.setParallelism(1);
+                annealing.setTimeLimit(timeLimit);
+                return annealing;
+            case "portfolio":
+                List<TSPSolver> solvers = TSPPortfolio.defaultSolvers(graph);
+                for (TSPSolver solver : solvers) {
+                    if (solver instanceof TSPDFS) {
+                        ((TSPDFS) solver).setParallelism(1);
+                    } else if (solver instanceof TSPAStar) {
+                        ((TSPAStar) solver).setMaxNodes(maxNodes);
+                    }
+                }
+                return new TSPPortfolio(solvers, graph);
+            case "decomposition":
+                TSPDecomposition decomposition = new TSPDecomposition(graph);
+                decomposition.setParallelism(1);
+                return decomposition;
+            default:
+                TSPLinKernighan linKernighan = new TSPLinKernighan(graph);
+                linKernighan.setTimeLimit(timeLimit);
+                return linKernighan;
+        }
+    }
+
+    /**
+     * Gets the number of nodes expanded by an exact solver.
+     *
+     * @param solver -> The solver of the instance
+     * @return : The number of expanded nodes, or -1 for the solvers that do not count them
+     */
+    private static long expandedNodes(TSPSolver solver) {
+        if (solver instanceof TSPDFS) {
+            return ((TSPDFS) solver).getMetrics().snapshot().getExpandedNodes();
+        }
+        if (solver instanceof TSPUniformCost) {
+            return ((TSPUniformCost) solver).getMetrics().snapshot().getExpandedNodes();
+        }
+        if (solver instanceof TSPAStar) {
+            return ((TSPAStar) solver).getMetrics().snapshot().getExpandedNodes();
+        }
+        return -1;
+    }
+
+    /**
+     * Reads a graph file in the format given by its extension: ".bin" (binary), ".tsp" (TSPLIB) or text.
+     *
+     * @param file -> The graph file
+     * @return : The graph, or null if the file cannot be read
+     */
+    private static Graph readGraph(File file) {
+        String name = file.getName();
+        if (name.endsWith(".bin")) {
+            return GraphGenerator.readGraphFromBinaryFile(file.getPath());
+        }
+        if (name.endsWith(".tsp")) {
+            return GraphGenerator.readTSPLIBFile(file.getPath());
+        }
+        return GraphGenerator.readGraphFromFile(file.getPath());
+    }
+
+    /**
+     * Lists the instances of a directory (its graph files, sorted by name) or of a manifest (one file per line,
+     * relative to the manifest's directory; empty lines and lines starting with '#' are skipped).
+     *
+     * @param input -> The directory or the manifest
+     * @return : The graph files, or null if the input cannot be read
+     */
+    private static List<File> listInstances(File input) {
+        List<File> instances = new ArrayList<>();
+        if (input.isDirectory()) {
+            File[] files = input.listFiles((dir, name) -> name.endsWith(".txt") || name.endsWith(".bin")
+                    || name.endsWith(".tsp"));
+            if (files == null) {
+                System.err.println("Cannot list directory: " + input);
+                return null;
+            }
+            Arrays.sort(files);
+            instances.addAll(Arrays.asList(files));
+            return instances;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(input))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                File file = new File(line);
+                instances.add(file.isAbsolute() ? file : new File(input.getAbsoluteFile().getParentFile(), line));
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to read manifest: " + input);
+            return null;
+        }
+        return instances;
+    }
+
+    /**
+     * Result of one instance, written as one line of the output.
+     */
+    private static final class Result {
+        private final String instance; // Path of the graph file (null if unknown)
+        private final String algorithm; // Name of the solver
+        private String status = "error"; // "ok", "no tour", "unreadable" or the error
+        private int cities; // Number of cities
+        private long cost = -1; // Cost of the tour (-1 if none)
+        private boolean optimal; // True if the tour was proven optimal
+        private long timeMillis; // Time spent on the instance, reading included
+        private long expandedNodes = -1; // Nodes expanded by an exact solver (-1 if not counted)
+        private List<Integer> tour; // Closed tour (null if none)
+
+        private Result(String instance, String algorithm) {
+            this.instance = instance;
+            this.algorithm = algorithm;
+        }
+
+        /**
+         * @return : The result as a JSON object on one line
+         */
+        private String toJson() {
+            return "{\"instance\":" + (instance == null ? "null" : jsonString(instance))
+                    + ",\"algorithm\":" + jsonString(algorithm)
+                    + ",\"cities\":" + cities
+                    + ",\"status\":" + jsonString(status)
+                    + ",\"cost\":" + (tour == null ? "null" : String.valueOf(cost))
+                    + ",\"optimal\":" + optimal
+                    + ",\"timeMs\":" + timeMillis
+                    + ",\"expandedNodes\":" + (expandedNodes < 0 ? "null" : String.valueOf(expandedNodes))
+                    + ",\"tour\":" + (tour == null ? "null" : tour.toString().replace(" ", "")) + "}";
+        }
+
+        /**
+         * @return : The result as a CSV row (the tour is a space-separated list of cities)
+         */
+        private String toCsv() {
+            StringBuilder tourCities = new StringBuilder();
+            if (tour != null) {
+                for (int city : tour) {
+                    if (tourCities.length() > 0) {
+                        tourCities.append(' ');
+                    }
+                    tourCities.append(city);
+                }
+            }
+            return csvField(instance == null ? "" : instance) + "," + algorithm + "," + cities + ","
+                    + csvField(status) + "," + (tour == null ? "" : String.valueOf(cost)) + "," + optimal + ","
+                    + timeMillis + "," + (expandedNodes < 0 ? "" : String.valueOf(expandedNodes)) + ","
+                    + tourCities;
+        }
+
+        /**
+         * @param value -> The string to quote
+         * @return : The value as a JSON string literal
+         */
+        private static String jsonString(String value) {
+            StringBuilder builder = new StringBuilder("\"");
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    builder.append('\\').append(c);
+                } else if (c < 0x20) {
+                    builder.append(String.format("\\u%04x", (int) c));
+                } else {
+                    builder.append(c);
+                }
+            }
+            return builder.append('"').toString();
+        }
+
+        /**
+         * @param value -> The field to write
+         * @return : The value, quoted if it contains a comma, a quote or a line break
+         */
+        private static String csvField(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+                return value;
+            }
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+    }
+}
@@ -2,6 +2,7 @@ package TSPMain;
 
 import Graphs.*;
 import TSPAlgorithms.*;
+import java.util.List;
 import java.util.Scanner;
 
 public class Main {
@@ -14,6 +15,13 @@ public class Main {
             System.out.println("1. DFS");
             System.out.println("2. Uniform Cost Search");
             System.out.println("3. A*");
+            System.out.println("4. Held-Karp");
+            System.out.println("5. Parallel DFS (branch and bound)");
+            System.out.println("6. Local search (2-opt / Or-opt)");
+            System.out.println("7. Chained Lin-Kernighan");
+            System.out.println("8. Portfolio (all solvers in parallel)");
+            System.out.println("9. Ant colony");
+            System.out.println("10. Parallel tempering (simulated annealing)");
             System.out.println("0. Exit");
             int option = scanner.nextInt();
 
@@ -27,6 +35,27 @@ public class Main {
                 case 3:
                     testAlgorithm("A*", scanner);
                     break;
+                case 4:
+                    testAlgorithm("Held-Karp", scanner);
+                    break;
+                case 5:
+                    testAlgorithm("Parallel DFS", scanner);
+                    break;
+                case 6:
+                    testAlgorithm("Local search", scanner);
+                    break;
+                case 7:
+                    testAlgorithm("Lin-Kernighan", scanner);
+                    break;
+                case 8:
+                    testAlgorithm("Portfolio", scanner);
+                    break;
+                case 9:
+                    testAlgorithm("Ant colony", scanner);
+                    break;
+                case 10:
+                    testAlgorithm("Parallel tempering", scanner);
+                    break;
                 case 0:
                     exit = true;
                     break;
@@ -79,6 +108,27 @@ public class Main {
             case "A*":
                 testAStar(graph);
                 break;
+            case "Held-Karp":
+                testHeldKarp(graph);
+                break;
+            case "Parallel DFS":
+                testParallelDFS(graph);
+                break;
+            case "Local search":
+                testLocalSearch(graph);
+                break;
+            case "Lin-Kernighan":
+                testLinKernighan(graph);
+                break;
+            case "Portfolio":
+                testPortfolio(graph);
+                break;
+            case "Ant colony":
+                testAntColony(graph);
+                break;
+            case "Parallel tempering":
+                testAnnealing(graph);
+                break;
             default:
                 System.out.println("Invalid algorithm.");
         }
@@ -89,13 +139,77 @@ public class Main {
 
     private static void testDFS(Graph graph) {
         TSPDFS dfs = new TSPDFS(graph);
+        List<Integer> initialTour = TSPConstruction.initialTour(graph, 0);
+        if (initialTour != null) {
+            dfs.setInitialTour(initialTour); // Upper bound from a construction heuristic
+        }
         dfs.search(0); // Start the search from city 0
         System.out.println("DFS: Best path: " + dfs.getBestPath());
         System.out.println("DFS: Minimum cost: " + dfs.getBestCost());
     }
 
+    private static void testParallelDFS(Graph graph) {
+        TSPDFS dfs = new TSPDFS(graph);
+        List<Integer> initialTour = TSPConstruction.initialTour(graph, 0);
+        if (initialTour != null) {
+            dfs.setInitialTour(initialTour); // Upper bound from a construction heuristic
+        }
+        dfs.searchParallel(0); // Start the search from city 0 on all cores
+        System.out.println("Parallel DFS: Best path: " + dfs.getBestPath());
+        System.out.println("Parallel DFS: Minimum cost: " + dfs.getBestCost());
+    }
+
+    private static void testLocalSearch(Graph graph) {
+        TSPLocalSearch localSearch = new TSPLocalSearch(graph);
+        localSearch.search(0); // Start the nearest-neighbour tour from city 0
+        System.out.println("Local search: Best path: " + localSearch.getBestPath());
+        System.out.println("Local search: Cost: " + localSearch.getBestCost());
+    }
+
+    private static void testLinKernighan(Graph graph) {
+        TSPLinKernighan linKernighan = new TSPLinKernighan(graph);
+        linKernighan.search(0); // Start the initial tour from city 0
+        System.out.println("Lin-Kernighan: Best path: " + linKernighan.getBestPath());
+        System.out.println("Lin-Kernighan: Cost: " + linKernighan.getBestCost());
+    }
+
+    private static void testAntColony(Graph graph) {
+        TSPAntColony antColony = new TSPAntColony(graph);
+        antColony.search(0); // Start the resulting path from city 0
+        System.out.println("Ant colony: Best path: " + antColony.getBestPath());
+        System.out.println("Ant colony: Cost: " + antColony.getBestCost());
+        System.out.println("Ant colony: Iterations per second: " + antColony.getIterationsPerSecond());
+        for (long[] entry : antColony.getHistory()) {
+            System.out.println("Ant colony: " + entry[0] + " ms -> " + entry[1]); // Best cost over time
+        }
+    }
+
+    private static void testAnnealing(Graph graph) {
+        TSPAnnealing annealing = new TSPAnnealing(graph);
+        annealing.search(0); // Start the resulting path from city 0
+        System.out.println("Parallel tempering: Best path: " + annealing.getBestPath());
+        System.out.println("Parallel tempering: Cost: " + annealing.getBestCost());
+        System.out.println("Parallel tempering: Moves per second: " + annealing.getMovesPerSecond());
+    }
+
+    private static void testPortfolio(Graph graph) {
+        TSPPortfolio portfolio = new TSPPortfolio(graph);
+        SolveControl control = new SolveControl();
+        control.setTimeLimit(60000); // Stop after one minute if no solver can prove optimality
+        Tour tour = portfolio.solve(0, control); // Start the search from city 0
+        if (tour != null) {
+            System.out.println("Portfolio: Best path: " + tour.getPath());
+            System.out.println("Portfolio: " + (tour.isOptimal() ? "Minimum cost: " : "Cost: ") + tour.getCost());
+            System.out.println("Portfolio: Found by: " + portfolio.getWinner());
+        }
+    }
+
     private static void testUniformCostSearch(Graph graph) {
         TSPUniformCost ucs = new TSPUniformCost(graph);
+        List<Integer> initialTour = TSPConstruction.initialTour(graph, 0);
+        if (initialTour != null) {
+            ucs.setInitialTour(initialTour); // Upper bound from a construction heuristic
+        }
         TSPUniformCost.Path ucsPath = ucs.search(0); // Start the search from city 0
         if (ucsPath != null) {
             System.out.println("UCS: Best path: " + ucsPath.getNodes());
@@ -105,10 +219,21 @@ public class Main {
 
     private static void testAStar(Graph graph) {
         TSPAStar aStar = new TSPAStar(graph);
+        List<Integer> initialTour = TSPConstruction.initialTour(graph, 0);
+        if (initialTour != null) {
+            aStar.setInitialTour(initialTour); // Upper bound from a construction heuristic
+        }
         TSPAStar.Path aStarPath = aStar.search(0); // Start the search from city 0
         if (aStarPath != null) {
             System.out.println("A*: Best path: " + aStarPath.getNodes());
             System.out.println("A*: Minimum cost: " + aStarPath.getGCost());
         }
     }
+
+    private static void testHeldKarp(Graph graph) {
+        TSPHeldKarp heldKarp = new TSPHeldKarp(graph);
+        heldKarp.search(0); // Start the search from city 0
+        System.out.println("Held-Karp: Best path: " + heldKarp.getBestPath());
+        System.out.println("Held-Karp: Minimum cost: " + heldKarp.getBestCost());
+    }
 }